@@ -0,0 +1,44 @@
+package com.nexus.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nexus.core.utils.ActivityLogPartitionManager;
+import com.nexus.core.utils.ActivityLogSink;
+import com.nexus.core.utils.ActivityLogTable;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Binds the activity log classes in utils to the core log table and the core.activity-log properties
+ * Those classes are the same in every module, this is the only place the module shows
+ */
+@Configuration
+public class ActivityLogConfig {
+
+    public static final ActivityLogTable TABLE = new ActivityLogTable("core", "t_logs", "org");
+
+    @Bean
+    public ActivityLogSink activityLogSink(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${core.activity-log.queue-capacity:10000}") int capacity,
+            @Value("${core.activity-log.batch-size:200}") int batchSize,
+            @Value("${core.activity-log.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${core.activity-log.sample-rate:10}") int sampleRate,
+            @Value("${core.activity-log.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        return new ActivityLogSink(jdbcTemplate, meterRegistry, TABLE, capacity, batchSize, flushIntervalMs,
+                sampleRate, shutdownTimeoutMs);
+    }
+
+    @Bean
+    public ActivityLogPartitionManager activityLogPartitionManager(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${core.activity-log.retention-days:30}") int retentionDays,
+            @Value("${core.activity-log.partitions-ahead:7}") int partitionsAhead,
+            @Value("${core.activity-log.partition-cron:0 5 * * * *}") String cron) {
+        return new ActivityLogPartitionManager(jdbcTemplate, transactionManager, meterRegistry, TABLE, retentionDays,
+                partitionsAhead, cron);
+    }
+}
@@ -0,0 +1,44 @@
+package com.nexus.core.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.nexus.core.exception.InvalidCredentialsException;
+import com.nexus.core.payload.ActivityLogPageDto;
+import com.nexus.core.payload.ActivityLogSearchDto;
+import com.nexus.core.service.ActivityLogService;
+import com.nexus.core.utils.CommonUtils;
+
+@RestController
+@RequestMapping("/activity-logs")
+public class ActivityLogController {
+
+    @Autowired
+    private ActivityLogService activityLogService;
+
+    @Autowired
+    private CommonUtils commonUtils;
+
+    /**
+     * Audit query over the activity logs in [from, to), newest first, optionally filtered by
+     * requestUrl, responseStatus and org
+     * Pages are fetched by passing back the nextCursor of the previous response
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivityLogPageDto> searchLogs(ActivityLogSearchDto filter,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestHeader("Authorization") String token) {
+        if (!commonUtils.validateToken(token)) {
+            throw new InvalidCredentialsException();
+        }
+
+        return ResponseEntity.ok(activityLogService.searchLogs(filter, cursor, limit));
+    }
+}
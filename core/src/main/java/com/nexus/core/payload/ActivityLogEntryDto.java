@@ -0,0 +1,36 @@
+package com.nexus.core.payload;
+
+import java.sql.Timestamp;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One stored activity log, request and response are returned as the JSON they were stored as
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityLogEntryDto {
+
+    private Long id;
+
+    private String requestUrl;
+
+    private String httpMethod;
+
+    private int responseStatus;
+
+    @JsonRawValue
+    private String request;
+
+    @JsonRawValue
+    private String response;
+
+    private Long org;
+
+    private Timestamp createdOn;
+}
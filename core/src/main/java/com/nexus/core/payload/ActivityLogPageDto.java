@@ -0,0 +1,19 @@
+package com.nexus.core.payload;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One page of activity logs, newest first
+ * nextCursor is null on the last page, otherwise it is passed back to fetch the next one
+ */
+@Data
+@AllArgsConstructor
+public class ActivityLogPageDto {
+
+    private List<ActivityLogEntryDto> items;
+
+    private String nextCursor;
+}
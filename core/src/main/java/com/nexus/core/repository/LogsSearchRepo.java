@@ -0,0 +1,24 @@
+package com.nexus.core.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.nexus.core.payload.ActivityLogEntryDto;
+import com.nexus.core.payload.ActivityLogSearchDto;
+
+/**
+ * Activity log audit query with keyset pagination, newest first
+ */
+public interface LogsSearchRepo {
+
+    /**
+     * The time range is always a predicate, so PostgreSQL only scans the day partitions it covers;
+     * the optional filters use the index that starts with them
+     *
+     * @param filter Time range and optional filters
+     * @param afterCreatedOn createdOn of the last row of the previous page, null for the first page
+     * @param afterId id of the last row of the previous page, null for the first page
+     * @param limit Maximum number of rows
+     */
+    List<ActivityLogEntryDto> search(ActivityLogSearchDto filter, Timestamp afterCreatedOn, Long afterId, int limit);
+}
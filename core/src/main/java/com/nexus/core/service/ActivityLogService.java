@@ -0,0 +1,9 @@
+package com.nexus.core.service;
+
+import com.nexus.core.payload.ActivityLogPageDto;
+import com.nexus.core.payload.ActivityLogSearchDto;
+
+public interface ActivityLogService {
+
+    ActivityLogPageDto searchLogs(ActivityLogSearchDto filter, String cursor, Integer limit);
+}
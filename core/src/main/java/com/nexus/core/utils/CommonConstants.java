@@ -9,6 +9,10 @@ import lombok.Data;
 @Component
 public class CommonConstants {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Value("${verify.token.url}")
     public String verifyTokenUrl;
 
@@ -9,19 +9,23 @@ import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nexus.core.entities.Logs;
-import com.nexus.core.repository.LogsRepo;
 
 @Component
 public class Logger {
 
     @Autowired
-    private LogsRepo logsRepo;
+    private ActivityLogSink activityLogSink;
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Queue the log for the background writer, see {@link ActivityLogSink}
+     */
     public void saveLog(Logs log) {
         try {
-            logsRepo.save(log);
+            activityLogSink.submit(new ActivityLogSink.Entry(log.getRequestUrl(), log.getHttpMethod(),
+                    log.getResponseStatus(), log.getRequest(), log.getResponse(), log.getOrg(),
+                    log.getCreatedOn()));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,44 @@
+package com.nexus.dms.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.nexus.dms.utils.ActivityLogPartitionManager;
+import com.nexus.dms.utils.ActivityLogSink;
+import com.nexus.dms.utils.ActivityLogTable;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Binds the activity log classes in utils to the dms log table and the dms.activity-log properties
+ * Those classes are the same in every module, this is the only place the module shows
+ */
+@Configuration
+public class ActivityLogConfig {
+
+    public static final ActivityLogTable TABLE = new ActivityLogTable("dms", "t_dms_logs", "document_record_id");
+
+    @Bean
+    public ActivityLogSink activityLogSink(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+            @Value("${dms.activity-log.queue-capacity:10000}") int capacity,
+            @Value("${dms.activity-log.batch-size:200}") int batchSize,
+            @Value("${dms.activity-log.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${dms.activity-log.sample-rate:10}") int sampleRate,
+            @Value("${dms.activity-log.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        return new ActivityLogSink(jdbcTemplate, meterRegistry, TABLE, capacity, batchSize, flushIntervalMs,
+                sampleRate, shutdownTimeoutMs);
+    }
+
+    @Bean
+    public ActivityLogPartitionManager activityLogPartitionManager(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${dms.activity-log.retention-days:30}") int retentionDays,
+            @Value("${dms.activity-log.partitions-ahead:7}") int partitionsAhead,
+            @Value("${dms.activity-log.partition-cron:0 5 * * * *}") String cron) {
+        return new ActivityLogPartitionManager(jdbcTemplate, transactionManager, meterRegistry, TABLE, retentionDays,
+                partitionsAhead, cron);
+    }
+}
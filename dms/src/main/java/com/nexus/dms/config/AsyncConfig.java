@@ -0,0 +1,98 @@
+package com.nexus.dms.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${dms.upload.jobs.threads:8}")
+    private int uploadJobThreads;
+
+    @Value("${dms.upload.jobs.queue-capacity:200}")
+    private int uploadJobQueueCapacity;
+
+    @Value("${dms.upload.batch.parallelism:4}")
+    private int batchUploadParallelism;
+
+    @Value("${dms.preview.threads:2}")
+    private int previewThreads;
+
+    @Value("${dms.preview.queue-capacity:100}")
+    private int previewQueueCapacity;
+
+    @Value("${dms.bulk-delete.queue-capacity:10}")
+    private int bulkDeleteQueueCapacity;
+
+    /**
+     * Dedicated pool for asynchronous upload jobs
+     * Storage work runs here instead of on servlet threads; once the queue is
+     * full new jobs are rejected rather than piling up spool files
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService uploadJobExecutor() {
+        return new ThreadPoolExecutor(uploadJobThreads, uploadJobThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(uploadJobQueueCapacity),
+                Thread.ofPlatform().name("upload-job-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Bounded pool for batch uploads
+     * Overflow runs on the calling request thread, which throttles a large batch
+     * instead of rejecting files part way through
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchUploadExecutor() {
+        return new ThreadPoolExecutor(batchUploadParallelism, batchUploadParallelism,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(batchUploadParallelism),
+                Thread.ofPlatform().name("batch-upload-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Small pool for preview rendering, kept apart so rendering never delays uploads
+     * Previews are best effort; jobs beyond the queue are rejected and skipped
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService previewExecutor() {
+        return new ThreadPoolExecutor(previewThreads, previewThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(previewQueueCapacity),
+                Thread.ofPlatform().name("preview-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Bulk delete jobs run one at a time, later jobs wait in a short queue
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService bulkDeleteExecutor() {
+        return new ThreadPoolExecutor(1, 1,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(bulkDeleteQueueCapacity),
+                Thread.ofPlatform().name("bulk-delete-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * A reconciliation scan runs alone, a request while one is running is rejected
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService reconciliationExecutor() {
+        return new ThreadPoolExecutor(1, 1,
+                60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                Thread.ofPlatform().name("reconcile-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
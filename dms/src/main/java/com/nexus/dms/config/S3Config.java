@@ -1,16 +1,27 @@
 package com.nexus.dms.config;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
 public class S3Config {
@@ -27,16 +38,112 @@ public class S3Config {
         @Value("${s3.endpoint}")
         private String endpoint;
 
+        @Value("${s3.multipart.threads:4}")
+        private int multipartThreads;
+
+        @Value("${s3.async.max-concurrency:200}")
+        private int asyncMaxConcurrency;
+
+        @Value("${s3.async.max-pending-acquires:10000}")
+        private int asyncMaxPendingAcquires;
+
+        @Value("${s3.async.connection-timeout-ms:5000}")
+        private long asyncConnectionTimeoutMs;
+
+        @Value("${s3.async.acquire-timeout-ms:10000}")
+        private long asyncAcquireTimeoutMs;
+
+        @Value("${s3.async.read-timeout-ms:60000}")
+        private long asyncReadTimeoutMs;
+
+        @Value("${s3.async.write-timeout-ms:60000}")
+        private long asyncWriteTimeoutMs;
+
+        @Value("${s3.async.max-idle-ms:60000}")
+        private long asyncMaxIdleMs;
+
+        @Value("${s3.async.tcp-keep-alive:true}")
+        private boolean asyncTcpKeepAlive;
+
         @Bean
         public S3Client s3Client() {
                 return S3Client.builder()
                                 .region(Region.of(region))
-                                .credentialsProvider(StaticCredentialsProvider.create(
-                                                AwsBasicCredentials.create(accessKeyId, secretAccessKey)))
+                                .credentialsProvider(credentialsProvider())
                                 .endpointOverride(URI.create(endpoint))
-                                .serviceConfiguration(S3Configuration.builder()
-                                                .pathStyleAccessEnabled(true)
-                                                .build())
+                                .overrideConfiguration(overrideConfiguration())
+                                .serviceConfiguration(serviceConfiguration())
                                 .build();
         }
-}
\ No newline at end of file
+
+        /**
+         * Non-blocking client for the async storage engine (s3.engine=async)
+         * Netty streams request bodies from disk on its event loop, so transfers
+         * do not pin a thread each; concurrency is bounded by the connection pool
+         * and further transfers wait for a pooled connection
+         */
+        @Bean(destroyMethod = "close")
+        @ConditionalOnProperty(name = "s3.engine", havingValue = "async")
+        public S3AsyncClient s3AsyncClient() {
+                return S3AsyncClient.builder()
+                                .region(Region.of(region))
+                                .credentialsProvider(credentialsProvider())
+                                .endpointOverride(URI.create(endpoint))
+                                .overrideConfiguration(overrideConfiguration())
+                                .serviceConfiguration(serviceConfiguration())
+                                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                                                .maxConcurrency(asyncMaxConcurrency)
+                                                .maxPendingConnectionAcquires(asyncMaxPendingAcquires)
+                                                .connectionTimeout(Duration.ofMillis(asyncConnectionTimeoutMs))
+                                                .connectionAcquisitionTimeout(Duration.ofMillis(asyncAcquireTimeoutMs))
+                                                .readTimeout(Duration.ofMillis(asyncReadTimeoutMs))
+                                                .writeTimeout(Duration.ofMillis(asyncWriteTimeoutMs))
+                                                .connectionMaxIdleTime(Duration.ofMillis(asyncMaxIdleMs))
+                                                .tcpKeepAlive(asyncTcpKeepAlive))
+                                .build();
+        }
+
+        /**
+         * Signs direct uploads locally, no request is sent to the bucket
+         */
+        @Bean(destroyMethod = "close")
+        public S3Presigner s3Presigner() {
+                return S3Presigner.builder()
+                                .region(Region.of(region))
+                                .credentialsProvider(credentialsProvider())
+                                .endpointOverride(URI.create(endpoint))
+                                .serviceConfiguration(serviceConfiguration())
+                                .build();
+        }
+
+        private StaticCredentialsProvider credentialsProvider() {
+                return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretAccessKey));
+        }
+
+        private ClientOverrideConfiguration overrideConfiguration() {
+                // Retries are owned by StorageResilience, SDK retries would multiply them
+                return ClientOverrideConfiguration.builder()
+                                .retryPolicy(RetryPolicy.none())
+                                .build();
+        }
+
+        private S3Configuration serviceConfiguration() {
+                return S3Configuration.builder()
+                                .pathStyleAccessEnabled(true)
+                                .build();
+        }
+
+        /**
+         * Bounded pool for multipart part uploads
+         * Parts stream from the staged file, so neither running nor queued parts hold a part
+         * sized buffer; the capped queue with overflow on the caller bounds the parts in flight
+         */
+        @Bean(destroyMethod = "shutdown")
+        public ExecutorService multipartUploadExecutor() {
+                return new ThreadPoolExecutor(multipartThreads, multipartThreads,
+                                60L, TimeUnit.SECONDS,
+                                new ArrayBlockingQueue<>(multipartThreads * 2),
+                                Thread.ofPlatform().name("s3-part-", 0).daemon(true).factory(),
+                                new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+}
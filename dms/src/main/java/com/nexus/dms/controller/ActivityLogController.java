@@ -0,0 +1,45 @@
+package com.nexus.dms.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.nexus.dms.dto.ActivityLogPageDto;
+import com.nexus.dms.dto.ActivityLogSearchDto;
+import com.nexus.dms.exception.UnauthorizedException;
+import com.nexus.dms.service.ActivityLogService;
+import com.nexus.dms.utils.CommonUtils;
+
+@RestController
+@RequestMapping("/dms/activity-logs")
+public class ActivityLogController {
+
+    @Autowired
+    private ActivityLogService activityLogService;
+
+    @Autowired
+    private CommonUtils commonUtils;
+
+    /**
+     * Audit query over the activity logs in [from, to), newest first, optionally filtered by
+     * requestUrl, responseStatus and documentRecordId
+     * Pages are fetched by passing back the nextCursor of the previous response
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivityLogPageDto> searchLogs(ActivityLogSearchDto filter,
+                                                         @RequestParam(name = "cursor", required = false) String cursor,
+                                                         @RequestParam(name = "limit", required = false) Integer limit,
+                                                         @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.ok(activityLogService.searchLogs(filter, cursor, limit));
+    }
+}
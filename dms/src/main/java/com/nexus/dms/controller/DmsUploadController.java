@@ -3,12 +3,19 @@ package com.nexus.dms.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.nexus.dms.annotation.LogActivity;
 import com.nexus.dms.dto.CommonFileUploadDto;
+import com.nexus.dms.dto.DirectUploadRequestDto;
 import com.nexus.dms.dto.IndividualFileUploadDto;
+import com.nexus.dms.dto.OrgBatchUploadDto;
 import com.nexus.dms.dto.OrgFileUploadDto;
+import com.nexus.dms.dto.UploadSessionDto;
+import com.nexus.dms.dto.UploadSessionRequestDto;
 import com.nexus.dms.exception.UnauthorizedException;
 import com.nexus.dms.service.ImplementerService;
+import com.nexus.dms.service.UploadSessionService;
 import com.nexus.dms.utils.CommonUtils;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.ObjectUtils;
@@ -16,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/dms/upload")
@@ -24,19 +32,24 @@ public class DmsUploadController {
     @Autowired
     private ImplementerService implementerService;
 
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
     @Autowired
     private CommonUtils commonUtils;
 
     /**
      * Upload individual file
      * Validates authorization and request body
-     * Delegates to service layer
+     * Delegates to service layer, with async=true the file is stored in the background
+     * and a job id is returned right away
      * AOP handles logging of all requests/responses/exceptions
      */
     @LogActivity("Individual File Upload")
     @PostMapping(value = "/individual", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> individualUpload(@RequestPart(name = "dto") IndividualFileUploadDto dto,
                                               @RequestPart("file") MultipartFile file,
+                                              @RequestParam(name = "async", defaultValue = "false") boolean async,
                                               @RequestHeader("Authorization") String authHeader) throws JsonProcessingException, IOException {
         if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
             throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
@@ -46,19 +59,21 @@ public class DmsUploadController {
             throw new IllegalArgumentException("Request body is missing");
         }
 
-        return implementerService.individualUpload(dto, file);
+        return implementerService.individualUpload(dto, file, async);
     }
 
     /**
      * Upload organization file
      * Validates authorization and request body
-     * Delegates to service layer
+     * Delegates to service layer, with async=true the file is stored in the background
+     * and a job id is returned right away
      * AOP handles logging of all requests/responses/exceptions
      */
     @LogActivity("Organization File Upload")
     @PostMapping(value = "/org", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> orgUpload(@RequestPart(name = "dto") OrgFileUploadDto dto,
                                        @RequestPart("file") MultipartFile file,
+                                       @RequestParam(name = "async", defaultValue = "false") boolean async,
                                        @RequestHeader("Authorization") String authHeader) throws JsonProcessingException, IOException {
         if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
             throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
@@ -68,19 +83,21 @@ public class DmsUploadController {
             throw new IllegalArgumentException("Request body is missing");
         }
 
-        return implementerService.orgUpload(dto, file);
+        return implementerService.orgUpload(dto, file, async);
     }
 
     /**
      * Upload common file
      * Validates authorization and request body
-     * Delegates to service layer
+     * Delegates to service layer, with async=true the file is stored in the background
+     * and a job id is returned right away
      * AOP handles logging of all requests/responses/exceptions
      */
     @LogActivity("Common File Upload")
     @PostMapping(value = "/common", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> commonUpload(@RequestPart(name = "dto") CommonFileUploadDto dto,
                                           @RequestPart("file") MultipartFile file,
+                                          @RequestParam(name = "async", defaultValue = "false") boolean async,
                                           @RequestHeader("Authorization") String authHeader) throws JsonProcessingException, IOException {
         if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
             throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
@@ -90,7 +107,157 @@ public class DmsUploadController {
             throw new IllegalArgumentException("Request body is missing");
         }
 
-        return implementerService.commonUpload(dto, file);
+        return implementerService.commonUpload(dto, file, async);
+    }
+
+    /**
+     * Upload many organization files in one multipart request
+     * Authenticates once, then validates and stores the files in parallel
+     * Responds 207 when only part of the batch succeeded
+     */
+    @LogActivity("Organization Batch File Upload")
+    @PostMapping(value = "/org/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> orgBatchUpload(@RequestPart(name = "dto") OrgBatchUploadDto dto,
+                                            @RequestPart("files") List<MultipartFile> files,
+                                            @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        if (ObjectUtils.isEmpty(dto)) {
+            throw new IllegalArgumentException("Request body is missing");
+        }
+
+        return implementerService.orgBatchUpload(dto, files);
+    }
+
+    /**
+     * Poll the status of an asynchronous upload job
+     * Moves through PENDING, UPLOADED and FAILED
+     */
+    @GetMapping(value = "/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> uploadJobStatus(@PathVariable Long jobId,
+                                             @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return implementerService.getUploadJobStatus(jobId);
+    }
+
+    /**
+     * Get a signed URL to upload one file straight to storage, bypassing DMS
+     * Always responds 201 with the URL and the headers to send; known content is deduplicated on finalize
+     */
+    @LogActivity("Direct Upload Initiation")
+    @PostMapping(value = "/direct", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> initiateDirectUpload(@RequestBody DirectUploadRequestDto dto,
+                                                  @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        if (ObjectUtils.isEmpty(dto)) {
+            throw new IllegalArgumentException("Request body is missing");
+        }
+
+        return implementerService.initiateDirectUpload(dto);
+    }
+
+    /**
+     * Verify the directly uploaded object and mark the document as uploaded
+     * Responds 400 while the object has not arrived, the call can then be repeated
+     */
+    @LogActivity("Direct Upload Finalization")
+    @PostMapping(value = "/direct/{documentId}/finalize", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> finalizeDirectUpload(@PathVariable Long documentId,
+                                                  @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return implementerService.finalizeDirectUpload(documentId);
+    }
+
+    /**
+     * Start a resumable upload for one file
+     * The file is then sent in chunks with PUT /sessions/{sessionId} and stored on completion
+     */
+    @LogActivity("Upload Session Creation")
+    @PostMapping(value = "/sessions", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadSessionDto> createUploadSession(@RequestBody UploadSessionRequestDto dto,
+                                                                @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        if (ObjectUtils.isEmpty(dto)) {
+            throw new IllegalArgumentException("Request body is missing");
+        }
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.createSession(dto));
+    }
+
+    /**
+     * Current offset of a resumable upload, where an interrupted client continues from
+     */
+    @GetMapping(value = "/sessions/{sessionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadSessionDto> uploadSessionStatus(@PathVariable String sessionId,
+                                                                @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.ok(uploadSessionService.getSession(sessionId));
+    }
+
+    /**
+     * Append the raw request body at the given offset
+     * Responds 409 with the session when the offset is not the number of bytes received so far
+     * Not logged through AOP, the body is binary
+     */
+    @PutMapping(value = "/sessions/{sessionId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UploadSessionDto> appendUploadChunk(@PathVariable String sessionId,
+                                                              @RequestHeader("Upload-Offset") long offset,
+                                                              @RequestHeader("Authorization") String authHeader,
+                                                              HttpServletRequest request) throws IOException {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return uploadSessionService.appendChunk(sessionId, offset, request.getContentLengthLong(),
+                request.getInputStream());
+    }
+
+    /**
+     * Store the assembled file and save its document record
+     * A failed store leaves the session open, so completion can be retried
+     */
+    @LogActivity("Upload Session Completion")
+    @PostMapping(value = "/sessions/{sessionId}/complete", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> completeUploadSession(@PathVariable String sessionId,
+                                                   @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return uploadSessionService.completeSession(sessionId);
+    }
+
+    /**
+     * Drop the cached organization of a user, e.g. after IAM moved them to another organization
+     * Without a userId the whole cache is cleared
+     */
+    @LogActivity("User Organization Cache Invalidation")
+    @DeleteMapping({"/user-org-cache", "/user-org-cache/{userId}"})
+    public ResponseEntity<Void> invalidateUserOrg(@PathVariable(required = false) Long userId,
+                                                  @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        implementerService.invalidateUserOrg(userId);
+        return ResponseEntity.noContent().build();
     }
 
 }
@@ -0,0 +1,164 @@
+package com.nexus.dms.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.nexus.dms.annotation.LogActivity;
+import com.nexus.dms.dto.BulkDeleteJobDto;
+import com.nexus.dms.dto.BulkDeleteRequestDto;
+import com.nexus.dms.dto.DocumentPageDto;
+import com.nexus.dms.dto.DocumentSearchDto;
+import com.nexus.dms.dto.ReconciliationRunDto;
+import com.nexus.dms.exception.UnauthorizedException;
+import com.nexus.dms.service.BulkDeleteService;
+import com.nexus.dms.service.DocumentService;
+import com.nexus.dms.service.PreviewService;
+import com.nexus.dms.service.ReconciliationService;
+import com.nexus.dms.utils.CommonUtils;
+
+@RestController
+@RequestMapping("/dms/documents")
+public class DocumentController {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private PreviewService previewService;
+
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private CommonUtils commonUtils;
+
+    /**
+     * List documents newest first with optional filters
+     * Pages are fetched by passing back the nextCursor of the previous response
+     */
+    @LogActivity("Document Search")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DocumentPageDto> searchDocuments(DocumentSearchDto filter,
+                                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                                           @RequestParam(name = "limit", required = false) Integer limit,
+                                                           @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.ok(documentService.searchDocuments(filter, cursor, limit));
+    }
+
+    /**
+     * Delete every document matching the filter in the background, e.g. when offboarding an organization
+     * Returns the job right away; progress is polled on the job endpoint
+     */
+    @LogActivity("Bulk Document Delete")
+    @PostMapping(value = "/bulk-delete", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkDeleteJobDto> bulkDelete(@RequestBody BulkDeleteRequestDto request,
+                                                       @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkDeleteService.submit(request));
+    }
+
+    /**
+     * Progress of a bulk delete: QUEUED, RUNNING, COMPLETED or FAILED with running counters
+     */
+    @GetMapping(value = "/bulk-delete/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkDeleteJobDto> bulkDeleteStatus(@PathVariable Long jobId,
+                                                             @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.ok(bulkDeleteService.getJob(jobId));
+    }
+
+    /**
+     * Start a reconciliation scan of the bucket against the document records
+     * Orphaned objects are deleted only when dms.reconcile.delete-orphans is enabled
+     */
+    @LogActivity("Storage Reconciliation")
+    @PostMapping(value = "/reconciliation", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReconciliationRunDto> reconcile(@RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciliationService.submit());
+    }
+
+    /**
+     * Progress or result of the most recent reconciliation scan
+     */
+    @GetMapping(value = "/reconciliation/latest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReconciliationRunDto> latestReconciliation(
+            @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.ok(reconciliationService.getLatestRun());
+    }
+
+    @GetMapping(value = "/reconciliation/{runId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReconciliationRunDto> reconciliationStatus(@PathVariable Long runId,
+                                                                     @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return ResponseEntity.ok(reconciliationService.getRun(runId));
+    }
+
+    /**
+     * Stream document bytes from storage
+     * Honours a single Range request (206) and If-None-Match against the checksum ETag (304)
+     * Not annotated with LogActivity, binary bodies are not written to the activity log
+     */
+    @GetMapping("/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getDocumentContent(@PathVariable Long id,
+                                                                    @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                    @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return documentService.getDocumentContent(id, range, ifNoneMatch);
+    }
+
+    /**
+     * Small JPEG preview of the first page or image, generated in the background after upload
+     * Returns 404 until the preview is ready or when the document type has none
+     */
+    @GetMapping("/{id}/preview")
+    public ResponseEntity<byte[]> getDocumentPreview(@PathVariable Long id,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                     @RequestHeader("Authorization") String authHeader) {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+
+        return previewService.getDocumentPreview(id, ifNoneMatch);
+    }
+}
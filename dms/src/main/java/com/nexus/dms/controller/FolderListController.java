@@ -8,6 +8,7 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -83,4 +84,37 @@ public class FolderListController {
         return response;
     }
 
+    /**
+     * Document count, total bytes and last upload time per folder
+     * refresh=true first adds the documents uploaded since the last scheduled refresh
+     */
+    @GetMapping("/folder-stats")
+    public ResponseEntity<?> getFolderStats(@RequestParam(name = "refresh", defaultValue = "false") boolean refresh,
+                                            @RequestHeader("Authorization") String authHeader)
+            throws JsonProcessingException {
+        if (ObjectUtils.isEmpty(authHeader) || commonUtils.validateToken(authHeader)) {
+            throw new UnauthorizedException("Unauthorized! Please use credentials", "Unable to validate token");
+        }
+        ResponseEntity<?> response = null;
+        try {
+            if (refresh) {
+                folderListService.refreshFolderStats(false);
+            }
+            response = folderListService.getFolderStats();
+        } catch (Exception e) {
+            ErrorResponseDto errorResponse = new ErrorResponseDto(
+                    "Internal Server Error",
+                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    new Timestamp(System.currentTimeMillis()),
+                    "An error occurred during fetching folder stats",
+                    e.getMessage());
+            response = ResponseEntity.status(500).body(errorResponse);
+        } finally {
+            HttpStatus status = response != null ? HttpStatus.valueOf(response.getStatusCode().value()) : null;
+            logger.saveLogs("/folder-list/folder-stats", HttpMethod.GET, status, null,
+                    response != null ? response.getBody() : null, 0L);
+        }
+        return response;
+    }
+
 }
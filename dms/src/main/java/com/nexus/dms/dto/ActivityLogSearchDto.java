@@ -0,0 +1,28 @@
+package com.nexus.dms.dto;
+
+import java.time.Instant;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import lombok.Data;
+
+/**
+ * Filters for the activity log audit query
+ * from (inclusive) and to (exclusive) are required so the query only reads the day partitions
+ * in range, the other fields are optional
+ */
+@Data
+public class ActivityLogSearchDto {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant to;
+
+    private String requestUrl;
+
+    private Integer responseStatus;
+
+    private Long documentRecordId;
+}
@@ -0,0 +1,15 @@
+package com.nexus.dms.dto;
+
+import com.nexus.dms.entities.DocumentType;
+
+import lombok.Data;
+
+@Data
+public class BatchFileEntryDto {
+
+    private String fileName;
+
+    private String remarks;
+
+    private DocumentType documentType;
+}
@@ -0,0 +1,23 @@
+package com.nexus.dms.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchUploadResponseDto {
+
+    private Long orgId;
+
+    private int total;
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BatchUploadResultDto> results;
+}
@@ -0,0 +1,23 @@
+package com.nexus.dms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchUploadResultDto {
+
+    private String fileName;
+
+    private String status;
+
+    private Long documentRecordId;
+
+    private String dmsId;
+
+    private String documentUrl;
+
+    private String error;
+}
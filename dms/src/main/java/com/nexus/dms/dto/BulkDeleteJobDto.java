@@ -0,0 +1,31 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeleteJobDto {
+
+    private Long jobId;
+
+    private String status;
+
+    private long matchedCount;
+
+    private long recordsDeleted;
+
+    private long objectsDeleted;
+
+    private long objectsFailed;
+
+    private Timestamp createdAt;
+
+    private Timestamp finishedAt;
+
+    private String errorMessage;
+}
@@ -0,0 +1,25 @@
+package com.nexus.dms.dto;
+
+import java.time.Instant;
+
+import com.nexus.dms.entities.DocumentType;
+
+import lombok.Data;
+
+/**
+ * Selects the documents a bulk delete removes, at least orgId or folderId is required
+ * uploadedFrom is inclusive and uploadedTo exclusive
+ */
+@Data
+public class BulkDeleteRequestDto {
+
+    private Long orgId;
+
+    private Long folderId;
+
+    private DocumentType documentType;
+
+    private Instant uploadedFrom;
+
+    private Instant uploadedTo;
+}
@@ -0,0 +1,29 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where and how to upload the file, then finalize the document with its id
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DirectUploadDto {
+
+    private Long documentId;
+
+    private String status;
+
+    private String uploadUrl;
+
+    private String uploadMethod;
+
+    private Map<String, String> uploadHeaders;
+
+    private Timestamp expiresAt;
+}
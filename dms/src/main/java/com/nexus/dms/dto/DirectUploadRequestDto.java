@@ -0,0 +1,36 @@
+package com.nexus.dms.dto;
+
+import com.nexus.dms.entities.DocumentType;
+import com.nexus.dms.entities.OrgType;
+import com.nexus.dms.entities.UploaderType;
+
+import lombok.Data;
+
+/**
+ * Describes a file the client uploads straight to storage; userId, orgId and orgType are used as
+ * for the matching single request upload of the uploaderType
+ * The checksum is the hex MD5 of the file, storage only accepts content that matches it
+ */
+@Data
+public class DirectUploadRequestDto {
+
+    private UploaderType uploaderType;
+
+    private String fileName;
+
+    private long size;
+
+    private String contentType;
+
+    private String checksum;
+
+    private DocumentType documentType;
+
+    private String remarks;
+
+    private Long userId;
+
+    private Long orgId;
+
+    private OrgType orgType;
+}
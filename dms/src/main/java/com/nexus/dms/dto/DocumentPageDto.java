@@ -0,0 +1,19 @@
+package com.nexus.dms.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One page of a document listing
+ * nextCursor is null on the last page, otherwise it is passed back to fetch the next one
+ */
+@Data
+@AllArgsConstructor
+public class DocumentPageDto {
+
+    private List<DocumentSummaryDto> items;
+
+    private String nextCursor;
+}
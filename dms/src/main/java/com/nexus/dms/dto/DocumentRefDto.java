@@ -0,0 +1,30 @@
+package com.nexus.dms.dto;
+
+import com.nexus.dms.utils.ObjectKeys;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The storage references of a DocumentRecord, all a bulk delete needs to know
+ */
+@Data
+@AllArgsConstructor
+public class DocumentRefDto {
+
+    private Long id;
+
+    /**
+     * Null for records stored before checksums were recorded
+     */
+    private String checksum;
+
+    private String objectKey;
+
+    /**
+     * Records without a persisted key get the folder/name key they were stored under
+     */
+    public DocumentRefDto(Long id, String checksum, String objectKey, String folderName, String documentName) {
+        this(id, checksum, ObjectKeys.resolve(objectKey, folderName, documentName));
+    }
+}
@@ -0,0 +1,34 @@
+package com.nexus.dms.dto;
+
+import java.time.Instant;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.nexus.dms.entities.DocumentType;
+import com.nexus.dms.entities.UploaderType;
+
+import lombok.Data;
+
+/**
+ * Filters for listing documents, every field is optional
+ * uploadedFrom is inclusive and uploadedTo exclusive
+ */
+@Data
+public class DocumentSearchDto {
+
+    private Long orgId;
+
+    private Long userId;
+
+    private DocumentType documentType;
+
+    private UploaderType uploaderType;
+
+    private String status;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant uploadedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private Instant uploadedTo;
+}
@@ -0,0 +1,43 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+
+import com.nexus.dms.entities.DocumentType;
+import com.nexus.dms.entities.UploaderType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Listing view of a DocumentRecord, selected directly by the query without the folder
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSummaryDto {
+
+    private Long documentId;
+
+    private String documentName;
+
+    private DocumentType documentType;
+
+    private Long documentSize;
+
+    private String mimeType;
+
+    private String status;
+
+    private UploaderType uploaderType;
+
+    private Long userId;
+
+    private Long orgId;
+
+    private String dmsId;
+
+    private String documentUrl;
+
+    private Timestamp uploadedAt;
+}
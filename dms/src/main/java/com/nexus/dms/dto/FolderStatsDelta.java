@@ -0,0 +1,22 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Per-folder aggregate of a range of document records
+ */
+@Data
+@AllArgsConstructor
+public class FolderStatsDelta {
+
+    private Long folderId;
+
+    private Long documentCount;
+
+    private Long totalBytes;
+
+    private Timestamp lastUploadedAt;
+}
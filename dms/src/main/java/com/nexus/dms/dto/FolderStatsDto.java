@@ -0,0 +1,27 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FolderStatsDto {
+
+    private Long folderId;
+
+    private String folderName;
+
+    private String orgType;
+
+    private long documentCount;
+
+    private long totalBytes;
+
+    private Timestamp lastUploadedAt;
+
+    private Timestamp refreshedAt;
+}
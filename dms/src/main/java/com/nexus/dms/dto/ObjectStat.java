@@ -0,0 +1,20 @@
+package com.nexus.dms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Metadata of a stored object, read without fetching its content
+ */
+@Getter
+@AllArgsConstructor
+public class ObjectStat {
+
+    private final long size;
+
+    // Hex MD5 of the content for single part uploads, null if the backend has none
+    private final String eTag;
+
+    // Null while the backend has not reported one yet
+    private final String cid;
+}
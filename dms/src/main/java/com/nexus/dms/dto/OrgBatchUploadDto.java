@@ -0,0 +1,18 @@
+package com.nexus.dms.dto;
+
+import java.util.List;
+
+import com.nexus.dms.entities.OrgType;
+
+import lombok.Data;
+
+@Data
+public class OrgBatchUploadDto {
+
+    private Long orgId;
+
+    private OrgType orgType;
+
+    // Metadata for each file part, matched by position
+    private List<BatchFileEntryDto> files;
+}
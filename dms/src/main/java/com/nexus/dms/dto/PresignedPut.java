@@ -0,0 +1,24 @@
+package com.nexus.dms.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A signed PUT the client sends straight to storage
+ * Every header listed is part of the signature and must be sent unchanged
+ */
+@Getter
+@AllArgsConstructor
+public class PresignedPut {
+
+    private final String objectKey;
+
+    private final String url;
+
+    private final Map<String, String> headers;
+
+    private final Instant expiresAt;
+}
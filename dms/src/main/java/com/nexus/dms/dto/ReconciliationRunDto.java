@@ -0,0 +1,38 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationRunDto {
+
+    private Long runId;
+
+    private String status;
+
+    private long objectsScanned;
+
+    private long recordsScanned;
+
+    private long orphansFound;
+
+    private long orphansDeleted;
+
+    private long danglingFound;
+
+    private List<String> orphanSample;
+
+    private List<String> danglingSample;
+
+    private Timestamp startedAt;
+
+    private Timestamp finishedAt;
+
+    private String errorMessage;
+}
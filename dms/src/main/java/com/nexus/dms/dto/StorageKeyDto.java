@@ -0,0 +1,34 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+
+import com.nexus.dms.utils.ObjectKeys;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The storage keys a database row refers to
+ */
+@Data
+@AllArgsConstructor
+public class StorageKeyDto {
+
+    private Long id;
+
+    private String objectKey;
+
+    private String previewKey;
+
+    private String status;
+
+    private Timestamp uploadedAt;
+
+    /**
+     * For a document record, records without a persisted key get the folder/name key they were stored under
+     */
+    public StorageKeyDto(Long id, String objectKey, String folderName, String documentName, String previewKey,
+            String status, Timestamp uploadedAt) {
+        this(id, ObjectKeys.resolve(objectKey, folderName, documentName), previewKey, status, uploadedAt);
+    }
+}
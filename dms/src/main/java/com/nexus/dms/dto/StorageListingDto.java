@@ -0,0 +1,28 @@
+package com.nexus.dms.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One page of a bucket listing, nextContinuationToken is null on the last page
+ */
+@Data
+@AllArgsConstructor
+public class StorageListingDto {
+
+    private List<Entry> entries;
+
+    private String nextContinuationToken;
+
+    @Data
+    @AllArgsConstructor
+    public static class Entry {
+
+        private String key;
+
+        private Instant lastModified;
+    }
+}
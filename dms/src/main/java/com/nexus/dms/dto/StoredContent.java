@@ -0,0 +1,19 @@
+package com.nexus.dms.dto;
+
+import java.io.InputStream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An open stream over (part of) a stored object
+ * The caller owns the stream and must close it
+ */
+@Getter
+@AllArgsConstructor
+public class StoredContent {
+
+    private final InputStream stream;
+
+    private final long contentLength;
+}
@@ -0,0 +1,27 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadJobDto {
+
+    private Long jobId;
+
+    private String status;
+
+    private String documentName;
+
+    private String dmsId;
+
+    private String documentUrl;
+
+    private Timestamp uploadedAt;
+
+    private String errorMessage;
+}
@@ -0,0 +1,27 @@
+package com.nexus.dms.dto;
+
+import java.sql.Timestamp;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionDto {
+
+    private String sessionId;
+
+    private String status;
+
+    private String fileName;
+
+    private long totalSize;
+
+    private long receivedBytes;
+
+    private Long documentRecordId;
+
+    private Timestamp expiresAt;
+}
@@ -0,0 +1,33 @@
+package com.nexus.dms.dto;
+
+import com.nexus.dms.entities.DocumentType;
+import com.nexus.dms.entities.OrgType;
+import com.nexus.dms.entities.UploaderType;
+
+import lombok.Data;
+
+/**
+ * Describes the file of a resumable upload; userId, orgId and orgType are used as for the
+ * matching single request upload of the uploaderType
+ */
+@Data
+public class UploadSessionRequestDto {
+
+    private UploaderType uploaderType;
+
+    private String fileName;
+
+    private long totalSize;
+
+    private String contentType;
+
+    private DocumentType documentType;
+
+    private String remarks;
+
+    private Long userId;
+
+    private Long orgId;
+
+    private OrgType orgType;
+}
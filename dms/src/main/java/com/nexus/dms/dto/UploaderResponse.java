@@ -14,4 +14,6 @@ public class UploaderResponse {
     private String url;
 
     private String directoryLocation;
+
+    private String objectKey;
 }
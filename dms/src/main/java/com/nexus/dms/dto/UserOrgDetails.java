@@ -0,0 +1,16 @@
+package com.nexus.dms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Organization of a user as reported by IAM
+ */
+@Getter
+@AllArgsConstructor
+public class UserOrgDetails {
+
+    private final Long orgId;
+
+    private final String orgType;
+}
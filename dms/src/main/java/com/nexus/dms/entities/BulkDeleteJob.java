@@ -0,0 +1,55 @@
+package com.nexus.dms.entities;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A background deletion of every document matching a filter
+ * The counters are updated after each batch and serve as progress report
+ */
+@Entity
+@Table(name = "t_dms_bulk_delete_jobs", schema = "dms")
+@Data
+public class BulkDeleteJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String status;
+
+    private Long orgId;
+
+    private Long folderId;
+
+    @Enumerated(EnumType.STRING)
+    private DocumentType documentType;
+
+    private Timestamp uploadedFrom;
+
+    private Timestamp uploadedTo;
+
+    private long matchedCount;
+
+    private long recordsDeleted;
+
+    private long objectsDeleted;
+
+    private long objectsFailed;
+
+    private Timestamp createdAt;
+
+    private Timestamp startedAt;
+
+    private Timestamp finishedAt;
+
+    private String errorMessage;
+}
@@ -7,13 +7,22 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 @Entity
-@Table(name = "t_dms_document_records", schema = "dms")
+@Table(name = "t_dms_document_records", schema = "dms", indexes = {
+        @Index(name = "idx_dms_document_records_checksum", columnList = "checksum"),
+        // Listing indexes: equality filter first, then the (uploadedAt, id) seek order
+        @Index(name = "idx_dms_document_records_uploaded", columnList = "uploadedAt, id"),
+        @Index(name = "idx_dms_document_records_org_uploaded", columnList = "orgId, uploadedAt, id"),
+        @Index(name = "idx_dms_document_records_user_uploaded", columnList = "userId, uploadedAt, id"),
+        @Index(name = "idx_dms_document_records_org_type_uploaded", columnList = "orgId, documentType, uploadedAt, id"),
+        @Index(name = "idx_dms_document_records_status_uploaded", columnList = "status, uploadedAt, id")
+})
 @Data
 public class DocumentRecord {
 
@@ -51,8 +60,17 @@ public class DocumentRecord {
 
     private String dmsId;
 
+    private String objectKey;
+
+    private String previewKey;
+
     private String remarks;
 
+    /**
+     * Why an upload job failed, null otherwise
+     */
+    private String errorMessage;
+
     @ManyToOne
     @JsonBackReference
     private FolderList folderList;
@@ -0,0 +1,33 @@
+package com.nexus.dms.entities;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Precomputed document totals of a folder, counting UPLOADED records only
+ * Maintained by adding the aggregate of records newer than refreshedThroughId,
+ * so reading it never touches the document table
+ */
+@Entity
+@Table(name = "t_dms_folder_stats", schema = "dms")
+@Data
+public class FolderStats {
+
+    @Id
+    private Long folderId;
+
+    private long documentCount;
+
+    private long totalBytes;
+
+    private Timestamp lastUploadedAt;
+
+    // Every record with a lower or equal id is included in the totals
+    private long refreshedThroughId;
+
+    private Timestamp refreshedAt;
+}
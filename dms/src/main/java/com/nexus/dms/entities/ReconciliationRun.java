@@ -0,0 +1,50 @@
+package com.nexus.dms.entities;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Result of one comparison of the bucket against the database
+ * Orphans are objects no row refers to, dangling records point at a missing object;
+ * only a bounded sample of each is kept
+ */
+@Entity
+@Table(name = "t_dms_reconciliation_runs", schema = "dms")
+@Data
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String status;
+
+    private long objectsScanned;
+
+    private long recordsScanned;
+
+    private long orphansFound;
+
+    private long orphansDeleted;
+
+    private long danglingFound;
+
+    @Column(length = 4000)
+    private String orphanSample;
+
+    @Column(length = 4000)
+    private String danglingSample;
+
+    private Timestamp startedAt;
+
+    private Timestamp finishedAt;
+
+    private String errorMessage;
+}
@@ -0,0 +1,52 @@
+package com.nexus.dms.entities;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A physical object in storage, shared by every DocumentRecord with the same content
+ * referenceCount tracks how many records point at it; the object is only removed
+ * from storage when the last reference goes away
+ */
+@Entity
+@Table(name = "t_dms_stored_objects", schema = "dms", indexes = {
+        @Index(name = "idx_dms_stored_objects_checksum", columnList = "checksum", unique = true),
+        @Index(name = "idx_dms_stored_objects_dms_id", columnList = "dmsId")
+})
+@Data
+public class StoredObject {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String checksum;
+
+    private Long documentSize;
+
+    private String objectKey;
+
+    private String dmsId;
+
+    private String documentUrl;
+
+    private String previewKey;
+
+    private long referenceCount;
+
+    /**
+     * Failed background CID lookups, objects past the limit are no longer retried
+     */
+    private int resolveAttempts;
+
+    private Timestamp createdAt = new Timestamp(System.currentTimeMillis());
+}
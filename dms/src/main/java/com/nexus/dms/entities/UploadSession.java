@@ -0,0 +1,60 @@
+package com.nexus.dms.entities;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A resumable upload whose chunks are spooled to local disk until it is completed
+ * receivedBytes is only advanced after a chunk has been written and synced, so it is
+ * always the offset a client can safely resume from
+ */
+@Entity
+@Table(name = "t_dms_upload_sessions", schema = "dms",
+        indexes = @Index(name = "idx_upload_sessions_status_expiry", columnList = "status, expiresAt"))
+@Data
+public class UploadSession {
+
+    // Random UUID, the session id is the only credential for its chunk endpoints besides the token
+    @Id
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    private UploaderType uploaderType;
+
+    private Long userId;
+
+    private Long orgId;
+
+    @Enumerated(EnumType.STRING)
+    private OrgType orgType;
+
+    private String fileName;
+
+    private String contentType;
+
+    @Enumerated(EnumType.STRING)
+    private DocumentType documentType;
+
+    private String remarks;
+
+    private long totalSize;
+
+    private long receivedBytes;
+
+    private String status;
+
+    private Long documentRecordId;
+
+    private Timestamp createdAt;
+
+    private Timestamp updatedAt;
+
+    private Timestamp expiresAt;
+}
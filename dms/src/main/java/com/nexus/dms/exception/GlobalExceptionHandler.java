@@ -3,6 +3,7 @@ package com.nexus.dms.exception;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -84,4 +85,18 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(ex.getStatus()).body(errorResponse);
     }
-}
\ No newline at end of file
+
+    // 5xx
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponseDto> handleServiceUnavailableException(ServiceUnavailableException ex, HttpServletRequest request) {
+        ErrorResponseDto errorResponse = new ErrorResponseDto(
+                ex.getMessage(),
+                ex.getStatus().value(),
+                ex.getTimestamp(),
+                ex.getDetails());
+
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+}
@@ -0,0 +1,34 @@
+package com.nexus.dms.exception;
+
+import java.io.Serial;
+import java.sql.Timestamp;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * A dependency is temporarily unable to take more work
+ * Mapped to 503 with a Retry-After header so clients back off instead of retrying at once
+ */
+@Getter
+public class ServiceUnavailableException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+    private final Timestamp timestamp;
+    private final String message;
+    private final HttpStatus status;
+    private final String details;
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, String details, long retryAfterSeconds) {
+        super(message);
+        this.timestamp = new Timestamp(System.currentTimeMillis());
+        this.status = HttpStatus.SERVICE_UNAVAILABLE;
+        this.message = message;
+        this.details = details;
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+}
@@ -0,0 +1,8 @@
+package com.nexus.dms.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.nexus.dms.entities.BulkDeleteJob;
+
+public interface BulkDeleteJobRepo extends JpaRepository<BulkDeleteJob, Long> {
+}
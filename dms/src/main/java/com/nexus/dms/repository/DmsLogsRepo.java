@@ -6,6 +6,6 @@ import org.springframework.stereotype.Repository;
 import com.nexus.dms.entities.DmsLogs;
 
 @Repository
-public interface DmsLogsRepo extends JpaRepository<DmsLogs, Long> {
+public interface DmsLogsRepo extends JpaRepository<DmsLogs, Long>, DmsLogsSearchRepo {
 
 }
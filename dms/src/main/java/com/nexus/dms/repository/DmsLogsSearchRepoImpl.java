@@ -0,0 +1,66 @@
+package com.nexus.dms.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.nexus.dms.dto.ActivityLogEntryDto;
+import com.nexus.dms.dto.ActivityLogSearchDto;
+import com.nexus.dms.entities.DmsLogs;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class DmsLogsSearchRepoImpl implements DmsLogsSearchRepo {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ActivityLogEntryDto> search(ActivityLogSearchDto filter, Timestamp afterCreatedOn, Long afterId,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ActivityLogEntryDto> query = cb.createQuery(ActivityLogEntryDto.class);
+        Root<DmsLogs> log = query.from(DmsLogs.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThanOrEqualTo(log.get("createdOn"), Timestamp.from(filter.getFrom())));
+        predicates.add(cb.lessThan(log.get("createdOn"), Timestamp.from(filter.getTo())));
+        if (filter.getRequestUrl() != null) {
+            predicates.add(cb.equal(log.get("requestUrl"), filter.getRequestUrl()));
+        }
+        if (filter.getResponseStatus() != null) {
+            predicates.add(cb.equal(log.get("responseStatus"), filter.getResponseStatus()));
+        }
+        if (filter.getDocumentRecordId() != null) {
+            predicates.add(cb.equal(log.get("documentRecordId"), filter.getDocumentRecordId()));
+        }
+        // Seek past the previous page instead of skipping rows with an offset
+        if (afterCreatedOn != null && afterId != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(log.get("createdOn"), afterCreatedOn),
+                    cb.and(cb.equal(log.get("createdOn"), afterCreatedOn),
+                            cb.lessThan(log.get("id"), afterId))));
+        }
+
+        query.select(cb.construct(ActivityLogEntryDto.class,
+                        log.get("id"),
+                        log.get("requestUrl"),
+                        log.get("httpMethod"),
+                        log.get("responseStatus"),
+                        log.get("request"),
+                        log.get("response"),
+                        log.get("documentRecordId"),
+                        log.get("createdOn")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(log.get("createdOn")), cb.desc(log.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,9 +1,109 @@
 package com.nexus.dms.repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.nexus.dms.dto.FolderStatsDelta;
+import com.nexus.dms.dto.StorageKeyDto;
 import com.nexus.dms.entities.DocumentRecord;
 
-public interface DocumentRecordRepo extends JpaRepository<DocumentRecord, Long> {
+public interface DocumentRecordRepo extends JpaRepository<DocumentRecord, Long>, DocumentRecordSearchRepo {
+
+    Optional<DocumentRecord> findFirstByChecksumAndDocumentSizeAndStatusOrderByIdAsc(String checksum,
+            Long documentSize, String status);
+
+    long countByChecksumAndStatus(String checksum, String status);
+
+    /**
+     * Per-folder totals of the records with afterId < id <= throughId in the given status
+     */
+    @Query("select new com.nexus.dms.dto.FolderStatsDelta(d.folderList.id, count(d), coalesce(sum(d.documentSize), 0), "
+            + "max(d.uploadedAt)) from DocumentRecord d "
+            + "where d.status = :status and d.id > :afterId and d.id <= :throughId and d.folderList is not null "
+            + "group by d.folderList.id")
+    List<FolderStatsDelta> aggregateByFolder(@Param("status") String status, @Param("afterId") long afterId,
+            @Param("throughId") long throughId);
+
+    /**
+     * Set-based status change for a batch of records
+     * Only records still in the expected status change, the count tells how many did
+     */
+    @Transactional
+    @Modifying
+    @Query("update DocumentRecord d set d.status = :status where d.id in :ids and d.status = :expected")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("expected") String expected,
+            @Param("status") String status);
+
+    /**
+     * Like updateStatus, but returns the ids of the records that did change
+     * A record changed concurrently by another delete is not among them
+     */
+    @Transactional
+    @Query(value = "update dms.t_dms_document_records set status = :status "
+            + "where id in (:ids) and status = :expected returning id", nativeQuery = true)
+    List<Long> updateStatusReturningIds(@Param("ids") Collection<Long> ids, @Param("expected") String expected,
+            @Param("status") String status);
+
+    /**
+     * Storage keys of records in id order for keyset paging
+     * Records stored before object keys existed are addressed by their folder/name key
+     */
+    @Query("select new com.nexus.dms.dto.StorageKeyDto(d.id, d.objectKey, f.folderName, d.documentName, "
+            + "d.previewKey, d.status, d.uploadedAt) from DocumentRecord d left join d.folderList f "
+            + "where d.id > :afterId and d.status <> :excludedStatus order by d.id")
+    List<StorageKeyDto> findKeysAfter(@Param("afterId") long afterId, @Param("excludedStatus") String excludedStatus,
+            Pageable pageable);
+
+    @Query("select new com.nexus.dms.dto.StorageKeyDto(d.id, d.objectKey, f.folderName, d.documentName, "
+            + "d.previewKey, d.status, d.uploadedAt) from DocumentRecord d left join d.folderList f "
+            + "where (d.objectKey in :keys or d.previewKey in :keys or (d.objectKey is null "
+            + "and (concat(f.folderName, '/', d.documentName) in :keys or d.documentName in :keys))) "
+            + "and d.status <> :excludedStatus")
+    List<StorageKeyDto> findReferencingKeys(@Param("keys") Collection<String> keys,
+            @Param("excludedStatus") String excludedStatus);
+
+    /**
+     * Records without a persisted key that still use the folder/name key, see ObjectKeys
+     */
+    @Query("select count(d) from DocumentRecord d left join d.folderList f where d.status = :status "
+            + "and d.objectKey is null and (concat(f.folderName, '/', d.documentName) = :key "
+            + "or (f.id is null and d.documentName = :key))")
+    long countByLegacyKeyAndStatus(@Param("key") String key, @Param("status") String status);
+
+    @Query("select max(d.id) from DocumentRecord d")
+    Long findMaxId();
+
+    /**
+     * Lowest id of a record that may still change status, recent ones only so a
+     * record left behind by a crashed job does not hold back the watermark forever
+     */
+    @Query("select min(d.id) from DocumentRecord d where d.status in :statuses and d.uploadedAt > :since")
+    Long findMinIdByStatusInSince(@Param("statuses") Collection<String> statuses, @Param("since") Timestamp since);
+
+    /**
+     * Records sharing content share the preview, so one statement updates them all
+     */
+    @Transactional
+    @Modifying
+    @Query("update DocumentRecord d set d.previewKey = :previewKey where d.checksum = :checksum")
+    int updatePreviewKey(@Param("checksum") String checksum, @Param("previewKey") String previewKey);
 
+    /**
+     * Fill in the CID for every record of the content that was saved before it was known
+     */
+    @Transactional
+    @Modifying
+    @Query("update DocumentRecord d set d.dmsId = :dmsId, d.documentUrl = :documentUrl "
+            + "where d.checksum = :checksum and d.dmsId is null")
+    int fillCid(@Param("checksum") String checksum, @Param("dmsId") String dmsId,
+            @Param("documentUrl") String documentUrl);
 }
@@ -0,0 +1,35 @@
+package com.nexus.dms.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.nexus.dms.dto.BulkDeleteRequestDto;
+import com.nexus.dms.dto.DocumentRefDto;
+import com.nexus.dms.dto.DocumentSearchDto;
+import com.nexus.dms.dto.DocumentSummaryDto;
+
+/**
+ * Filtered document listing with keyset pagination, newest first
+ */
+public interface DocumentRecordSearchRepo {
+
+    /**
+     * Only the given filters become predicates, so each query can use the composite
+     * index that starts with its most selective filter
+     *
+     * @param filter Optional filters
+     * @param afterUploadedAt uploadedAt of the last row of the previous page, null for the first page
+     * @param afterId id of the last row of the previous page, null for the first page
+     * @param limit Maximum number of rows
+     */
+    List<DocumentSummaryDto> search(DocumentSearchDto filter, Timestamp afterUploadedAt, Long afterId, int limit);
+
+    /**
+     * Next batch of UPLOADED records matching a bulk delete, in id order
+     *
+     * @param afterId Highest id of the previous batch, 0 for the first one
+     */
+    List<DocumentRefDto> findForDeletion(BulkDeleteRequestDto filter, long afterId, int limit);
+
+    long countForDeletion(BulkDeleteRequestDto filter);
+}
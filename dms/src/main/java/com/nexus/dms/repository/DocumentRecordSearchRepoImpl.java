@@ -0,0 +1,147 @@
+package com.nexus.dms.repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.nexus.dms.dto.BulkDeleteRequestDto;
+import com.nexus.dms.dto.DocumentRefDto;
+import com.nexus.dms.dto.DocumentSearchDto;
+import com.nexus.dms.dto.DocumentSummaryDto;
+import com.nexus.dms.entities.DocumentRecord;
+import com.nexus.dms.entities.FolderList;
+import com.nexus.dms.utils.CommonConstants;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class DocumentRecordSearchRepoImpl implements DocumentRecordSearchRepo {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DocumentSummaryDto> search(DocumentSearchDto filter, Timestamp afterUploadedAt, Long afterId,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentSummaryDto> query = cb.createQuery(DocumentSummaryDto.class);
+        Root<DocumentRecord> document = query.from(DocumentRecord.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        // Rows without a timestamp have no place in the seek order
+        predicates.add(cb.isNotNull(document.get("uploadedAt")));
+        if (filter.getOrgId() != null) {
+            predicates.add(cb.equal(document.get("orgId"), filter.getOrgId()));
+        }
+        if (filter.getUserId() != null) {
+            predicates.add(cb.equal(document.get("userId"), filter.getUserId()));
+        }
+        if (filter.getDocumentType() != null) {
+            predicates.add(cb.equal(document.get("documentType"), filter.getDocumentType()));
+        }
+        if (filter.getUploaderType() != null) {
+            predicates.add(cb.equal(document.get("uploaderType"), filter.getUploaderType()));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(document.get("status"), filter.getStatus()));
+        }
+        if (filter.getUploadedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(document.get("uploadedAt"),
+                    Timestamp.from(filter.getUploadedFrom())));
+        }
+        if (filter.getUploadedTo() != null) {
+            predicates.add(cb.lessThan(document.get("uploadedAt"), Timestamp.from(filter.getUploadedTo())));
+        }
+        // Seek past the previous page instead of skipping rows with an offset
+        if (afterUploadedAt != null && afterId != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(document.get("uploadedAt"), afterUploadedAt),
+                    cb.and(cb.equal(document.get("uploadedAt"), afterUploadedAt),
+                            cb.lessThan(document.get("id"), afterId))));
+        }
+
+        query.select(cb.construct(DocumentSummaryDto.class,
+                        document.get("id"),
+                        document.get("documentName"),
+                        document.get("documentType"),
+                        document.get("documentSize"),
+                        document.get("mimeType"),
+                        document.get("status"),
+                        document.get("uploaderType"),
+                        document.get("userId"),
+                        document.get("orgId"),
+                        document.get("dmsId"),
+                        document.get("documentUrl"),
+                        document.get("uploadedAt")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(document.get("uploadedAt")), cb.desc(document.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<DocumentRefDto> findForDeletion(BulkDeleteRequestDto filter, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentRefDto> query = cb.createQuery(DocumentRefDto.class);
+        Root<DocumentRecord> document = query.from(DocumentRecord.class);
+        Join<DocumentRecord, FolderList> folder = document.join("folderList", JoinType.LEFT);
+
+        List<Predicate> predicates = deletionPredicates(cb, document, filter);
+        predicates.add(cb.greaterThan(document.get("id"), afterId));
+
+        query.select(cb.construct(DocumentRefDto.class,
+                        document.get("id"),
+                        document.get("checksum"),
+                        document.get("objectKey"),
+                        folder.get("folderName"),
+                        document.get("documentName")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(document.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countForDeletion(BulkDeleteRequestDto filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<DocumentRecord> document = query.from(DocumentRecord.class);
+
+        query.select(cb.count(document))
+                .where(deletionPredicates(cb, document, filter).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Predicate> deletionPredicates(CriteriaBuilder cb, Root<DocumentRecord> document,
+            BulkDeleteRequestDto filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(document.get("status"), CommonConstants.STATUS_UPLOADED));
+        if (filter.getOrgId() != null) {
+            predicates.add(cb.equal(document.get("orgId"), filter.getOrgId()));
+        }
+        if (filter.getFolderId() != null) {
+            predicates.add(cb.equal(document.get("folderList").get("id"), filter.getFolderId()));
+        }
+        if (filter.getDocumentType() != null) {
+            predicates.add(cb.equal(document.get("documentType"), filter.getDocumentType()));
+        }
+        if (filter.getUploadedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(document.get("uploadedAt"),
+                    Timestamp.from(filter.getUploadedFrom())));
+        }
+        if (filter.getUploadedTo() != null) {
+            predicates.add(cb.lessThan(document.get("uploadedAt"), Timestamp.from(filter.getUploadedTo())));
+        }
+        return predicates;
+    }
+}
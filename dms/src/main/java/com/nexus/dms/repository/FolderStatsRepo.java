@@ -0,0 +1,21 @@
+package com.nexus.dms.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import com.nexus.dms.entities.FolderStats;
+
+import jakarta.persistence.LockModeType;
+
+public interface FolderStatsRepo extends JpaRepository<FolderStats, Long> {
+
+    /**
+     * Row locks serialize refreshes across instances, so no delta is applied twice
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from FolderStats s order by s.folderId")
+    List<FolderStats> findAllForUpdate();
+}
@@ -0,0 +1,12 @@
+package com.nexus.dms.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.nexus.dms.entities.ReconciliationRun;
+
+public interface ReconciliationRunRepo extends JpaRepository<ReconciliationRun, Long> {
+
+    Optional<ReconciliationRun> findFirstByOrderByIdDesc();
+}
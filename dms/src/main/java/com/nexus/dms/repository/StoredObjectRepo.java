@@ -0,0 +1,91 @@
+package com.nexus.dms.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.nexus.dms.dto.StorageKeyDto;
+import com.nexus.dms.entities.StoredObject;
+
+public interface StoredObjectRepo extends JpaRepository<StoredObject, Long> {
+
+    Optional<StoredObject> findByChecksum(String checksum);
+
+    Optional<StoredObject> findByDmsId(String dmsId);
+
+    List<StoredObject> findByDmsIdIsNullAndResolveAttemptsLessThanOrderByIdAsc(int maxAttempts, Pageable pageable);
+
+    /**
+     * Rows at zero references whose storage delete has not completed yet
+     */
+    List<StoredObject> findByReferenceCountOrderByIdAsc(long referenceCount, Pageable pageable);
+
+    /**
+     * @return 1 if a reference was added, 0 if the object has been removed meanwhile
+     */
+    @Transactional
+    @Modifying
+    @Query("update StoredObject s set s.referenceCount = s.referenceCount + 1 where s.id = :id and s.referenceCount > 0")
+    int incrementReferences(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredObject s set s.referenceCount = s.referenceCount - 1 where s.id = :id and s.referenceCount > 0")
+    int decrementReferences(@Param("id") Long id);
+
+    /**
+     * Remove the row only if nobody re-referenced it after the last decrement
+     *
+     * @return 1 if the row was removed and the storage object can be deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from StoredObject s where s.id = :id and s.referenceCount = 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+
+    /**
+     * Drop several references at once, used by bulk deletes
+     */
+    @Transactional
+    @Modifying
+    @Query("update StoredObject s set s.referenceCount = case when s.referenceCount > :count "
+            + "then s.referenceCount - :count else 0 end where s.checksum = :checksum")
+    int decrementReferencesBy(@Param("checksum") String checksum, @Param("count") int count);
+
+    List<StoredObject> findByChecksumIn(Collection<String> checksums);
+
+    @Query("select new com.nexus.dms.dto.StorageKeyDto(s.id, s.objectKey, s.previewKey, null, null) "
+            + "from StoredObject s where s.id > :afterId order by s.id")
+    List<StorageKeyDto> findKeysAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("select new com.nexus.dms.dto.StorageKeyDto(s.id, s.objectKey, s.previewKey, null, null) "
+            + "from StoredObject s where s.objectKey in :keys or s.previewKey in :keys")
+    List<StorageKeyDto> findReferencingKeys(@Param("keys") Collection<String> keys);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StoredObject s where s.id in :ids and s.referenceCount = 0")
+    int deleteUnreferenced(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredObject s set s.previewKey = :previewKey where s.checksum = :checksum")
+    int updatePreviewKey(@Param("checksum") String checksum, @Param("previewKey") String previewKey);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredObject s set s.dmsId = :dmsId, s.documentUrl = :documentUrl where s.id = :id")
+    int updateCid(@Param("id") Long id, @Param("dmsId") String dmsId, @Param("documentUrl") String documentUrl);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredObject s set s.resolveAttempts = s.resolveAttempts + 1 where s.id = :id")
+    int incrementResolveAttempts(@Param("id") Long id);
+}
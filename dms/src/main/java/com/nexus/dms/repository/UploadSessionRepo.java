@@ -0,0 +1,14 @@
+package com.nexus.dms.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.nexus.dms.entities.UploadSession;
+
+public interface UploadSessionRepo extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByStatusAndExpiresAtBefore(String status, Timestamp expiresAt, Pageable pageable);
+}
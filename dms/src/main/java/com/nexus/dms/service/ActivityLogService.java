@@ -0,0 +1,9 @@
+package com.nexus.dms.service;
+
+import com.nexus.dms.dto.ActivityLogPageDto;
+import com.nexus.dms.dto.ActivityLogSearchDto;
+
+public interface ActivityLogService {
+
+    ActivityLogPageDto searchLogs(ActivityLogSearchDto filter, String cursor, Integer limit);
+}
@@ -0,0 +1,11 @@
+package com.nexus.dms.service;
+
+import com.nexus.dms.dto.BulkDeleteJobDto;
+import com.nexus.dms.dto.BulkDeleteRequestDto;
+
+public interface BulkDeleteService {
+
+    BulkDeleteJobDto submit(BulkDeleteRequestDto request);
+
+    BulkDeleteJobDto getJob(Long jobId);
+}
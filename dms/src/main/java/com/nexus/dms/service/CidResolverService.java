@@ -0,0 +1,6 @@
+package com.nexus.dms.service;
+
+public interface CidResolverService {
+
+    int resolvePending();
+}
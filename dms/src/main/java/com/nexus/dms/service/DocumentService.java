@@ -0,0 +1,14 @@
+package com.nexus.dms.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.nexus.dms.dto.DocumentPageDto;
+import com.nexus.dms.dto.DocumentSearchDto;
+
+public interface DocumentService {
+
+    ResponseEntity<StreamingResponseBody> getDocumentContent(Long documentId, String rangeHeader, String ifNoneMatch);
+
+    DocumentPageDto searchDocuments(DocumentSearchDto filter, String cursor, Integer limit);
+}
@@ -12,4 +12,11 @@ public interface FolderListService {
     ResponseEntity<?> setNewFolderList(FolderListDto folderListDto);
 
     ResponseEntity<?> deleteFolderList(Long folderId);
+
+    ResponseEntity<?> getFolderStats();
+
+    /**
+     * @param rebuild Recompute all totals instead of adding the records since the last refresh
+     */
+    void refreshFolderStats(boolean rebuild);
 }
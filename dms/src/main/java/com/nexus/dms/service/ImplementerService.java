@@ -1,19 +1,53 @@
 package com.nexus.dms.service;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.http.ResponseEntity;
 
 import com.nexus.dms.dto.CommonFileUploadDto;
+import com.nexus.dms.dto.DirectUploadRequestDto;
 import com.nexus.dms.dto.IndividualFileUploadDto;
+import com.nexus.dms.dto.OrgBatchUploadDto;
 import com.nexus.dms.dto.OrgFileUploadDto;
+import com.nexus.dms.entities.UploadSession;
+import com.nexus.dms.utils.StagedFile;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface ImplementerService {
 
-    ResponseEntity<?> individualUpload(IndividualFileUploadDto individualFileUploadDto, MultipartFile file) throws IOException;
+    ResponseEntity<?> individualUpload(IndividualFileUploadDto individualFileUploadDto, MultipartFile file, boolean async) throws IOException;
 
-    ResponseEntity<?> orgUpload(OrgFileUploadDto orgFileUploadDto, MultipartFile file) throws IOException;
+    ResponseEntity<?> orgUpload(OrgFileUploadDto orgFileUploadDto, MultipartFile file, boolean async) throws IOException;
 
-    ResponseEntity<?> commonUpload(CommonFileUploadDto commonFileUploadDto, MultipartFile file) throws IOException;
+    ResponseEntity<?> commonUpload(CommonFileUploadDto commonFileUploadDto, MultipartFile file, boolean async) throws IOException;
+
+    ResponseEntity<?> orgBatchUpload(OrgBatchUploadDto orgBatchUploadDto, List<MultipartFile> files);
+
+    ResponseEntity<?> getUploadJobStatus(Long jobId);
+
+    /**
+     * Store a file that was spooled outside a multipart request, e.g. assembled from upload chunks
+     * The record is built as for the single request upload of the session's uploader type
+     */
+    ResponseEntity<?> uploadStagedFile(UploadSession session, StagedFile stagedFile);
+
+    /**
+     * Save the document as awaiting upload and sign a PUT the client sends straight to storage
+     * Known content is still uploaded, finalize deduplicates it once storage has verified the bytes
+     */
+    ResponseEntity<?> initiateDirectUpload(DirectUploadRequestDto directUploadRequestDto);
+
+    /**
+     * Verify the directly uploaded object from its metadata and header bytes and mark the document UPLOADED
+     * Finalizing a document that is already UPLOADED returns it again
+     */
+    ResponseEntity<?> finalizeDirectUpload(Long documentId);
+
+    /**
+     * Drop cached organization details so the next upload asks IAM again
+     *
+     * @param userId The user whose organization changed, or null to clear the whole cache
+     */
+    void invalidateUserOrg(Long userId);
 }
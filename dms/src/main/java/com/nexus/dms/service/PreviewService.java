@@ -0,0 +1,13 @@
+package com.nexus.dms.service;
+
+import org.springframework.http.ResponseEntity;
+
+import com.nexus.dms.entities.DocumentRecord;
+import com.nexus.dms.utils.StagedFile;
+
+public interface PreviewService {
+
+    void schedulePreview(DocumentRecord documentRecord, StagedFile file);
+
+    ResponseEntity<byte[]> getDocumentPreview(Long documentId, String ifNoneMatch);
+}
@@ -0,0 +1,12 @@
+package com.nexus.dms.service;
+
+import com.nexus.dms.dto.ReconciliationRunDto;
+
+public interface ReconciliationService {
+
+    ReconciliationRunDto submit();
+
+    ReconciliationRunDto getRun(Long runId);
+
+    ReconciliationRunDto getLatestRun();
+}
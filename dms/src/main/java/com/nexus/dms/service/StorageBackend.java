@@ -0,0 +1,85 @@
+package com.nexus.dms.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.nexus.dms.dto.ObjectStat;
+import com.nexus.dms.dto.PresignedPut;
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.dto.StoredContent;
+import com.nexus.dms.utils.ByteRange;
+import com.nexus.dms.utils.StagedFile;
+
+/**
+ * Object store behind UploaderService, selected with dms.storage.backend
+ * Implementations only move bytes by key; deduplication and reference counting stay in UploaderService
+ */
+public interface StorageBackend {
+
+    /**
+     * @return The content id assigned by the backend, empty if it has to be resolved later
+     */
+    Optional<String> put(String objectKey, StagedFile file) throws IOException;
+
+    /**
+     * Backends without a non-blocking client store the file on the calling thread
+     */
+    default CompletableFuture<Optional<String>> putAsync(String objectKey, StagedFile file) {
+        try {
+            return CompletableFuture.completedFuture(put(objectKey, file));
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    void putBytes(String objectKey, byte[] content, String contentType) throws IOException;
+
+    /**
+     * @param range The bytes to read, null for the whole object
+     * @throws java.io.FileNotFoundException if no object exists for the key
+     */
+    StoredContent get(String objectKey, ByteRange range) throws IOException;
+
+    /**
+     * @return false if the object did not exist or could not be deleted
+     */
+    boolean delete(String objectKey);
+
+    /**
+     * Keys already gone count as deleted
+     *
+     * @return The keys that could not be deleted
+     */
+    List<String> deleteAll(List<String> objectKeys);
+
+    /**
+     * Keys are returned in a stable order so a listing can be resumed from its token
+     *
+     * @param continuationToken Token of the previous page, null for the first one
+     */
+    StorageListingDto list(String continuationToken, int maxKeys);
+
+    Optional<String> resolveCid(String objectKey) throws IOException;
+
+    /**
+     * @return Empty if no object exists for the key
+     */
+    Optional<ObjectStat> stat(String objectKey) throws IOException;
+
+    /**
+     * Sign a PUT that lets a client store one object without its bytes passing through DMS
+     * Storage rejects a body whose length or MD5 differs from the signed values
+     *
+     * @param contentMd5 Base64 MD5 of the content, as sent in the Content-MD5 header
+     * @throws UnsupportedOperationException if the backend is not reachable by clients
+     */
+    default PresignedPut presignPut(String objectKey, String contentType, long size, String contentMd5,
+            Duration ttl) {
+        throw new UnsupportedOperationException("Direct uploads are not supported by this storage backend");
+    }
+
+    String getFileUrl(String cid);
+}
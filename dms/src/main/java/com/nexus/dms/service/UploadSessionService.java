@@ -0,0 +1,31 @@
+package com.nexus.dms.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.ResponseEntity;
+
+import com.nexus.dms.dto.UploadSessionDto;
+import com.nexus.dms.dto.UploadSessionRequestDto;
+
+public interface UploadSessionService {
+
+    UploadSessionDto createSession(UploadSessionRequestDto request);
+
+    UploadSessionDto getSession(String sessionId);
+
+    /**
+     * @param offset Must equal the bytes received so far, otherwise 409 with the current session
+     * @param contentLength Declared chunk length, -1 if unknown
+     */
+    ResponseEntity<UploadSessionDto> appendChunk(String sessionId, long offset, long contentLength, InputStream body)
+            throws IOException;
+
+    /**
+     * Assemble the received bytes into the storage backend and save the document record
+     * Completing an already completed session answers the same again
+     *
+     * @return The session with the id of the saved document record
+     */
+    ResponseEntity<?> completeSession(String sessionId);
+}
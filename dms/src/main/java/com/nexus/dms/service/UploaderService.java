@@ -1,16 +1,70 @@
 package com.nexus.dms.service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.multipart.MultipartFile;
 
+import com.nexus.dms.dto.PresignedPut;
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.dto.StoredContent;
 import com.nexus.dms.dto.UploaderResponse;
+import com.nexus.dms.utils.ByteRange;
+import com.nexus.dms.utils.StagedFile;
 
 public interface UploaderService {
 
-    ResponseEntity<UploaderResponse> uploadFile(MultipartFile file, String fileName, String folderPrefix)
+    ResponseEntity<UploaderResponse> uploadFile(StagedFile file, String fileName, String folderPrefix)
             throws IOException;
 
+    CompletableFuture<ResponseEntity<UploaderResponse>> uploadFileAsync(StagedFile file, String fileName,
+            String folderPrefix);
+
+    /**
+     * @param checksum Hex MD5 the uploaded content must have
+     * @throws UnsupportedOperationException if the storage backend does not support direct uploads
+     */
+    PresignedPut presignUpload(String checksum, long size, String contentType, String fileName, String folderPrefix,
+            Duration ttl);
+
+    /**
+     * Verify a directly uploaded object and register it like content stored through uploadFile
+     *
+     * @throws IllegalArgumentException if nothing was uploaded for the key yet
+     * @throws com.nexus.dms.exception.FileValidationException if the object differs in size or MD5; it is deleted
+     */
+    ResponseEntity<UploaderResponse> registerUpload(String objectKey, String checksum, long size, String fileName,
+            String folderPrefix) throws IOException;
+
     Boolean deleteFile(String dmsId, String bucketName);
+
+    /**
+     * Drop the reference an upload added to its content, for a record that was never saved
+     * The object is deleted with its last reference
+     *
+     * @return false if the storage delete failed and is left to the retry
+     */
+    boolean releaseContent(String checksum);
+
+    /**
+     * @param objectKeys Keys to remove, sent in requests of up to 1000 keys
+     * @return The keys that could not be deleted
+     */
+    List<String> deleteObjects(List<String> objectKeys);
+
+    /**
+     * @param continuationToken Token of the previous page, null for the first one
+     */
+    StorageListingDto listObjects(String continuationToken, int maxKeys);
+
+    StoredContent downloadFile(String objectKey, ByteRange range) throws IOException;
+
+    void uploadBytes(String objectKey, byte[] content, String contentType) throws IOException;
+
+    Optional<String> resolveCid(String objectKey) throws IOException;
+
+    String getFileUrl(String cid);
 }
@@ -0,0 +1,90 @@
+package com.nexus.dms.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+
+import com.nexus.dms.dto.ActivityLogEntryDto;
+import com.nexus.dms.dto.ActivityLogPageDto;
+import com.nexus.dms.dto.ActivityLogSearchDto;
+import com.nexus.dms.repository.DmsLogsRepo;
+import com.nexus.dms.service.ActivityLogService;
+import com.nexus.dms.utils.CommonConstants;
+
+@Service
+public class ActivityLogServiceImpl implements ActivityLogService {
+
+    private final DmsLogsRepo dmsLogsRepo;
+
+    private final Duration maxQuerySpan;
+
+    public ActivityLogServiceImpl(DmsLogsRepo dmsLogsRepo,
+            @Value("${dms.activity-log.max-query-span:P31D}") Duration maxQuerySpan) {
+        this.dmsLogsRepo = dmsLogsRepo;
+        this.maxQuerySpan = maxQuerySpan;
+    }
+
+    /**
+     * Audit query over the day partitions in [from, to), newest first, one page per call
+     * The span is capped so a query never reads more than a bounded number of partitions
+     */
+    @Override
+    public ActivityLogPageDto searchLogs(ActivityLogSearchDto filter, String cursor, Integer limit) {
+        if (filter.getFrom() == null || filter.getTo() == null) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        if (!filter.getFrom().isBefore(filter.getTo())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(filter.getFrom(), filter.getTo()).compareTo(maxQuerySpan) > 0) {
+            throw new IllegalArgumentException("The time range must not exceed " + maxQuerySpan.toDays() + " days");
+        }
+        int pageSize = limit == null ? CommonConstants.DEFAULT_PAGE_SIZE
+                : Math.clamp(limit, 1, CommonConstants.MAX_PAGE_SIZE);
+
+        Timestamp afterCreatedOn = null;
+        Long afterId = null;
+        if (!ObjectUtils.isEmpty(cursor)) {
+            String[] position = decodeCursor(cursor);
+            afterCreatedOn = Timestamp.from(Instant.parse(position[0]));
+            afterId = Long.valueOf(position[1]);
+        }
+
+        // One extra row tells whether another page follows
+        List<ActivityLogEntryDto> rows = dmsLogsRepo.search(filter, afterCreatedOn, afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new ActivityLogPageDto(rows, null);
+        }
+        List<ActivityLogEntryDto> page = rows.subList(0, pageSize);
+        ActivityLogEntryDto last = page.get(pageSize - 1);
+        return new ActivityLogPageDto(new ArrayList<>(page), encodeCursor(last));
+    }
+
+    private String encodeCursor(ActivityLogEntryDto last) {
+        String position = last.getCreatedOn().toInstant() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length == 2) {
+                Instant.parse(position[0]);
+                Long.parseLong(position[1]);
+                return position;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException _) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+}
@@ -0,0 +1,224 @@
+package com.nexus.dms.service.impl;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+
+import com.nexus.dms.dto.BulkDeleteJobDto;
+import com.nexus.dms.dto.BulkDeleteRequestDto;
+import com.nexus.dms.dto.DocumentRefDto;
+import com.nexus.dms.entities.BulkDeleteJob;
+import com.nexus.dms.entities.StoredObject;
+import com.nexus.dms.exception.ResourceNotFoundException;
+import com.nexus.dms.exception.ServiceUnavailableException;
+import com.nexus.dms.repository.BulkDeleteJobRepo;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
+import com.nexus.dms.service.BulkDeleteService;
+import com.nexus.dms.service.FolderListService;
+import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.CommonConstants;
+
+/**
+ * Deletes every document matching a filter as a background job
+ * Records are processed in id ordered batches: one set-based status update per batch,
+ * one reference count update per distinct content, and one multi-object delete per
+ * 1000 storage keys; a pause between batches keeps the job from starving uploads
+ */
+@Service
+public class BulkDeleteServiceImpl implements BulkDeleteService {
+
+    private final BulkDeleteJobRepo bulkDeleteJobRepo;
+
+    private final DocumentRecordRepo documentRecordRepo;
+
+    private final StoredObjectRepo storedObjectRepo;
+
+    private final UploaderService uploaderService;
+
+    private final FolderListService folderListService;
+
+    private final ExecutorService bulkDeleteExecutor;
+
+    private final int batchSize;
+
+    private final long batchDelayMs;
+
+    public BulkDeleteServiceImpl(BulkDeleteJobRepo bulkDeleteJobRepo, DocumentRecordRepo documentRecordRepo,
+            StoredObjectRepo storedObjectRepo, UploaderService uploaderService, FolderListService folderListService,
+            @Qualifier("bulkDeleteExecutor") ExecutorService bulkDeleteExecutor,
+            @Value("${dms.bulk-delete.batch-size:1000}") int batchSize,
+            @Value("${dms.bulk-delete.batch-delay-ms:200}") long batchDelayMs) {
+        this.bulkDeleteJobRepo = bulkDeleteJobRepo;
+        this.documentRecordRepo = documentRecordRepo;
+        this.storedObjectRepo = storedObjectRepo;
+        this.uploaderService = uploaderService;
+        this.folderListService = folderListService;
+        this.bulkDeleteExecutor = bulkDeleteExecutor;
+        this.batchSize = Math.clamp(batchSize, 1, CommonConstants.MAX_DELETE_OBJECTS_KEYS);
+        this.batchDelayMs = batchDelayMs;
+    }
+
+    @Override
+    public BulkDeleteJobDto submit(BulkDeleteRequestDto request) {
+        if (request == null || (request.getOrgId() == null && request.getFolderId() == null)) {
+            throw new IllegalArgumentException("A bulk delete needs an orgId or a folderId");
+        }
+
+        BulkDeleteJob job = new BulkDeleteJob();
+        job.setStatus(CommonConstants.JOB_QUEUED);
+        job.setOrgId(request.getOrgId());
+        job.setFolderId(request.getFolderId());
+        job.setDocumentType(request.getDocumentType());
+        job.setUploadedFrom(request.getUploadedFrom() != null ? Timestamp.from(request.getUploadedFrom()) : null);
+        job.setUploadedTo(request.getUploadedTo() != null ? Timestamp.from(request.getUploadedTo()) : null);
+        job.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        BulkDeleteJob queuedJob = bulkDeleteJobRepo.save(job);
+
+        try {
+            bulkDeleteExecutor.execute(() -> runJob(queuedJob, request));
+        } catch (RejectedExecutionException _) {
+            queuedJob.setStatus(CommonConstants.JOB_FAILED);
+            queuedJob.setErrorMessage("Bulk delete queue is full");
+            queuedJob.setFinishedAt(new Timestamp(System.currentTimeMillis()));
+            bulkDeleteJobRepo.save(queuedJob);
+            throw new ServiceUnavailableException("Bulk delete queue is full",
+                    "Too many bulk delete jobs are queued, please retry later", 60);
+        }
+        return toDto(queuedJob);
+    }
+
+    @Override
+    public BulkDeleteJobDto getJob(Long jobId) {
+        return bulkDeleteJobRepo.findById(jobId)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("BulkDeleteJob", "id", jobId));
+    }
+
+    private void runJob(BulkDeleteJob job, BulkDeleteRequestDto request) {
+        job.setStatus(CommonConstants.JOB_RUNNING);
+        job.setStartedAt(new Timestamp(System.currentTimeMillis()));
+        try {
+            job.setMatchedCount(documentRecordRepo.countForDeletion(request));
+            bulkDeleteJobRepo.save(job);
+
+            long afterId = 0;
+            List<DocumentRefDto> batch = documentRecordRepo.findForDeletion(request, afterId, batchSize);
+            while (!batch.isEmpty()) {
+                deleteBatch(job, batch);
+                bulkDeleteJobRepo.save(job);
+
+                afterId = batch.get(batch.size() - 1).getId();
+                pauseBetweenBatches();
+                batch = documentRecordRepo.findForDeletion(request, afterId, batchSize);
+            }
+            job.setStatus(CommonConstants.JOB_COMPLETED);
+        } catch (Exception e) {
+            job.setStatus(CommonConstants.JOB_FAILED);
+            job.setErrorMessage(e.getMessage());
+        }
+        job.setFinishedAt(new Timestamp(System.currentTimeMillis()));
+        bulkDeleteJobRepo.save(job);
+
+        if (job.getRecordsDeleted() > 0) {
+            // Folder totals only ever add up incrementally, removals need a rebuild
+            folderListService.refreshFolderStats(true);
+        }
+    }
+
+    private void deleteBatch(BulkDeleteJob job, List<DocumentRefDto> batch) {
+        List<Long> ids = batch.stream().map(DocumentRefDto::getId).toList();
+        Set<Long> marked = new HashSet<>(documentRecordRepo.updateStatusReturningIds(ids,
+                CommonConstants.STATUS_UPLOADED, CommonConstants.STATUS_DELETED));
+        job.setRecordsDeleted(job.getRecordsDeleted() + marked.size());
+
+        // Only records this batch deleted give up a reference, one deleted concurrently already did
+        Map<String, Integer> referencesByChecksum = new HashMap<>();
+        Map<String, String> legacyKeys = new HashMap<>();
+        Set<String> uncheckedKeys = new LinkedHashSet<>();
+        int skipped = 0;
+        for (DocumentRefDto document : batch) {
+            if (!marked.contains(document.getId())) {
+                continue;
+            }
+            if (ObjectUtils.isEmpty(document.getObjectKey())) {
+                skipped++;
+            } else if (!ObjectUtils.isEmpty(document.getChecksum())) {
+                referencesByChecksum.merge(document.getChecksum(), 1, Integer::sum);
+                legacyKeys.putIfAbsent(document.getChecksum(), document.getObjectKey());
+            } else {
+                // Stored before checksums, only its key tells whether another record still uses the object
+                uncheckedKeys.add(document.getObjectKey());
+            }
+        }
+
+        Set<String> tracked = new HashSet<>();
+        for (StoredObject storedObject : storedObjectRepo.findByChecksumIn(referencesByChecksum.keySet())) {
+            tracked.add(storedObject.getChecksum());
+            storedObjectRepo.decrementReferencesBy(storedObject.getChecksum(),
+                    referencesByChecksum.get(storedObject.getChecksum()));
+        }
+
+        // Read back after the decrement: an object at zero can no longer gain references
+        Set<String> keysToDelete = new LinkedHashSet<>();
+        List<Long> unreferenced = new ArrayList<>();
+        if (!tracked.isEmpty()) {
+            for (StoredObject storedObject : storedObjectRepo.findByChecksumIn(tracked)) {
+                if (storedObject.getReferenceCount() == 0) {
+                    unreferenced.add(storedObject.getId());
+                    keysToDelete.add(storedObject.getObjectKey());
+                    if (!ObjectUtils.isEmpty(storedObject.getPreviewKey())) {
+                        keysToDelete.add(storedObject.getPreviewKey());
+                    }
+                }
+            }
+        }
+        if (!unreferenced.isEmpty()) {
+            storedObjectRepo.deleteUnreferenced(unreferenced);
+        }
+
+        // Records stored before reference counting own their key once no other record uses the content
+        for (Map.Entry<String, String> legacy : legacyKeys.entrySet()) {
+            if (!tracked.contains(legacy.getKey())
+                    && documentRecordRepo.countByChecksumAndStatus(legacy.getKey(), CommonConstants.STATUS_UPLOADED) == 0) {
+                keysToDelete.add(legacy.getValue());
+            }
+        }
+
+        for (String key : uncheckedKeys) {
+            if (documentRecordRepo.countByLegacyKeyAndStatus(key, CommonConstants.STATUS_UPLOADED) == 0) {
+                keysToDelete.add(key);
+            }
+        }
+
+        keysToDelete.remove(null);
+        List<String> failedKeys = uploaderService.deleteObjects(new ArrayList<>(keysToDelete));
+        job.setObjectsDeleted(job.getObjectsDeleted() + keysToDelete.size() - failedKeys.size());
+        // Records without any key left their object behind
+        job.setObjectsFailed(job.getObjectsFailed() + failedKeys.size() + skipped);
+    }
+
+    private void pauseBetweenBatches() throws InterruptedException {
+        if (batchDelayMs > 0) {
+            Thread.sleep(batchDelayMs);
+        }
+    }
+
+    private BulkDeleteJobDto toDto(BulkDeleteJob job) {
+        return new BulkDeleteJobDto(job.getId(), job.getStatus(), job.getMatchedCount(), job.getRecordsDeleted(),
+                job.getObjectsDeleted(), job.getObjectsFailed(), job.getCreatedAt(), job.getFinishedAt(),
+                job.getErrorMessage());
+    }
+}
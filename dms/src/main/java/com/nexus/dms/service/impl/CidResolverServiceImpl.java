@@ -0,0 +1,115 @@
+package com.nexus.dms.service.impl;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.nexus.dms.entities.StoredObject;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
+import com.nexus.dms.service.CidResolverService;
+import com.nexus.dms.service.UploaderService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Background lookup of CIDs the storage backend did not return on upload
+ * Unresolved objects are picked up in small batches and looked up with HEAD
+ * requests spaced to a fixed rate, so the resolver never competes with uploads
+ * for storage capacity
+ */
+@Service
+public class CidResolverServiceImpl implements CidResolverService {
+
+    private final StoredObjectRepo storedObjectRepo;
+
+    private final DocumentRecordRepo documentRecordRepo;
+
+    private final UploaderService uploaderService;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long spacingNanos;
+
+    private final Counter resolved;
+
+    private final Counter failures;
+
+    public CidResolverServiceImpl(StoredObjectRepo storedObjectRepo, DocumentRecordRepo documentRecordRepo,
+            UploaderService uploaderService,
+            @Value("${dms.cid-resolver.batch-size:50}") int batchSize,
+            @Value("${dms.cid-resolver.max-attempts:20}") int maxAttempts,
+            @Value("${dms.cid-resolver.requests-per-second:10}") int requestsPerSecond,
+            MeterRegistry meterRegistry) {
+        this.storedObjectRepo = storedObjectRepo;
+        this.documentRecordRepo = documentRecordRepo;
+        this.uploaderService = uploaderService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.spacingNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, requestsPerSecond);
+
+        this.resolved = Counter.builder("dms.cid.resolver.resolved").register(meterRegistry);
+        this.failures = Counter.builder("dms.cid.resolver.failures").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${dms.cid-resolver.interval-ms:5000}")
+    public void resolveScheduled() {
+        resolvePending();
+    }
+
+    /**
+     * @return Number of objects whose CID was filled in during this run
+     */
+    @Override
+    public int resolvePending() {
+        List<StoredObject> pending = storedObjectRepo.findByDmsIdIsNullAndResolveAttemptsLessThanOrderByIdAsc(
+                maxAttempts, PageRequest.of(0, batchSize));
+
+        int count = 0;
+        long nextRequestAt = System.nanoTime();
+        for (StoredObject storedObject : pending) {
+            long wait = nextRequestAt - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException _) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            nextRequestAt = System.nanoTime() + spacingNanos;
+
+            if (resolve(storedObject)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean resolve(StoredObject storedObject) {
+        try {
+            Optional<String> cid = uploaderService.resolveCid(storedObject.getObjectKey());
+            if (cid.isPresent()) {
+                String documentUrl = uploaderService.getFileUrl(cid.get());
+                storedObjectRepo.updateCid(storedObject.getId(), cid.get(), documentUrl);
+                documentRecordRepo.fillCid(storedObject.getChecksum(), cid.get(), documentUrl);
+                resolved.increment();
+                return true;
+            }
+        } catch (IOException | RuntimeException _) {
+            // Counted below and retried on a later run
+        }
+        storedObjectRepo.incrementResolveAttempts(storedObject.getId());
+        failures.increment();
+        return false;
+    }
+}
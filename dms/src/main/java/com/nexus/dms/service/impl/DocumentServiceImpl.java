@@ -0,0 +1,300 @@
+package com.nexus.dms.service.impl;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.nexus.dms.dto.DocumentPageDto;
+import com.nexus.dms.dto.DocumentSearchDto;
+import com.nexus.dms.dto.DocumentSummaryDto;
+import com.nexus.dms.dto.StoredContent;
+import com.nexus.dms.entities.DocumentRecord;
+import com.nexus.dms.exception.ResourceNotFoundException;
+import com.nexus.dms.exception.ServiceLevelException;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.service.DocumentService;
+import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.ByteRange;
+import com.nexus.dms.utils.CommonConstants;
+import com.nexus.dms.utils.DocumentContentCache;
+import com.nexus.dms.utils.ObjectKeys;
+
+@Service
+public class DocumentServiceImpl implements DocumentService {
+
+    private final DocumentRecordRepo documentRecordRepo;
+
+    private final UploaderService uploaderService;
+
+    private final DocumentContentCache documentContentCache;
+
+    public DocumentServiceImpl(DocumentRecordRepo documentRecordRepo, UploaderService uploaderService,
+            DocumentContentCache documentContentCache) {
+        this.documentRecordRepo = documentRecordRepo;
+        this.uploaderService = uploaderService;
+        this.documentContentCache = documentContentCache;
+    }
+
+    /**
+     * Stream a stored document to the client without buffering it
+     * Supports a single HTTP byte range and conditional requests on the checksum ETag
+     * Hot documents are served from the local content cache when present
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> getDocumentContent(Long documentId, String rangeHeader,
+            String ifNoneMatch) {
+        DocumentRecord documentRecord = documentRecordRepo.findById(documentId)
+                .filter(document -> CommonConstants.STATUS_UPLOADED.equals(document.getStatus()))
+                .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
+
+        String eTag = !ObjectUtils.isEmpty(documentRecord.getChecksum())
+                ? "\"" + documentRecord.getChecksum() + "\""
+                : null;
+        if (eTag != null && eTagMatches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        ByteRange range = null;
+        Long totalSize = documentRecord.getDocumentSize();
+        if (totalSize != null) {
+            try {
+                range = ByteRange.parse(rangeHeader, totalSize);
+            } catch (IllegalStateException _) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + totalSize)
+                        .build();
+            }
+        }
+
+        String cacheKey = documentRecord.getChecksum();
+        FileChannel cachedChannel = openCached(cacheKey, totalSize);
+        StreamingResponseBody body;
+        long contentLength;
+        if (cachedChannel != null) {
+            long position = range != null ? range.getStart() : 0;
+            try {
+                contentLength = range != null ? range.length() : cachedChannel.size();
+            } catch (IOException e) {
+                closeQuietly(cachedChannel);
+                throw new ServiceLevelException("DocumentService", e.getMessage(), "getDocumentContent",
+                        e.getClass().getSimpleName(), "Error occurred while reading cached document content");
+            }
+            body = outputStream -> transferFromCache(cachedChannel, position, contentLength, outputStream);
+        } else {
+            StoredContent content;
+            try {
+                content = uploaderService.downloadFile(resolveObjectKey(documentRecord), range);
+            } catch (FileNotFoundException e) {
+                throw new ResourceNotFoundException("DocumentContent", "id", documentId);
+            } catch (IOException e) {
+                throw new ServiceLevelException("DocumentService", e.getMessage(), "getDocumentContent",
+                        e.getClass().getSimpleName(), "Error occurred while reading document content");
+            }
+            contentLength = content.getContentLength();
+            // Only complete bodies populate the cache, ranged reads just pass through
+            boolean fillCache = range == null && documentContentCache.isCacheable(contentLength);
+            body = fillCache
+                    ? outputStream -> streamAndFillCache(cacheKey, content, outputStream)
+                    : outputStream -> {
+                        try (InputStream inputStream = content.getStream()) {
+                            inputStream.transferTo(outputStream);
+                        }
+                    };
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity
+                .status(range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(documentRecord.getDocumentName() != null ? documentRecord.getDocumentName() : "document")
+                        .build().toString())
+                .contentType(resolveMediaType(documentRecord.getMimeType()))
+                .contentLength(contentLength);
+        if (range != null) {
+            builder.header(HttpHeaders.CONTENT_RANGE, range.toContentRange(totalSize));
+        }
+        if (eTag != null) {
+            builder.eTag(eTag);
+        }
+        return builder.body(body);
+    }
+
+    /**
+     * Open a cache hit before the response is committed, so an eviction in between cannot
+     * leave the headers promising bytes the file no longer has; an open file stays readable
+     * after it is evicted
+     *
+     * @return The open file, or null to read from storage instead
+     */
+    private FileChannel openCached(String cacheKey, Long expectedSize) {
+        Optional<Path> cachedFile = documentContentCache.lookup(cacheKey);
+        if (cachedFile.isEmpty()) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(cachedFile.get(), StandardOpenOption.READ);
+            if (expectedSize == null || channel.size() == expectedSize) {
+                return channel;
+            }
+        } catch (IOException _) {
+            // Evicted since the lookup, treated as a miss
+        }
+        closeQuietly(channel);
+        return null;
+    }
+
+    /**
+     * Serve a cache hit with FileChannel.transferTo
+     * The servlet output stream is not a socket channel, so the copy still goes through a
+     * small buffer; what the cache saves is the round trip to storage
+     */
+    private void transferFromCache(FileChannel channel, long position, long length, OutputStream outputStream)
+            throws IOException {
+        try (channel) {
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long transferred = 0;
+            while (transferred < length) {
+                long sent = channel.transferTo(position + transferred, length - transferred, target);
+                if (sent <= 0) {
+                    // Content-Length is already sent, a short body must abort the response
+                    throw new EOFException("Cached content ended after " + transferred + " of " + length + " bytes");
+                }
+                transferred += sent;
+            }
+        }
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException _) {
+            // Nothing was read from it
+        }
+    }
+
+    /**
+     * Copy a storage stream to the client while writing it to a cache temp file
+     * The temp file is only published when the whole object was read
+     */
+    private void streamAndFillCache(String cacheKey, StoredContent content, OutputStream outputStream)
+            throws IOException {
+        Path tempFile = documentContentCache.newTempFile();
+        boolean complete = false;
+        try (InputStream inputStream = content.getStream();
+             OutputStream cacheStream = Files.newOutputStream(tempFile)) {
+            byte[] buffer = new byte[CommonConstants.STAGING_BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+                cacheStream.write(buffer, 0, read);
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                documentContentCache.discard(tempFile);
+            }
+        }
+        documentContentCache.commit(cacheKey, tempFile, content.getContentLength());
+    }
+
+    /**
+     * List documents newest first, one page per call
+     * The cursor encodes the (uploadedAt, id) of the last row returned, so each page
+     * is a seek on the listing indexes and costs the same however deep it is
+     */
+    @Override
+    public DocumentPageDto searchDocuments(DocumentSearchDto filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? CommonConstants.DEFAULT_PAGE_SIZE
+                : Math.clamp(limit, 1, CommonConstants.MAX_PAGE_SIZE);
+
+        Timestamp afterUploadedAt = null;
+        Long afterId = null;
+        if (!ObjectUtils.isEmpty(cursor)) {
+            String[] position = decodeCursor(cursor);
+            afterUploadedAt = Timestamp.from(Instant.parse(position[0]));
+            afterId = Long.valueOf(position[1]);
+        }
+
+        // One extra row tells whether another page follows
+        List<DocumentSummaryDto> rows = documentRecordRepo.search(filter, afterUploadedAt, afterId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new DocumentPageDto(rows, null);
+        }
+        List<DocumentSummaryDto> page = rows.subList(0, pageSize);
+        DocumentSummaryDto last = page.get(pageSize - 1);
+        return new DocumentPageDto(new ArrayList<>(page), encodeCursor(last));
+    }
+
+    private String encodeCursor(DocumentSummaryDto last) {
+        String position = last.getUploadedAt().toInstant() + "|" + last.getDocumentId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length == 2) {
+                Instant.parse(position[0]);
+                Long.parseLong(position[1]);
+                return position;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException _) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    private String resolveObjectKey(DocumentRecord documentRecord) {
+        String folderName = documentRecord.getFolderList() != null ? documentRecord.getFolderList().getFolderName() : null;
+        return ObjectKeys.resolve(documentRecord.getObjectKey(), folderName, documentRecord.getDocumentName());
+    }
+
+    private boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ObjectUtils.isEmpty(ifNoneMatch)) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(candidate -> candidate.startsWith("W/") ? candidate.substring(2) : candidate)
+                .anyMatch(candidate -> "*".equals(candidate) || eTag.equals(candidate));
+    }
+
+    private MediaType resolveMediaType(String mimeType) {
+        try {
+            return !ObjectUtils.isEmpty(mimeType) ? MediaType.parseMediaType(mimeType)
+                    : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IllegalArgumentException _) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
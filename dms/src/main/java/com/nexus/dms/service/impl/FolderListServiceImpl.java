@@ -1,17 +1,30 @@
 package com.nexus.dms.service.impl;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.nexus.dms.dto.FolderListDto;
+import com.nexus.dms.dto.FolderStatsDelta;
+import com.nexus.dms.dto.FolderStatsDto;
 import com.nexus.dms.entities.FolderList;
+import com.nexus.dms.entities.FolderStats;
 import com.nexus.dms.entities.OrgType;
+import com.nexus.dms.repository.DocumentRecordRepo;
 import com.nexus.dms.repository.FolderListRepo;
+import com.nexus.dms.repository.FolderStatsRepo;
 import com.nexus.dms.service.FolderListService;
 import com.nexus.dms.utils.CommonConstants;
 
@@ -22,9 +35,20 @@ public class FolderListServiceImpl implements FolderListService {
 
     private final ModelMapper modelMapper;
 
-    public FolderListServiceImpl(FolderListRepo folderListRepo, ModelMapper modelMapper) {
+    private final FolderStatsRepo folderStatsRepo;
+
+    private final DocumentRecordRepo documentRecordRepo;
+
+    // PENDING records older than this are treated as abandoned and no longer hold back the totals
+    @Value("${dms.folder-stats.pending-grace-ms:3600000}")
+    private long pendingGraceMs;
+
+    public FolderListServiceImpl(FolderListRepo folderListRepo, ModelMapper modelMapper,
+            FolderStatsRepo folderStatsRepo, DocumentRecordRepo documentRecordRepo) {
         this.folderListRepo = folderListRepo;
         this.modelMapper = modelMapper;
+        this.folderStatsRepo = folderStatsRepo;
+        this.documentRecordRepo = documentRecordRepo;
     }
 
     @Override
@@ -59,6 +83,109 @@ public class FolderListServiceImpl implements FolderListService {
         return response;
     }
 
+    /**
+     * Per-folder document count, total bytes and last upload time
+     * Read from the precomputed totals, so the cost does not grow with the number of documents
+     */
+    @Override
+    public ResponseEntity<?> getFolderStats() {
+        Map<Long, FolderStats> statsByFolder = folderStatsRepo.findAll().stream()
+                .collect(Collectors.toMap(FolderStats::getFolderId, Function.identity()));
+
+        List<FolderStatsDto> folderStats = folderListRepo.findAll().stream()
+                .map(folderList -> {
+                    FolderStats stats = statsByFolder.get(folderList.getId());
+                    return new FolderStatsDto(folderList.getId(), folderList.getFolderName(),
+                            folderList.getOrgType() != null ? folderList.getOrgType().name() : null,
+                            stats != null ? stats.getDocumentCount() : 0,
+                            stats != null ? stats.getTotalBytes() : 0,
+                            stats != null ? stats.getLastUploadedAt() : null,
+                            stats != null ? stats.getRefreshedAt() : null);
+                })
+                .toList();
+        return ResponseEntity.ok(folderStats);
+    }
+
+    @Override
+    @Transactional
+    public void refreshFolderStats(boolean rebuild) {
+        applyFolderStats(rebuild);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${dms.folder-stats.refresh-interval-ms:60000}")
+    public void refreshFolderStatsScheduled() {
+        applyFolderStats(false);
+    }
+
+    /**
+     * A periodic rebuild also corrects totals that missed a record whose id was
+     * committed after a higher one had already been counted
+     */
+    @Transactional
+    @Scheduled(cron = "${dms.folder-stats.rebuild-cron:0 0 3 * * *}")
+    public void rebuildFolderStatsScheduled() {
+        applyFolderStats(true);
+    }
+
+    /**
+     * Add the grouped totals of UPLOADED records in (refreshedThroughId, watermark]
+     * The watermark stops below the oldest recent PENDING record, whose status may still change
+     */
+    private void applyFolderStats(boolean rebuild) {
+        List<FolderStats> existing = folderStatsRepo.findAllForUpdate();
+        Map<Long, FolderStats> statsByFolder = new HashMap<>();
+        for (FolderStats stats : existing) {
+            statsByFolder.put(stats.getFolderId(), stats);
+        }
+
+        long afterId = rebuild ? 0 : existing.stream().mapToLong(FolderStats::getRefreshedThroughId).min().orElse(0);
+        long throughId = statsWatermark();
+        if (!rebuild && throughId <= afterId) {
+            return;
+        }
+        if (rebuild) {
+            statsByFolder.values().forEach(stats -> {
+                stats.setDocumentCount(0);
+                stats.setTotalBytes(0);
+                stats.setLastUploadedAt(null);
+            });
+        }
+
+        for (FolderStatsDelta delta : documentRecordRepo.aggregateByFolder(CommonConstants.STATUS_UPLOADED, afterId,
+                throughId)) {
+            FolderStats stats = statsByFolder.computeIfAbsent(delta.getFolderId(), folderId -> {
+                FolderStats created = new FolderStats();
+                created.setFolderId(folderId);
+                return created;
+            });
+            stats.setDocumentCount(stats.getDocumentCount() + delta.getDocumentCount());
+            stats.setTotalBytes(stats.getTotalBytes() + delta.getTotalBytes());
+            if (stats.getLastUploadedAt() == null || (delta.getLastUploadedAt() != null
+                    && delta.getLastUploadedAt().after(stats.getLastUploadedAt()))) {
+                stats.setLastUploadedAt(delta.getLastUploadedAt());
+            }
+        }
+
+        Timestamp refreshedAt = new Timestamp(System.currentTimeMillis());
+        for (FolderStats stats : statsByFolder.values()) {
+            stats.setRefreshedThroughId(throughId);
+            stats.setRefreshedAt(refreshedAt);
+        }
+        folderStatsRepo.saveAll(statsByFolder.values());
+    }
+
+    private long statsWatermark() {
+        Long maxId = documentRecordRepo.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+        Long oldestPending = documentRecordRepo.findMinIdByStatusInSince(
+                List.of(CommonConstants.STATUS_PENDING, CommonConstants.STATUS_AWAITING_UPLOAD),
+                new Timestamp(System.currentTimeMillis() - pendingGraceMs));
+        return oldestPending != null ? Math.min(maxId, oldestPending - 1) : maxId;
+    }
+
     @Override
     public ResponseEntity<?> setNewFolderList(FolderListDto folderListDto) {
         // TODO Auto-generated method stub
@@ -1,11 +1,23 @@
 package com.nexus.dms.service.impl;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,23 +26,42 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.nexus.dms.dto.BatchFileEntryDto;
+import com.nexus.dms.dto.BatchUploadResponseDto;
+import com.nexus.dms.dto.BatchUploadResultDto;
 import com.nexus.dms.dto.CommonFileUploadDto;
+import com.nexus.dms.dto.DirectUploadDto;
+import com.nexus.dms.dto.DirectUploadRequestDto;
 import com.nexus.dms.dto.IndividualFileUploadDto;
+import com.nexus.dms.dto.OrgBatchUploadDto;
 import com.nexus.dms.dto.OrgFileUploadDto;
+import com.nexus.dms.dto.PresignedPut;
+import com.nexus.dms.dto.StoredContent;
+import com.nexus.dms.dto.UploadJobDto;
 import com.nexus.dms.dto.UploaderResponse;
+import com.nexus.dms.dto.UserOrgDetails;
 import com.nexus.dms.entities.FolderList;
 import com.nexus.dms.entities.DocumentRecord;
 import com.nexus.dms.entities.DocumentType;
+import com.nexus.dms.entities.OrgType;
+import com.nexus.dms.entities.UploadSession;
 import com.nexus.dms.entities.UploaderType;
+import com.nexus.dms.exception.FileValidationException;
 import com.nexus.dms.exception.ResourceNotFoundException;
 import com.nexus.dms.exception.ServiceLevelException;
+import com.nexus.dms.exception.ServiceUnavailableException;
 import com.nexus.dms.repository.FolderListRepo;
 import com.nexus.dms.repository.DocumentRecordRepo;
 import com.nexus.dms.service.ImplementerService;
+import com.nexus.dms.service.PreviewService;
 import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.ByteRange;
 import com.nexus.dms.utils.CommonConstants;
 import com.nexus.dms.utils.CommonUtils;
 import com.nexus.dms.utils.RestService;
+import com.nexus.dms.utils.StagedFile;
+import com.nexus.dms.utils.UploadAdmission;
+import com.nexus.dms.utils.UserOrgCache;
 import com.nexus.dms.utils.WebConstants;
 
 @Service
@@ -48,13 +79,31 @@ public class ImplementerServiceImpl implements ImplementerService {
 
     private final FolderListRepo folderListRepo;
 
-    public ImplementerServiceImpl(DocumentRecordRepo documentRecordRepo, WebConstants webConstants, CommonUtils commonUtils, RestService restService, UploaderService uploaderService, FolderListRepo folderListRepo) {
+    private final ExecutorService batchUploadExecutor;
+
+    private final PreviewService previewService;
+
+    private final UserOrgCache userOrgCache;
+
+    private final UploadAdmission uploadAdmission;
+
+    private final Duration directUploadUrlTtl;
+
+    public ImplementerServiceImpl(DocumentRecordRepo documentRecordRepo, WebConstants webConstants, CommonUtils commonUtils, RestService restService, UploaderService uploaderService, FolderListRepo folderListRepo,
+            PreviewService previewService, UserOrgCache userOrgCache, UploadAdmission uploadAdmission,
+            @Qualifier("batchUploadExecutor") ExecutorService batchUploadExecutor,
+            @Value("${dms.direct-upload.url-ttl:PT15M}") Duration directUploadUrlTtl) {
         this.documentRecordRepo = documentRecordRepo;
         this.webConstants = webConstants;
         this.commonUtils = commonUtils;
         this.restService = restService;
         this.uploaderService = uploaderService;
         this.folderListRepo = folderListRepo;
+        this.batchUploadExecutor = batchUploadExecutor;
+        this.previewService = previewService;
+        this.userOrgCache = userOrgCache;
+        this.uploadAdmission = uploadAdmission;
+        this.directUploadUrlTtl = directUploadUrlTtl;
     }
 
     private String determineFolderPrefix(String orgType) {
@@ -68,24 +117,44 @@ public class ImplementerServiceImpl implements ImplementerService {
         return CommonConstants.COMMON_FOLDER;
     }
 
-    private void setCommonDocumentFields(DocumentRecord documentRecord, MultipartFile file, String fileName,
-            String remarks, DocumentType documentType) throws IOException {
-        documentRecord.setDocumentSize(file.getSize());
-        documentRecord.setMimeType(file.getContentType());
+    private void setCommonDocumentFields(DocumentRecord documentRecord, StagedFile file, String fileName,
+            String remarks, DocumentType documentType) {
+        // Computed while staging, the request body is not read again
+        setCommonDocumentFields(documentRecord, file.getSize(), file.getContentType(), file.getChecksum(), fileName,
+                remarks, documentType);
+    }
+
+    private void setCommonDocumentFields(DocumentRecord documentRecord, long size, String mimeType, String checksum,
+            String fileName, String remarks, DocumentType documentType) {
+        documentRecord.setDocumentSize(size);
+        documentRecord.setMimeType(mimeType);
         documentRecord.setUploadedAt(new Timestamp(System.currentTimeMillis()));
         documentRecord.setDocumentName(fileName);
         documentRecord.setRemarks(remarks);
-        try {
-            documentRecord.setChecksum(commonUtils.generateChecksum(file.getBytes()));
-        } catch (Exception e) {
-            throw new IOException("Error generating checksum", e);
-        }
+        documentRecord.setChecksum(checksum);
         documentRecord.setDocumentType(documentType);
     }
 
-    private ResponseEntity<?> handleFileUploadAndSave(DocumentRecord documentRecord, MultipartFile file,
+    /**
+     * Folder of an upload that is not tied to a request DTO, chosen as for the single request
+     * upload of the uploader type; sets the organization of the record on the way
+     */
+    private String resolveFolderPrefix(DocumentRecord documentRecord, UploaderType uploaderType, Long userId,
+            Long orgId, OrgType orgType) {
+        if (uploaderType == UploaderType.INDIVIDUAL) {
+            return determineFolderPrefix(fetchOrgTypeForUser(userId, documentRecord));
+        }
+        documentRecord.setOrgId(orgId);
+        return determineFolderPrefix(!ObjectUtils.isEmpty(orgType) ? orgType.name() : null);
+    }
+
+    private ResponseEntity<?> handleFileUploadAndSave(DocumentRecord documentRecord, StagedFile file,
             String fileName, String folderPrefix) throws IOException {
         try {
+            // Looked up first, a missing folder must not fail after the content was referenced
+            FolderList folderList = folderListRepo.findByFolderName(folderPrefix)
+                    .orElseThrow(() -> new ResourceNotFoundException("FolderList", "FolderName", folderPrefix));
+
             ResponseEntity<UploaderResponse> fileUploaded = uploaderService.uploadFile(file, fileName, folderPrefix);
 
             if (fileUploaded.getStatusCode().is2xxSuccessful() && !ObjectUtils.isEmpty(fileUploaded.getBody())) {
@@ -93,13 +162,12 @@ public class ImplementerServiceImpl implements ImplementerService {
                 if (!ObjectUtils.isEmpty(uploaderResponse)) {
                     documentRecord.setDmsId(uploaderResponse.getDmsId());
                     documentRecord.setDocumentUrl(uploaderResponse.getUrl());
-                    documentRecord.setStatus("UPLOADED");
-
-                    FolderList folderList = folderListRepo.findByFolderName(folderPrefix)
-                            .orElseThrow(() -> new ResourceNotFoundException("FolderList", "FolderName", folderPrefix));
+                    documentRecord.setObjectKey(uploaderResponse.getObjectKey());
+                    documentRecord.setStatus(CommonConstants.STATUS_UPLOADED);
                     documentRecord.setFolderList(folderList);
 
-                    DocumentRecord savedRecord = documentRecordRepo.save(documentRecord);
+                    DocumentRecord savedRecord = saveUploadedRecord(documentRecord);
+                    previewService.schedulePreview(savedRecord, file);
                     return ResponseEntity.ok(savedRecord);
                 }
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -112,26 +180,112 @@ public class ImplementerServiceImpl implements ImplementerService {
         }
     }
 
-    @Override
-    public ResponseEntity<?> individualUpload(IndividualFileUploadDto individualFileUploadDto, MultipartFile file) throws IOException {
-        ResponseEntity<?> responseEntity = null;
+    /**
+     * Persist the record as PENDING and start the upload without waiting on storage
+     * The caller gets the record id back as job id; the record is completed when the
+     * upload future finishes
+     * The upload admission permit only covers the request; the job itself is bounded by the upload job queue
+     */
+    private ResponseEntity<?> submitFileUpload(DocumentRecord documentRecord, StagedFile file, String fileName,
+            String folderPrefix) throws IOException {
+        FolderList folderList = folderListRepo.findByFolderName(folderPrefix)
+                .orElseThrow(() -> new ResourceNotFoundException("FolderList", "FolderName", folderPrefix));
+        documentRecord.setFolderList(folderList);
+        documentRecord.setStatus(CommonConstants.STATUS_PENDING);
+        DocumentRecord pendingRecord = documentRecordRepo.save(documentRecord);
+
+        StagedFile jobFile = file.handOff();
         try {
-            commonUtils.validateFile(file);
-            DocumentRecord documentRecord = new DocumentRecord();
-            documentRecord.setUploaderType(UploaderType.INDIVIDUAL);
-            documentRecord.setUserId(individualFileUploadDto.getUserId());
+            uploaderService.uploadFileAsync(jobFile, fileName, folderPrefix)
+                    .whenComplete((fileUploaded, error) -> completeUploadJob(pendingRecord, jobFile, fileUploaded,
+                            error));
+        } catch (RuntimeException e) {
+            // Rejected by a saturated job pool or failed before the job started, nothing will complete the record
+            jobFile.close();
+            pendingRecord.setStatus(CommonConstants.STATUS_FAILED);
+            documentRecordRepo.save(pendingRecord);
+            throw e;
+        }
 
-            setCommonDocumentFields(documentRecord, file, individualFileUploadDto.getFileName(),
-                    individualFileUploadDto.getRemarks(), individualFileUploadDto.getDocumentType());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(toUploadJobDto(pendingRecord));
+    }
+
+    /**
+     * Only storing the content and saving its row decide the outcome; a preview that cannot be
+     * scheduled leaves the record uploaded
+     */
+    private void completeUploadJob(DocumentRecord documentRecord, StagedFile file,
+            ResponseEntity<UploaderResponse> fileUploaded, Throwable error) {
+        try (file) {
+            UploaderResponse uploaderResponse = fileUploaded != null ? fileUploaded.getBody() : null;
+            if (error != null || !fileUploaded.getStatusCode().is2xxSuccessful()
+                    || ObjectUtils.isEmpty(uploaderResponse)) {
+                failUploadJob(documentRecord, error != null ? error : new IllegalStateException(
+                        "File upload failed with status " + (fileUploaded != null ? fileUploaded.getStatusCode() : null)));
+                return;
+            }
+            documentRecord.setDmsId(uploaderResponse.getDmsId());
+            documentRecord.setDocumentUrl(uploaderResponse.getUrl());
+            documentRecord.setObjectKey(uploaderResponse.getObjectKey());
+            documentRecord.setStatus(CommonConstants.STATUS_UPLOADED);
+            DocumentRecord savedRecord;
+            try {
+                savedRecord = saveUploadedRecord(documentRecord);
+            } catch (RuntimeException e) {
+                // The reference is given back, the record must not point at the content any more
+                documentRecord.setDmsId(null);
+                documentRecord.setDocumentUrl(null);
+                documentRecord.setObjectKey(null);
+                failUploadJob(documentRecord, e);
+                return;
+            }
+            previewService.schedulePreview(savedRecord, file);
+        }
+    }
 
-            String orgType = fetchOrgTypeForUser(individualFileUploadDto.getUserId(), documentRecord);
-            String folderPrefix = determineFolderPrefix(orgType);
+    private void failUploadJob(DocumentRecord documentRecord, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        documentRecord.setStatus(CommonConstants.STATUS_FAILED);
+        documentRecord.setErrorMessage(message.length() > CommonConstants.MAX_ERROR_MESSAGE_LENGTH
+                ? message.substring(0, CommonConstants.MAX_ERROR_MESSAGE_LENGTH) : message);
+        documentRecordRepo.save(documentRecord);
+    }
 
-            documentRecord
-                    .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
-            responseEntity = handleFileUploadAndSave(documentRecord, file, individualFileUploadDto.getFileName(),
-                    folderPrefix);
+    private UploadJobDto toUploadJobDto(DocumentRecord documentRecord) {
+        return new UploadJobDto(documentRecord.getId(), documentRecord.getStatus(), documentRecord.getDocumentName(),
+                documentRecord.getDmsId(), documentRecord.getDocumentUrl(), documentRecord.getUploadedAt(),
+                documentRecord.getErrorMessage());
+    }
 
+    @Override
+    public ResponseEntity<?> individualUpload(IndividualFileUploadDto individualFileUploadDto, MultipartFile file, boolean async) throws IOException {
+        ResponseEntity<?> responseEntity = null;
+        try {
+            commonUtils.validateFile(file);
+            try (UploadAdmission.Permit _ = uploadAdmission.acquire(file.getSize());
+                    StagedFile stagedFile = commonUtils.stageFile(file)) {
+                commonUtils.validateContent(stagedFile);
+                DocumentRecord documentRecord = new DocumentRecord();
+                documentRecord.setUploaderType(UploaderType.INDIVIDUAL);
+                documentRecord.setUserId(individualFileUploadDto.getUserId());
+
+                setCommonDocumentFields(documentRecord, stagedFile, individualFileUploadDto.getFileName(),
+                        individualFileUploadDto.getRemarks(), individualFileUploadDto.getDocumentType());
+
+                String orgType = fetchOrgTypeForUser(individualFileUploadDto.getUserId(), documentRecord);
+                String folderPrefix = determineFolderPrefix(orgType);
+
+                documentRecord
+                        .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
+                responseEntity = async
+                        ? submitFileUpload(documentRecord, stagedFile, individualFileUploadDto.getFileName(), folderPrefix)
+                        : handleFileUploadAndSave(documentRecord, stagedFile, individualFileUploadDto.getFileName(),
+                                folderPrefix);
+            }
+
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new ServiceLevelException("ImplementerService", e.getMessage(), "individualUpload",
                     e.getClass().getSimpleName(), "Error occurred while uploading individual file");
@@ -140,57 +294,90 @@ public class ImplementerServiceImpl implements ImplementerService {
     }
 
     private String fetchOrgTypeForUser(Long userId, DocumentRecord documentRecord) {
+        UserOrgDetails userOrgDetails = userOrgCache.get(userId, this::fetchUserOrgDetails);
+        if (userOrgDetails == null) {
+            documentRecord.setOrgId(null);
+            return null;
+        }
+        if (userOrgDetails.getOrgId() != null) {
+            documentRecord.setOrgId(userOrgDetails.getOrgId());
+        }
+        return userOrgDetails.getOrgType();
+    }
+
+    /**
+     * @return The user's organization from IAM, or null if IAM did not return one
+     */
+    private UserOrgDetails fetchUserOrgDetails(Long userId) {
         UriComponentsBuilder uriBuilder = UriComponentsBuilder
                 .fromUriString(webConstants.getFetchUserOrgDetailsUrl());
         uriBuilder.queryParam("userId", userId);
 
+        String token = commonUtils.getToken();
+        ResponseEntity<?> response = requestUserOrgDetails(uriBuilder.toUriString(), token, userId);
+        if (response.getStatusCode().value() == HttpStatus.UNAUTHORIZED.value()) {
+            // Rejected before its expiry (IAM restart, key rotation, revocation): log in again once
+            commonUtils.invalidateToken(token);
+            response = requestUserOrgDetails(uriBuilder.toUriString(), commonUtils.getToken(), userId);
+        }
+
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> responseMap = (Map<String, Object>) response.getBody();
+            Long orgId = responseMap.get("orgId") != null ? Long.valueOf(responseMap.get("orgId").toString()) : null;
+            String orgType = responseMap.get("orgType") != null ? responseMap.get("orgType").toString() : null;
+            return new UserOrgDetails(orgId, orgType);
+        }
+        return null;
+    }
+
+    private ResponseEntity<?> requestUserOrgDetails(String url, String token, Long userId) {
         Map<String, String> headers = new ConcurrentHashMap<>();
-        headers.put(CommonConstants.AUTHORIZATION, commonUtils.getToken());
+        if (token != null) {
+            headers.put(CommonConstants.AUTHORIZATION, token);
+        }
         headers.put(CommonConstants.CONTENT_TYPE, CommonConstants.APPLICATION_JSON);
+        return restService.dmsRestCall(url, null, headers, HttpMethod.GET, userId);
+    }
 
-        ResponseEntity<?> response = restService.dmsRestCall(uriBuilder.toUriString(), null, headers,
-                HttpMethod.GET, userId);
-
-        String orgType = null;
-        if (response.getStatusCode().is2xxSuccessful()) {
-            Object responseBody = response.getBody();
-            if (responseBody instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> responseMap = (Map<String, Object>) responseBody;
-                if (responseMap.containsKey("orgId")) {
-                    documentRecord.setOrgId(Long.valueOf(responseMap.get("orgId").toString()));
-                }
-                if (responseMap.containsKey("orgType")) {
-                    orgType = responseMap.get("orgType").toString();
-                }
-            }
+    @Override
+    public void invalidateUserOrg(Long userId) {
+        if (userId == null) {
+            userOrgCache.invalidateAll();
         } else {
-            documentRecord.setOrgId(null);
+            userOrgCache.invalidate(userId);
         }
-        return orgType;
     }
 
     @Override
-    public ResponseEntity<?> orgUpload(OrgFileUploadDto orgFileUploadDto, MultipartFile file) throws IOException {
+    public ResponseEntity<?> orgUpload(OrgFileUploadDto orgFileUploadDto, MultipartFile file, boolean async) throws IOException {
         ResponseEntity<?> responseEntity = null;
         try {
             commonUtils.validateFile(file);
-            DocumentRecord documentRecord = new DocumentRecord();
-            documentRecord.setOrgId(orgFileUploadDto.getOrgId());
-            documentRecord.setUploaderType(UploaderType.ORGANIZATION);
-
-            setCommonDocumentFields(documentRecord, file, orgFileUploadDto.getFileName(),
-                    orgFileUploadDto.getRemarks(), orgFileUploadDto.getDocumentType());
-
-            String folderPrefix = determineFolderPrefix(
-                    !ObjectUtils.isEmpty(orgFileUploadDto.getOrgType()) ? orgFileUploadDto.getOrgType().name()
-                            : null);
-
-            documentRecord
-                    .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
-            responseEntity = handleFileUploadAndSave(documentRecord, file, orgFileUploadDto.getFileName(),
-                    folderPrefix);
+            try (UploadAdmission.Permit _ = uploadAdmission.acquire(file.getSize());
+                    StagedFile stagedFile = commonUtils.stageFile(file)) {
+                commonUtils.validateContent(stagedFile);
+                DocumentRecord documentRecord = new DocumentRecord();
+                documentRecord.setOrgId(orgFileUploadDto.getOrgId());
+                documentRecord.setUploaderType(UploaderType.ORGANIZATION);
+
+                setCommonDocumentFields(documentRecord, stagedFile, orgFileUploadDto.getFileName(),
+                        orgFileUploadDto.getRemarks(), orgFileUploadDto.getDocumentType());
+
+                String folderPrefix = determineFolderPrefix(
+                        !ObjectUtils.isEmpty(orgFileUploadDto.getOrgType()) ? orgFileUploadDto.getOrgType().name()
+                                : null);
+
+                documentRecord
+                        .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
+                responseEntity = async
+                        ? submitFileUpload(documentRecord, stagedFile, orgFileUploadDto.getFileName(), folderPrefix)
+                        : handleFileUploadAndSave(documentRecord, stagedFile, orgFileUploadDto.getFileName(),
+                                folderPrefix);
+            }
 
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             throw new ServiceLevelException("ImplementerService", e.getMessage(), "orgUpload",
                     e.getClass().getSimpleName(), "Error occurred while uploading organizational file");
@@ -199,32 +386,360 @@ public class ImplementerServiceImpl implements ImplementerService {
     }
 
     @Override
-    public ResponseEntity<?> commonUpload(CommonFileUploadDto commonFileUploadDto, MultipartFile file) throws IOException {
+    public ResponseEntity<?> commonUpload(CommonFileUploadDto commonFileUploadDto, MultipartFile file, boolean async) throws IOException {
         ResponseEntity<?> responseEntity = null;
         try {
             commonUtils.validateFile(file);
+            try (UploadAdmission.Permit _ = uploadAdmission.acquire(file.getSize());
+                    StagedFile stagedFile = commonUtils.stageFile(file)) {
+                commonUtils.validateContent(stagedFile);
+                DocumentRecord documentRecord = new DocumentRecord();
+                documentRecord.setUserId(commonFileUploadDto.getUserId());
+                documentRecord.setOrgId(commonFileUploadDto.getOrgId());
+                documentRecord.setUploaderType(UploaderType.COMMON);
+
+                setCommonDocumentFields(documentRecord, stagedFile, commonFileUploadDto.getFileName(),
+                        commonFileUploadDto.getRemarks(), commonFileUploadDto.getDocumentType());
+
+                String folderPrefix = determineFolderPrefix(
+                        !ObjectUtils.isEmpty(commonFileUploadDto.getOrgType()) ? commonFileUploadDto.getOrgType().name()
+                                : null);
+
+                documentRecord
+                        .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
+                responseEntity = async
+                        ? submitFileUpload(documentRecord, stagedFile, commonFileUploadDto.getFileName(), folderPrefix)
+                        : handleFileUploadAndSave(documentRecord, stagedFile, commonFileUploadDto.getFileName(),
+                                folderPrefix);
+            }
+
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServiceLevelException("ImplementerService", e.getMessage(), "commonUpload",
+                    e.getClass().getSimpleName(), "Error occurred while uploading common file");
+        }
+        return responseEntity;
+    }
+
+    @Override
+    public ResponseEntity<?> uploadStagedFile(UploadSession session, StagedFile stagedFile) {
+        try (UploadAdmission.Permit _ = uploadAdmission.acquire(stagedFile.getSize())) {
+            commonUtils.validateContent(stagedFile);
             DocumentRecord documentRecord = new DocumentRecord();
-            documentRecord.setUserId(commonFileUploadDto.getUserId());
-            documentRecord.setOrgId(commonFileUploadDto.getOrgId());
-            documentRecord.setUploaderType(UploaderType.COMMON);
+            documentRecord.setUploaderType(session.getUploaderType());
+            documentRecord.setUserId(session.getUserId());
+
+            setCommonDocumentFields(documentRecord, stagedFile, session.getFileName(), session.getRemarks(),
+                    session.getDocumentType());
+
+            String folderPrefix = resolveFolderPrefix(documentRecord, session.getUploaderType(), session.getUserId(),
+                    session.getOrgId(), session.getOrgType());
+
+            documentRecord
+                    .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
+            return handleFileUploadAndSave(documentRecord, stagedFile, session.getFileName(), folderPrefix);
+        } catch (ServiceUnavailableException | FileValidationException e) {
+            // A session can be completed again, so the client must be able to tell these apart
+            throw e;
+        } catch (Exception e) {
+            throw new ServiceLevelException("ImplementerService", e.getMessage(), "uploadStagedFile",
+                    e.getClass().getSimpleName(), "Error occurred while storing assembled upload");
+        }
+    }
 
-            setCommonDocumentFields(documentRecord, file, commonFileUploadDto.getFileName(),
-                    commonFileUploadDto.getRemarks(), commonFileUploadDto.getDocumentType());
+    @Override
+    public ResponseEntity<?> initiateDirectUpload(DirectUploadRequestDto directUploadRequestDto) {
+        try {
+            if (directUploadRequestDto.getUploaderType() == null) {
+                throw new IllegalArgumentException("Uploader type is required");
+            }
+            if (directUploadRequestDto.getSize() <= 0) {
+                throw new IllegalArgumentException("Size must be greater than zero");
+            }
+            if (directUploadRequestDto.getChecksum() == null
+                    || !directUploadRequestDto.getChecksum().matches("^[0-9a-fA-F]{32}$")) {
+                throw new IllegalArgumentException("Checksum must be the hex MD5 of the file");
+            }
+            commonUtils.validateFileMetadata(directUploadRequestDto.getFileName(), directUploadRequestDto.getSize(),
+                    directUploadRequestDto.getContentType());
 
-            String folderPrefix = determineFolderPrefix(
-                    !ObjectUtils.isEmpty(commonFileUploadDto.getOrgType()) ? commonFileUploadDto.getOrgType().name()
-                            : null);
+            String checksum = directUploadRequestDto.getChecksum().toLowerCase(Locale.ROOT);
+            String fileName = directUploadRequestDto.getFileName();
+            long size = directUploadRequestDto.getSize();
 
+            DocumentRecord documentRecord = new DocumentRecord();
+            documentRecord.setUploaderType(directUploadRequestDto.getUploaderType());
+            documentRecord.setUserId(directUploadRequestDto.getUserId());
+            setCommonDocumentFields(documentRecord, size, directUploadRequestDto.getContentType(), checksum, fileName,
+                    directUploadRequestDto.getRemarks(), directUploadRequestDto.getDocumentType());
+
+            String folderPrefix = resolveFolderPrefix(documentRecord, directUploadRequestDto.getUploaderType(),
+                    directUploadRequestDto.getUserId(), directUploadRequestDto.getOrgId(),
+                    directUploadRequestDto.getOrgType());
             documentRecord
                     .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
-            responseEntity = handleFileUploadAndSave(documentRecord, file, commonFileUploadDto.getFileName(),
-                    folderPrefix);
+            FolderList folderList = folderListRepo.findByFolderName(folderPrefix)
+                    .orElseThrow(() -> new ResourceNotFoundException("FolderList", "FolderName", folderPrefix));
+            documentRecord.setFolderList(folderList);
+
+            // Even known content is uploaded, a checksum the client only claims proves nothing;
+            // finalize deduplicates once storage has verified the bytes
+            PresignedPut presignedPut = uploaderService.presignUpload(checksum, size,
+                    directUploadRequestDto.getContentType(), fileName, folderPrefix, directUploadUrlTtl);
+            documentRecord.setObjectKey(presignedPut.getObjectKey());
+            documentRecord.setStatus(CommonConstants.STATUS_AWAITING_UPLOAD);
+            DocumentRecord savedRecord = documentRecordRepo.save(documentRecord);
+            return ResponseEntity.status(HttpStatus.CREATED).body(new DirectUploadDto(savedRecord.getId(),
+                    savedRecord.getStatus(), presignedPut.getUrl(), HttpMethod.PUT.name(), presignedPut.getHeaders(),
+                    Timestamp.from(presignedPut.getExpiresAt())));
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        } catch (IllegalArgumentException | FileValidationException | ResourceNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServiceLevelException("ImplementerService", e.getMessage(), "initiateDirectUpload",
+                    e.getClass().getSimpleName(), "Error occurred while preparing direct upload");
+        }
+    }
+
+    /**
+     * Only the object metadata and its first bytes are read from storage
+     * The document is claimed by moving it to PENDING, so concurrent calls register the object once;
+     * a document whose object has not arrived yet goes back to awaiting upload
+     */
+    @Override
+    public ResponseEntity<?> finalizeDirectUpload(Long documentId) {
+        DocumentRecord documentRecord = documentRecordRepo.findById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("DocumentRecord", "id", documentId));
+        if (CommonConstants.STATUS_UPLOADED.equals(documentRecord.getStatus())) {
+            return ResponseEntity.ok(documentRecord);
+        }
+        if (documentRecordRepo.updateStatus(List.of(documentId), CommonConstants.STATUS_AWAITING_UPLOAD,
+                CommonConstants.STATUS_PENDING) == 0) {
+            throw new IllegalArgumentException("Document " + documentId + " is not awaiting an upload");
+        }
+        documentRecord.setStatus(CommonConstants.STATUS_PENDING);
 
+        String objectKey = documentRecord.getObjectKey();
+        try {
+            long headerLength = Math.min(CommonConstants.HEADER_SNIFF_BYTES, documentRecord.getDocumentSize());
+            StoredContent header = uploaderService.downloadFile(objectKey, new ByteRange(0, headerLength - 1));
+            try (InputStream inputStream = header.getStream()) {
+                documentRecord.setMimeType(commonUtils.sniffContentType(documentRecord.getDocumentName(),
+                        documentRecord.getMimeType(), inputStream));
+            }
+
+            ResponseEntity<UploaderResponse> registered = uploaderService.registerUpload(objectKey,
+                    documentRecord.getChecksum(), documentRecord.getDocumentSize(), documentRecord.getDocumentName(),
+                    documentRecord.getFolderList().getFolderName());
+            UploaderResponse uploaderResponse = registered.getBody();
+            documentRecord.setDmsId(uploaderResponse.getDmsId());
+            documentRecord.setDocumentUrl(uploaderResponse.getUrl());
+            documentRecord.setObjectKey(uploaderResponse.getObjectKey());
+            documentRecord.setStatus(CommonConstants.STATUS_UPLOADED);
+            return ResponseEntity.ok(saveUploadedRecord(documentRecord));
+        } catch (FileValidationException e) {
+            // Content that fails validation is never registered; a mismatching object is deleted
+            // by registerUpload, one that failed sniffing is left for reconciliation
+            documentRecord.setStatus(CommonConstants.STATUS_FAILED);
+            documentRecordRepo.save(documentRecord);
+            throw e;
+        } catch (FileNotFoundException e) {
+            awaitUploadAgain(documentRecord);
+            throw new IllegalArgumentException("No object has been uploaded for document " + documentId);
+        } catch (IllegalArgumentException | ServiceUnavailableException e) {
+            awaitUploadAgain(documentRecord);
+            throw e;
         } catch (Exception e) {
-            throw new ServiceLevelException("ImplementerService", e.getMessage(), "commonUpload",
-                    e.getClass().getSimpleName(), "Error occurred while uploading common file");
+            awaitUploadAgain(documentRecord);
+            throw new ServiceLevelException("ImplementerService", e.getMessage(), "finalizeDirectUpload",
+                    e.getClass().getSimpleName(), "Error occurred while finalizing direct upload");
         }
-        return responseEntity;
+    }
+
+    private void awaitUploadAgain(DocumentRecord documentRecord) {
+        documentRecord.setStatus(CommonConstants.STATUS_AWAITING_UPLOAD);
+        documentRecordRepo.save(documentRecord);
+    }
+
+    @Override
+    public ResponseEntity<?> orgBatchUpload(OrgBatchUploadDto orgBatchUploadDto, List<MultipartFile> files) {
+        if (ObjectUtils.isEmpty(files)) {
+            throw new IllegalArgumentException("No files in batch");
+        }
+        if (files.size() > CommonConstants.MAX_BATCH_FILES) {
+            throw new IllegalArgumentException(
+                    String.format("A batch can contain at most %d files", CommonConstants.MAX_BATCH_FILES));
+        }
+
+        // Resolved once for the whole batch
+        String folderPrefix = determineFolderPrefix(
+                !ObjectUtils.isEmpty(orgBatchUploadDto.getOrgType()) ? orgBatchUploadDto.getOrgType().name()
+                        : null);
+        FolderList folderList = folderListRepo.findByFolderName(folderPrefix)
+                .orElseThrow(() -> new ResourceNotFoundException("FolderList", "FolderName", folderPrefix));
+
+        // The files of a batch are processed in parallel, so the batch is admitted as a whole
+        long batchBytes = files.stream().mapToLong(MultipartFile::getSize).sum();
+        try (UploadAdmission.Permit _ = uploadAdmission.acquire(batchBytes)) {
+            return storeBatch(orgBatchUploadDto, files, folderPrefix, folderList);
+        }
+    }
+
+    private ResponseEntity<?> storeBatch(OrgBatchUploadDto orgBatchUploadDto, List<MultipartFile> files,
+            String folderPrefix, FolderList folderList) {
+        List<BatchFileEntryDto> entries = new ArrayList<>(files.size());
+        List<CompletableFuture<BatchUpload>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            BatchFileEntryDto entry = batchEntryFor(orgBatchUploadDto, i, file);
+            entries.add(entry);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> uploadBatchEntry(orgBatchUploadDto.getOrgId(), entry, file, folderPrefix, folderList),
+                    batchUploadExecutor));
+        }
+
+        List<BatchUploadResultDto> results = new ArrayList<>(files.size());
+        List<BatchUpload> uploads = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            String fileName = entries.get(i).getFileName();
+            try {
+                uploads.add(futures.get(i).join());
+                results.add(new BatchUploadResultDto(fileName, CommonConstants.STATUS_UPLOADED, null, null, null,
+                        null));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(new BatchUploadResultDto(fileName, CommonConstants.STATUS_FAILED, null, null, null,
+                        cause.getMessage()));
+            }
+        }
+
+        List<DocumentRecord> savedRecords;
+        try {
+            // One transaction for every row of the batch
+            savedRecords = documentRecordRepo.saveAll(uploads.stream().map(BatchUpload::documentRecord).toList());
+        } catch (RuntimeException e) {
+            // No row points at the stored content, give back the reference each upload added
+            for (BatchUpload upload : uploads) {
+                releaseQuietly(upload.documentRecord());
+                upload.stagedFile().close();
+            }
+            throw e;
+        }
+
+        int saved = 0;
+        for (BatchUploadResultDto result : results) {
+            if (CommonConstants.STATUS_UPLOADED.equals(result.getStatus())) {
+                DocumentRecord savedRecord = savedRecords.get(saved);
+                try (StagedFile stagedFile = uploads.get(saved).stagedFile()) {
+                    previewService.schedulePreview(savedRecord, stagedFile);
+                }
+                saved++;
+                result.setDocumentRecordId(savedRecord.getId());
+                result.setDmsId(savedRecord.getDmsId());
+                result.setDocumentUrl(savedRecord.getDocumentUrl());
+            }
+        }
+
+        int succeeded = savedRecords.size();
+        BatchUploadResponseDto response = new BatchUploadResponseDto(orgBatchUploadDto.getOrgId(), files.size(),
+                succeeded, files.size() - succeeded, results);
+        return ResponseEntity.status(succeeded == files.size() ? HttpStatus.OK : HttpStatus.MULTI_STATUS)
+                .body(response);
+    }
+
+    private BatchFileEntryDto batchEntryFor(OrgBatchUploadDto orgBatchUploadDto, int index, MultipartFile file) {
+        List<BatchFileEntryDto> entries = orgBatchUploadDto.getFiles();
+        BatchFileEntryDto entry = entries != null && index < entries.size() && entries.get(index) != null
+                ? entries.get(index)
+                : new BatchFileEntryDto();
+        if (ObjectUtils.isEmpty(entry.getFileName())) {
+            entry.setFileName(file.getOriginalFilename());
+        }
+        if (entry.getDocumentType() == null) {
+            entry.setDocumentType(DocumentType.OTHER);
+        }
+        return entry;
+    }
+
+    /**
+     * An uploaded batch file whose record is not saved yet
+     * The staged file stays open until the preview of the saved record is scheduled
+     */
+    private record BatchUpload(DocumentRecord documentRecord, StagedFile stagedFile) {
+    }
+
+    /**
+     * Validate, stage and store a single file of a batch
+     * Returns the unsaved record so the whole batch can be persisted together
+     */
+    private BatchUpload uploadBatchEntry(Long orgId, BatchFileEntryDto entry, MultipartFile file,
+            String folderPrefix, FolderList folderList) {
+        commonUtils.validateFile(file);
+        StagedFile stagedFile;
+        try {
+            stagedFile = commonUtils.stageFile(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            commonUtils.validateContent(stagedFile);
+            DocumentRecord documentRecord = new DocumentRecord();
+            documentRecord.setOrgId(orgId);
+            documentRecord.setUploaderType(UploaderType.ORGANIZATION);
+            setCommonDocumentFields(documentRecord, stagedFile, entry.getFileName(), entry.getRemarks(),
+                    entry.getDocumentType());
+            documentRecord
+                    .setStorageLocation(webConstants.getBucketUrl() + CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
+
+            ResponseEntity<UploaderResponse> fileUploaded = uploaderService.uploadFile(stagedFile,
+                    entry.getFileName(), folderPrefix);
+            UploaderResponse uploaderResponse = fileUploaded.getBody();
+            if (!fileUploaded.getStatusCode().is2xxSuccessful() || ObjectUtils.isEmpty(uploaderResponse)) {
+                throw new IllegalStateException("File upload failed");
+            }
+            documentRecord.setDmsId(uploaderResponse.getDmsId());
+            documentRecord.setDocumentUrl(uploaderResponse.getUrl());
+            documentRecord.setObjectKey(uploaderResponse.getObjectKey());
+            documentRecord.setStatus(CommonConstants.STATUS_UPLOADED);
+            documentRecord.setFolderList(folderList);
+            return new BatchUpload(documentRecord, stagedFile);
+        } catch (IOException e) {
+            stagedFile.close();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            stagedFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Save the record of content an upload has just referenced
+     * If the row cannot be written nothing points at the content, the reference is given back
+     */
+    private DocumentRecord saveUploadedRecord(DocumentRecord documentRecord) {
+        try {
+            return documentRecordRepo.save(documentRecord);
+        } catch (RuntimeException e) {
+            releaseQuietly(documentRecord);
+            throw e;
+        }
+    }
+
+    private void releaseQuietly(DocumentRecord documentRecord) {
+        try {
+            uploaderService.releaseContent(documentRecord.getChecksum());
+        } catch (RuntimeException _) {
+            // The count stays one too high, the object is kept rather than lost
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> getUploadJobStatus(Long jobId) {
+        DocumentRecord documentRecord = documentRecordRepo.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("UploadJob", "jobId", jobId));
+        return ResponseEntity.ok(toUploadJobDto(documentRecord));
     }
 
 }
@@ -0,0 +1,355 @@
+package com.nexus.dms.service.impl;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.nexus.dms.dto.ObjectStat;
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.dto.StoredContent;
+import com.nexus.dms.service.StorageBackend;
+import com.nexus.dms.utils.ByteRange;
+import com.nexus.dms.utils.StagedFile;
+
+/**
+ * Stores objects as files below a root directory on a local disk or NFS mount
+ * Files are written to a temp file with FileChannel transfers, synced and renamed into place,
+ * so a reader never sees a partial object; the directory sync that makes the rename durable
+ * is shared by all writes into the same directory within a short window
+ */
+@Service
+@ConditionalOnProperty(name = "dms.storage.backend", havingValue = "local")
+public class LocalStorageBackend implements StorageBackend {
+
+    // Temp files live below the root so the final rename never crosses file systems
+    private static final String INCOMING_DIR = ".incoming";
+
+    private final Path root;
+
+    private final Path incoming;
+
+    private final boolean fsync;
+
+    private final Executor directorySyncExecutor;
+
+    private final String baseUrl;
+
+    private final Map<Path, CompletableFuture<Void>> pendingDirectorySyncs = new ConcurrentHashMap<>();
+
+    public LocalStorageBackend(@Value("${dms.storage.local.root:./data/storage}") String root,
+            @Value("${dms.storage.local.fsync:true}") boolean fsync,
+            @Value("${dms.storage.local.fsync-batch-ms:2}") long fsyncBatchMs,
+            @Value("${dms.storage.local.base-url:local://nexus-scm}") String baseUrl) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.incoming = this.root.resolve(INCOMING_DIR);
+        Files.createDirectories(incoming);
+        this.fsync = fsync;
+        this.directorySyncExecutor = CompletableFuture.delayedExecutor(Math.max(0, fsyncBatchMs),
+                TimeUnit.MILLISECONDS, Executors.newSingleThreadExecutor(
+                        Thread.ofPlatform().name("local-storage-sync").daemon(true).factory()));
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * The content id is derived from the key, so it is known right away and never needs resolving
+     */
+    @Override
+    public Optional<String> put(String objectKey, StagedFile file) throws IOException {
+        Path target = resolve(objectKey);
+        try (FileChannel source = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            long size = source.size();
+            write(target, out -> {
+                long position = 0;
+                while (position < size) {
+                    long transferred = out.transferFrom(source, position, size - position);
+                    if (transferred <= 0) {
+                        throw new IOException("Unexpected end of staged file " + file.getPath());
+                    }
+                    position += transferred;
+                }
+            });
+        }
+        return Optional.of(contentId(objectKey));
+    }
+
+    @Override
+    public void putBytes(String objectKey, byte[] content, String contentType) throws IOException {
+        Path target = resolve(objectKey);
+        write(target, out -> {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        });
+    }
+
+    @Override
+    public StoredContent get(String objectKey, ByteRange range) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(resolve(objectKey), StandardOpenOption.READ);
+        } catch (NoSuchFileException _) {
+            throw new FileNotFoundException("No stored object for key " + objectKey);
+        }
+        try {
+            long size = channel.size();
+            long start = range != null ? Math.min(range.getStart(), size) : 0;
+            long length = range != null ? Math.min(range.length(), size - start) : size;
+            channel.position(start);
+            return new StoredContent(new LimitedInputStream(Channels.newInputStream(channel), length), length);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean delete(String objectKey) {
+        try {
+            return Files.deleteIfExists(resolve(objectKey));
+        } catch (IOException | IllegalArgumentException _) {
+            return false;
+        }
+    }
+
+    @Override
+    public List<String> deleteAll(List<String> objectKeys) {
+        List<String> failedKeys = new ArrayList<>();
+        for (String objectKey : objectKeys) {
+            try {
+                Files.deleteIfExists(resolve(objectKey));
+            } catch (IOException | IllegalArgumentException _) {
+                failedKeys.add(objectKey);
+            }
+        }
+        return failedKeys;
+    }
+
+    /**
+     * Depth first in name order, so the continuation token is simply the last key returned
+     * Only one directory listing is held at a time and subtrees before the token are not read
+     */
+    @Override
+    public StorageListingDto list(String continuationToken, int maxKeys) {
+        List<StorageListingDto.Entry> entries = new ArrayList<>();
+        try {
+            collect(root, "", continuationToken != null ? continuationToken.split("/") : null, 0,
+                    Math.max(1, maxKeys), entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list " + root, e);
+        }
+        String nextContinuationToken = entries.size() >= maxKeys ? entries.get(entries.size() - 1).getKey() : null;
+        return new StorageListingDto(entries, nextContinuationToken);
+    }
+
+    @Override
+    public Optional<String> resolveCid(String objectKey) throws IOException {
+        return Files.exists(resolve(objectKey)) ? Optional.of(contentId(objectKey)) : Optional.empty();
+    }
+
+    /**
+     * No ETag, the content is only hashed while it is staged
+     */
+    @Override
+    public Optional<ObjectStat> stat(String objectKey) throws IOException {
+        try {
+            return Optional.of(new ObjectStat(Files.size(resolve(objectKey)), null, contentId(objectKey)));
+        } catch (NoSuchFileException _) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public String getFileUrl(String cid) {
+        return String.format("%s/%s", baseUrl, cid);
+    }
+
+    private void collect(Path directory, String prefix, String[] after, int depth, int maxKeys,
+            List<StorageListingDto.Entry> entries) throws IOException {
+        List<Path> children;
+        try (Stream<Path> stream = Files.list(directory)) {
+            children = stream.sorted(Comparator.comparing(path -> path.getFileName().toString())).toList();
+        }
+        for (Path child : children) {
+            if (entries.size() >= maxKeys) {
+                return;
+            }
+            String name = child.getFileName().toString();
+            if (depth == 0 && INCOMING_DIR.equals(name)) {
+                continue;
+            }
+            // Where this name sits relative to the token component at the same depth
+            int order = after == null || depth >= after.length ? 1 : name.compareTo(after[depth]);
+            if (order < 0) {
+                continue;
+            }
+            String key = prefix + name;
+            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                collect(child, key + "/", order == 0 ? after : null, depth + 1, maxKeys, entries);
+            } else if (order > 0) {
+                entries.add(new StorageListingDto.Entry(key, Files.getLastModifiedTime(child).toInstant()));
+            }
+        }
+    }
+
+    private void write(Path target, ChannelWriter writer) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(incoming, "put-", ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writer.write(out);
+                if (fsync) {
+                    out.force(false);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (fsync) {
+            try {
+                syncDirectory(target.getParent()).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException ioException ? ioException
+                        : new IOException("Directory sync failed for " + target.getParent(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Group commit: the first rename into a directory schedules one sync after the batch window,
+     * renames that arrive before it starts wait for the same sync
+     */
+    private CompletableFuture<Void> syncDirectory(Path directory) {
+        CompletableFuture<Void> sync = new CompletableFuture<>();
+        CompletableFuture<Void> pending = pendingDirectorySyncs.putIfAbsent(directory, sync);
+        if (pending != null) {
+            return pending;
+        }
+        directorySyncExecutor.execute(() -> {
+            // Removed before syncing, a rename after this point needs the next sync
+            pendingDirectorySyncs.remove(directory, sync);
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+                sync.complete(null);
+            } catch (AccessDeniedException _) {
+                // Directories can not be opened on Windows, renames there need no separate sync
+                sync.complete(null);
+            } catch (IOException e) {
+                sync.completeExceptionally(e);
+            }
+        });
+        return sync;
+    }
+
+    /**
+     * Keys are used as relative paths, so every component must be a plain file name
+     *
+     * @throws IllegalArgumentException for keys that could escape the root or alias another key
+     */
+    private Path resolve(String objectKey) {
+        if (objectKey == null || objectKey.isEmpty() || objectKey.indexOf('\\') >= 0) {
+            throw new IllegalArgumentException("Invalid object key " + objectKey);
+        }
+        String[] components = objectKey.split("/", -1);
+        if (INCOMING_DIR.equals(components[0])) {
+            throw new IllegalArgumentException("Invalid object key " + objectKey);
+        }
+        for (String component : components) {
+            if (component.isEmpty() || ".".equals(component) || "..".equals(component)) {
+                throw new IllegalArgumentException("Invalid object key " + objectKey);
+            }
+        }
+        return root.resolve(objectKey);
+    }
+
+    private String contentId(String objectKey) {
+        return UUID.nameUUIDFromBytes(objectKey.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    @FunctionalInterface
+    private interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Ends after the requested range and closes the file channel with the stream
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.nexus.dms.service.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+
+import com.nexus.dms.dto.StoredContent;
+import com.nexus.dms.entities.DocumentRecord;
+import com.nexus.dms.entities.StoredObject;
+import com.nexus.dms.exception.ResourceNotFoundException;
+import com.nexus.dms.exception.ServiceLevelException;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
+import com.nexus.dms.service.PreviewService;
+import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.CommonConstants;
+import com.nexus.dms.utils.DocumentContentCache;
+import com.nexus.dms.utils.StagedFile;
+
+@Service
+public class PreviewServiceImpl implements PreviewService {
+
+    private static final String PREVIEW_CACHE_SUFFIX = ".preview";
+
+    private final UploaderService uploaderService;
+
+    private final DocumentRecordRepo documentRecordRepo;
+
+    private final StoredObjectRepo storedObjectRepo;
+
+    private final DocumentContentCache documentContentCache;
+
+    private final ExecutorService previewExecutor;
+
+    public PreviewServiceImpl(UploaderService uploaderService, DocumentRecordRepo documentRecordRepo,
+            StoredObjectRepo storedObjectRepo, DocumentContentCache documentContentCache,
+            @Qualifier("previewExecutor") ExecutorService previewExecutor) {
+        this.uploaderService = uploaderService;
+        this.documentRecordRepo = documentRecordRepo;
+        this.storedObjectRepo = storedObjectRepo;
+        this.documentContentCache = documentContentCache;
+        this.previewExecutor = previewExecutor;
+    }
+
+    /**
+     * Queue preview generation for a saved, uploaded document
+     * The renderer works on its own link to the staged file, so the request can
+     * return and clean up immediately; content that already has a preview
+     * (deduplicated uploads) just reuses it
+     */
+    @Override
+    public void schedulePreview(DocumentRecord documentRecord, StagedFile file) {
+        String objectKey = documentRecord.getObjectKey();
+        String checksum = documentRecord.getChecksum();
+        String mimeType = file.getContentType();
+        if (ObjectUtils.isEmpty(objectKey) || ObjectUtils.isEmpty(checksum) || !isPreviewable(mimeType)) {
+            return;
+        }
+
+        try {
+            Optional<String> existingPreview = storedObjectRepo.findByChecksum(checksum)
+                    .map(StoredObject::getPreviewKey);
+            if (existingPreview.isPresent()) {
+                documentRecordRepo.updatePreviewKey(checksum, existingPreview.get());
+                return;
+            }
+        } catch (RuntimeException _) {
+            // Never fail an upload over its preview
+            return;
+        }
+
+        StagedFile previewFile;
+        try {
+            previewFile = file.share(PREVIEW_CACHE_SUFFIX);
+        } catch (IOException _) {
+            return;
+        }
+        try {
+            previewExecutor.execute(() -> generatePreview(previewFile, checksum, objectKey, mimeType));
+        } catch (RejectedExecutionException _) {
+            // Preview queue is full, the document is still served without one
+            previewFile.close();
+        }
+    }
+
+    private void generatePreview(StagedFile file, String checksum, String objectKey, String mimeType) {
+        try (file) {
+            BufferedImage source = CommonConstants.PDF_VALUE.equals(mimeType)
+                    ? renderFirstPage(file.getPath())
+                    : readSubsampled(file.getPath());
+            if (source == null) {
+                return;
+            }
+            byte[] preview = encode(scaleToFit(source));
+
+            String previewKey = objectKey + CommonConstants.PREVIEW_SUFFIX;
+            uploaderService.uploadBytes(previewKey, preview, CommonConstants.JPEG_VALUE);
+            storedObjectRepo.updatePreviewKey(checksum, previewKey);
+            documentRecordRepo.updatePreviewKey(checksum, previewKey);
+            cachePreview(checksum, preview);
+        } catch (IOException | RuntimeException _) {
+            // Best effort, a corrupt or unusual file simply has no preview
+        }
+    }
+
+    /**
+     * Render only page one, scaled so its longest edge lands near the preview size
+     * Rendering at the target scale avoids a full resolution bitmap; parsing
+     * spills to temp files instead of the heap
+     */
+    private BufferedImage renderFirstPage(Path path) throws IOException {
+        try (PDDocument document = Loader.loadPDF(path.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            if (document.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle mediaBox = document.getPage(0).getMediaBox();
+            float longestEdge = Math.max(mediaBox.getWidth(), mediaBox.getHeight());
+            float scale = longestEdge > 0 ? CommonConstants.PREVIEW_MAX_DIMENSION / longestEdge : 1f;
+            return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    /**
+     * Decode an image with source subsampling so large photos are never fully decoded
+     */
+    private BufferedImage readSubsampled(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestEdge / (CommonConstants.PREVIEW_MAX_DIMENSION * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Downscale to the preview size on an opaque RGB canvas, JPEG has no alpha channel
+     */
+    private BufferedImage scaleToFit(BufferedImage source) {
+        int longestEdge = Math.max(source.getWidth(), source.getHeight());
+        double scale = Math.min(1d, (double) CommonConstants.PREVIEW_MAX_DIMENSION / longestEdge);
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, CommonConstants.PREVIEW_FORMAT, outputStream)) {
+            throw new IOException("No image writer for " + CommonConstants.PREVIEW_FORMAT);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Serve the stored preview, from the local content cache when present
+     * Previews are derived from content, so the checksum ETag stays valid for their lifetime
+     */
+    @Override
+    public ResponseEntity<byte[]> getDocumentPreview(Long documentId, String ifNoneMatch) {
+        DocumentRecord documentRecord = documentRecordRepo.findById(documentId)
+                .filter(document -> CommonConstants.STATUS_UPLOADED.equals(document.getStatus()))
+                .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
+        String checksum = documentRecord.getChecksum();
+        // A record saved after its content's preview finished may not carry the key yet
+        String previewKey = !ObjectUtils.isEmpty(documentRecord.getPreviewKey()) ? documentRecord.getPreviewKey()
+                : storedObjectRepo.findByChecksum(checksum).map(StoredObject::getPreviewKey).orElse(null);
+        if (ObjectUtils.isEmpty(previewKey)) {
+            throw new ResourceNotFoundException("DocumentPreview", "id", documentId);
+        }
+
+        String eTag = "\"" + checksum + PREVIEW_CACHE_SUFFIX + "\"";
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        byte[] preview;
+        try {
+            Optional<Path> cached = documentContentCache.lookup(checksum + PREVIEW_CACHE_SUFFIX);
+            if (cached.isPresent()) {
+                preview = Files.readAllBytes(cached.get());
+            } else {
+                StoredContent content = uploaderService.downloadFile(previewKey, null);
+                try (InputStream inputStream = content.getStream()) {
+                    preview = inputStream.readAllBytes();
+                }
+                cachePreview(checksum, preview);
+            }
+        } catch (FileNotFoundException e) {
+            throw new ResourceNotFoundException("DocumentPreview", "id", documentId);
+        } catch (IOException e) {
+            throw new ServiceLevelException("PreviewService", e.getMessage(), "getDocumentPreview",
+                    e.getClass().getSimpleName(), "Error occurred while reading document preview");
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                .eTag(eTag)
+                .body(preview);
+    }
+
+    private void cachePreview(String checksum, byte[] preview) {
+        if (ObjectUtils.isEmpty(checksum) || !documentContentCache.isCacheable(preview.length)) {
+            return;
+        }
+        try {
+            Path tempFile = documentContentCache.newTempFile();
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                outputStream.write(preview);
+            } catch (IOException e) {
+                documentContentCache.discard(tempFile);
+                throw e;
+            }
+            documentContentCache.commit(checksum + PREVIEW_CACHE_SUFFIX, tempFile, preview.length);
+        } catch (IOException _) {
+            // The preview is still in storage, caching is only an optimisation
+        }
+    }
+
+    private boolean isPreviewable(String mimeType) {
+        return CommonConstants.PDF_VALUE.equals(mimeType)
+                || CommonConstants.JPEG_VALUE.equals(mimeType)
+                || CommonConstants.JPG_VALUE.equals(mimeType)
+                || CommonConstants.PNG_VALUE.equals(mimeType);
+    }
+}
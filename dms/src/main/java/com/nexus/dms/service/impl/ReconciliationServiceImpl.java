@@ -0,0 +1,329 @@
+package com.nexus.dms.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+
+import com.nexus.dms.dto.ReconciliationRunDto;
+import com.nexus.dms.dto.StorageKeyDto;
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.entities.ReconciliationRun;
+import com.nexus.dms.exception.ResourceNotFoundException;
+import com.nexus.dms.exception.ServiceUnavailableException;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.ReconciliationRunRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
+import com.nexus.dms.service.ReconciliationService;
+import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.CommonConstants;
+import com.nexus.dms.utils.KeyBloomFilter;
+
+/**
+ * Compares the bucket against the database to find orphaned objects and dangling records
+ * Both sides are streamed page by page; each is summarised in a fixed size Bloom filter, so
+ * memory depends on the configured key count, not on the bucket size
+ * A listed key missing from the database filter is certainly unreferenced in the snapshot and is
+ * confirmed with an exact lookup before it is reported or deleted; a record whose key is
+ * missing from the bucket filter certainly has no object
+ */
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final String SAMPLE_SEPARATOR = "\n";
+
+    private final ReconciliationRunRepo reconciliationRunRepo;
+
+    private final DocumentRecordRepo documentRecordRepo;
+
+    private final StoredObjectRepo storedObjectRepo;
+
+    private final UploaderService uploaderService;
+
+    private final ExecutorService reconciliationExecutor;
+
+    private final long expectedKeys;
+
+    private final double falsePositiveRate;
+
+    private final Duration orphanGrace;
+
+    private final int pageSize;
+
+    private final int sampleSize;
+
+    private final boolean deleteOrphans;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationServiceImpl(ReconciliationRunRepo reconciliationRunRepo,
+            DocumentRecordRepo documentRecordRepo, StoredObjectRepo storedObjectRepo, UploaderService uploaderService,
+            @Qualifier("reconciliationExecutor") ExecutorService reconciliationExecutor,
+            @Value("${dms.reconcile.expected-keys:10000000}") long expectedKeys,
+            @Value("${dms.reconcile.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${dms.reconcile.orphan-grace:PT24H}") Duration orphanGrace,
+            @Value("${dms.reconcile.page-size:1000}") int pageSize,
+            @Value("${dms.reconcile.sample-size:20}") int sampleSize,
+            @Value("${dms.reconcile.delete-orphans:false}") boolean deleteOrphans) {
+        this.reconciliationRunRepo = reconciliationRunRepo;
+        this.documentRecordRepo = documentRecordRepo;
+        this.storedObjectRepo = storedObjectRepo;
+        this.uploaderService = uploaderService;
+        this.reconciliationExecutor = reconciliationExecutor;
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.orphanGrace = orphanGrace;
+        this.pageSize = Math.clamp(pageSize, 1, CommonConstants.MAX_DELETE_OBJECTS_KEYS);
+        this.sampleSize = Math.max(0, sampleSize);
+        this.deleteOrphans = deleteOrphans;
+    }
+
+    /**
+     * A scan over a large bucket runs for hours, so it goes to the reconciliation pool
+     * instead of holding one of the few scheduler threads
+     */
+    @Scheduled(cron = "${dms.reconcile.cron:0 30 2 * * SUN}")
+    public void reconcileScheduled() {
+        if (running.compareAndSet(false, true)) {
+            try {
+                startScan();
+            } catch (RejectedExecutionException _) {
+                // A manually submitted scan is still being handed over, this run is skipped
+            }
+        }
+    }
+
+    @Override
+    public ReconciliationRunDto submit() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ServiceUnavailableException("Reconciliation is running",
+                    "A reconciliation scan is already in progress, please retry later", 300);
+        }
+        try {
+            return toDto(startScan());
+        } catch (RejectedExecutionException _) {
+            throw new ServiceUnavailableException("Reconciliation is running",
+                    "A reconciliation scan is already in progress, please retry later", 300);
+        }
+    }
+
+    /**
+     * Called holding the running flag, which the scan releases when it ends or here when it cannot start
+     */
+    private ReconciliationRun startScan() {
+        try {
+            ReconciliationRun run = newRun();
+            reconciliationExecutor.execute(() -> {
+                try {
+                    scan(run);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public ReconciliationRunDto getRun(Long runId) {
+        return reconciliationRunRepo.findById(runId)
+                .map(this::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("ReconciliationRun", "id", runId));
+    }
+
+    @Override
+    public ReconciliationRunDto getLatestRun() {
+        return reconciliationRunRepo.findFirstByOrderByIdDesc()
+                .map(this::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("ReconciliationRun", "id", "latest"));
+    }
+
+    private ReconciliationRun newRun() {
+        ReconciliationRun run = new ReconciliationRun();
+        run.setStatus(CommonConstants.JOB_QUEUED);
+        return reconciliationRunRepo.save(run);
+    }
+
+    void scan(ReconciliationRun run) {
+        Instant scanStart = Instant.now();
+        run.setStatus(CommonConstants.JOB_RUNNING);
+        run.setStartedAt(Timestamp.from(scanStart));
+        reconciliationRunRepo.save(run);
+
+        List<String> orphanSample = new ArrayList<>();
+        List<String> danglingSample = new ArrayList<>();
+        try {
+            // Every object has a main key and may have a preview key
+            KeyBloomFilter referenced = new KeyBloomFilter(expectedKeys * 2, falsePositiveRate);
+            loadReferencedKeys(referenced);
+
+            KeyBloomFilter listed = new KeyBloomFilter(expectedKeys, falsePositiveRate);
+            scanBucket(run, referenced, listed, scanStart.minus(orphanGrace), orphanSample);
+            scanRecords(run, listed, scanStart, danglingSample);
+            run.setStatus(CommonConstants.JOB_COMPLETED);
+        } catch (Exception e) {
+            run.setStatus(CommonConstants.JOB_FAILED);
+            run.setErrorMessage(e.getMessage());
+        }
+        run.setOrphanSample(String.join(SAMPLE_SEPARATOR, orphanSample));
+        run.setDanglingSample(String.join(SAMPLE_SEPARATOR, danglingSample));
+        run.setFinishedAt(new Timestamp(System.currentTimeMillis()));
+        reconciliationRunRepo.save(run);
+    }
+
+    private void loadReferencedKeys(KeyBloomFilter referenced) {
+        long afterId = 0;
+        List<StorageKeyDto> page = storedObjectRepo.findKeysAfter(afterId, PageRequest.of(0, pageSize));
+        while (!page.isEmpty()) {
+            page.forEach(keys -> putKeys(referenced, keys));
+            afterId = page.get(page.size() - 1).getId();
+            page = storedObjectRepo.findKeysAfter(afterId, PageRequest.of(0, pageSize));
+        }
+
+        afterId = 0;
+        page = documentRecordRepo.findKeysAfter(afterId, CommonConstants.STATUS_DELETED, PageRequest.of(0, pageSize));
+        while (!page.isEmpty()) {
+            page.forEach(keys -> putKeys(referenced, keys));
+            afterId = page.get(page.size() - 1).getId();
+            page = documentRecordRepo.findKeysAfter(afterId, CommonConstants.STATUS_DELETED,
+                    PageRequest.of(0, pageSize));
+        }
+    }
+
+    /**
+     * Objects younger than the grace period may belong to an upload whose record is not saved yet
+     */
+    private void scanBucket(ReconciliationRun run, KeyBloomFilter referenced, KeyBloomFilter listed,
+            Instant orphanCutoff, List<String> orphanSample) {
+        Set<String> candidates = new LinkedHashSet<>();
+        String continuationToken = null;
+        do {
+            StorageListingDto listing = uploaderService.listObjects(continuationToken, pageSize);
+            for (StorageListingDto.Entry entry : listing.getEntries()) {
+                listed.put(entry.getKey());
+                if (!referenced.mightContain(entry.getKey()) && entry.getLastModified() != null
+                        && entry.getLastModified().isBefore(orphanCutoff)) {
+                    candidates.add(entry.getKey());
+                }
+            }
+            run.setObjectsScanned(run.getObjectsScanned() + listing.getEntries().size());
+            if (candidates.size() >= pageSize) {
+                handleOrphans(run, candidates, orphanSample);
+                candidates.clear();
+            }
+            reconciliationRunRepo.save(run);
+            continuationToken = listing.getNextContinuationToken();
+        } while (continuationToken != null);
+
+        if (!candidates.isEmpty()) {
+            handleOrphans(run, candidates, orphanSample);
+        }
+    }
+
+    /**
+     * The filter can not be trusted for deletion on its own, rows added after it was loaded
+     * are checked here exactly
+     */
+    private void handleOrphans(ReconciliationRun run, Set<String> candidates, List<String> orphanSample) {
+        Set<String> stillReferenced = new HashSet<>();
+        storedObjectRepo.findReferencingKeys(candidates).forEach(keys -> collectKeys(stillReferenced, keys));
+        documentRecordRepo.findReferencingKeys(candidates, CommonConstants.STATUS_DELETED)
+                .forEach(keys -> collectKeys(stillReferenced, keys));
+
+        List<String> orphans = candidates.stream().filter(key -> !stillReferenced.contains(key)).toList();
+        if (orphans.isEmpty()) {
+            return;
+        }
+        run.setOrphansFound(run.getOrphansFound() + orphans.size());
+        addToSample(orphanSample, orphans);
+        if (deleteOrphans) {
+            List<String> failedKeys = uploaderService.deleteObjects(orphans);
+            run.setOrphansDeleted(run.getOrphansDeleted() + orphans.size() - failedKeys.size());
+        }
+    }
+
+    /**
+     * Only uploaded records created before the listing started must have an object; previews
+     * are regenerated on demand and are not checked
+     */
+    private void scanRecords(ReconciliationRun run, KeyBloomFilter listed, Instant scanStart,
+            List<String> danglingSample) {
+        long afterId = 0;
+        List<StorageKeyDto> page = documentRecordRepo.findKeysAfter(afterId, CommonConstants.STATUS_DELETED,
+                PageRequest.of(0, pageSize));
+        while (!page.isEmpty()) {
+            List<String> dangling = new ArrayList<>();
+            for (StorageKeyDto record : page) {
+                if (CommonConstants.STATUS_UPLOADED.equals(record.getStatus())
+                        && !ObjectUtils.isEmpty(record.getObjectKey())
+                        && record.getUploadedAt() != null && record.getUploadedAt().toInstant().isBefore(scanStart)
+                        && !listed.mightContain(record.getObjectKey())) {
+                    dangling.add(record.getId() + " " + record.getObjectKey());
+                }
+            }
+            run.setRecordsScanned(run.getRecordsScanned() + page.size());
+            run.setDanglingFound(run.getDanglingFound() + dangling.size());
+            addToSample(danglingSample, dangling);
+            reconciliationRunRepo.save(run);
+
+            afterId = page.get(page.size() - 1).getId();
+            page = documentRecordRepo.findKeysAfter(afterId, CommonConstants.STATUS_DELETED,
+                    PageRequest.of(0, pageSize));
+        }
+    }
+
+    private void putKeys(KeyBloomFilter filter, StorageKeyDto keys) {
+        if (!ObjectUtils.isEmpty(keys.getObjectKey())) {
+            filter.put(keys.getObjectKey());
+        }
+        if (!ObjectUtils.isEmpty(keys.getPreviewKey())) {
+            filter.put(keys.getPreviewKey());
+        }
+    }
+
+    private void collectKeys(Set<String> collected, StorageKeyDto keys) {
+        if (keys.getObjectKey() != null) {
+            collected.add(keys.getObjectKey());
+        }
+        if (keys.getPreviewKey() != null) {
+            collected.add(keys.getPreviewKey());
+        }
+    }
+
+    private void addToSample(List<String> sample, List<String> values) {
+        for (String value : values) {
+            if (sample.size() >= sampleSize) {
+                return;
+            }
+            sample.add(value);
+        }
+    }
+
+    private ReconciliationRunDto toDto(ReconciliationRun run) {
+        return new ReconciliationRunDto(run.getId(), run.getStatus(), run.getObjectsScanned(),
+                run.getRecordsScanned(), run.getOrphansFound(), run.getOrphansDeleted(), run.getDanglingFound(),
+                splitSample(run.getOrphanSample()), splitSample(run.getDanglingSample()), run.getStartedAt(),
+                run.getFinishedAt(), run.getErrorMessage());
+    }
+
+    private List<String> splitSample(String sample) {
+        return ObjectUtils.isEmpty(sample) ? List.of() : List.of(sample.split(SAMPLE_SEPARATOR));
+    }
+}
@@ -0,0 +1,451 @@
+package com.nexus.dms.service.impl;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+
+import com.nexus.dms.dto.ObjectStat;
+import com.nexus.dms.dto.PresignedPut;
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.dto.StoredContent;
+import com.nexus.dms.exception.ServiceUnavailableException;
+import com.nexus.dms.service.StorageBackend;
+import com.nexus.dms.utils.ByteRange;
+import com.nexus.dms.utils.CommonConstants;
+import com.nexus.dms.utils.StagedFile;
+import com.nexus.dms.utils.StorageResilience;
+import com.nexus.dms.utils.WebConstants;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+/**
+ * S3 compatible object storage (Filebase), the default backend
+ * Filebase pins every object to IPFS and reports the CID as object metadata
+ */
+@Service
+@ConditionalOnProperty(name = "dms.storage.backend", havingValue = "s3", matchIfMissing = true)
+public class S3StorageBackend implements StorageBackend {
+
+    private static final String CID_HEADER = "x-amz-meta-cid";
+
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    private final S3Client s3Client;
+
+    private final WebConstants webConstants;
+
+    private final ExecutorService multipartUploadExecutor;
+
+    private final StorageResilience storageResilience;
+
+    // Present only with s3.engine=async
+    private final Optional<S3AsyncClient> s3AsyncClient;
+
+    private final S3Presigner s3Presigner;
+
+    public S3StorageBackend(S3Client s3Client, WebConstants webConstants,
+            @Qualifier("multipartUploadExecutor") ExecutorService multipartUploadExecutor,
+            StorageResilience storageResilience, Optional<S3AsyncClient> s3AsyncClient, S3Presigner s3Presigner) {
+        this.s3Client = s3Client;
+        this.webConstants = webConstants;
+        this.multipartUploadExecutor = multipartUploadExecutor;
+        this.storageResilience = storageResilience;
+        this.s3AsyncClient = s3AsyncClient;
+        this.s3Presigner = s3Presigner;
+    }
+
+    @Override
+    public Optional<String> put(String objectKey, StagedFile file) throws IOException {
+        long threshold = webConstants.getMultipartThresholdBytes();
+        return threshold > 0 && file.getSize() > threshold
+                ? multipartUpload(file, objectKey)
+                : putObject(file, objectKey);
+    }
+
+    /**
+     * With the async engine the body is streamed from the staged file by the non-blocking
+     * client as a single put, no thread is held for the transfer
+     */
+    @Override
+    public CompletableFuture<Optional<String>> putAsync(String objectKey, StagedFile file) {
+        if (s3AsyncClient.isEmpty()) {
+            return StorageBackend.super.putAsync(objectKey, file);
+        }
+
+        S3AsyncClient asyncClient = s3AsyncClient.get();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(CommonConstants.MAIN_BUCKET)
+                .key(objectKey)
+                .contentLength(file.getSize())
+                .build();
+        return storageResilience.executeAsync("putObject",
+                () -> asyncClient.putObject(putObjectRequest, AsyncRequestBody.fromFile(file.getPath())))
+                .thenApply(this::cidFrom);
+    }
+
+    /**
+     * Filebase returns the IPFS CID as object metadata on the write response
+     */
+    private Optional<String> cidFrom(SdkResponse response) {
+        if (response == null || response.sdkHttpResponse() == null) {
+            return Optional.empty();
+        }
+        return response.sdkHttpResponse().firstMatchingHeader(CID_HEADER)
+                .filter(value -> !value.isBlank());
+    }
+
+    @Override
+    public Optional<String> resolveCid(String objectKey) throws IOException {
+        try {
+            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+                    .bucket(CommonConstants.MAIN_BUCKET)
+                    .key(objectKey)
+                    .build();
+            HeadObjectResponse headObjectResponse = storageResilience.execute("headObject",
+                    () -> s3Client.headObject(headObjectRequest));
+            return Optional.ofNullable(headObjectResponse.metadata().get("cid"));
+        } catch (SdkClientException | S3Exception e) {
+            throw new IOException("Unable to resolve CID for " + objectKey, e);
+        }
+    }
+
+    /**
+     * The ETag of a single part upload is the hex MD5 of the content, quotes removed
+     */
+    @Override
+    public Optional<ObjectStat> stat(String objectKey) throws IOException {
+        try {
+            HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+                    .bucket(CommonConstants.MAIN_BUCKET)
+                    .key(objectKey)
+                    .build();
+            HeadObjectResponse headObjectResponse = storageResilience.execute("headObject",
+                    () -> s3Client.headObject(headObjectRequest));
+            String eTag = headObjectResponse.eTag() != null ? headObjectResponse.eTag().replace("\"", "") : null;
+            return Optional.of(new ObjectStat(headObjectResponse.contentLength(), eTag,
+                    headObjectResponse.metadata().get("cid")));
+        } catch (NoSuchKeyException _) {
+            return Optional.empty();
+        } catch (SdkClientException | S3Exception e) {
+            if (e instanceof S3Exception s3Exception && s3Exception.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Unable to read metadata for " + objectKey, e);
+        }
+    }
+
+    /**
+     * Content-Length and Content-MD5 are signed, so storage itself rejects any other body
+     */
+    @Override
+    public PresignedPut presignPut(String objectKey, String contentType, long size, String contentMd5,
+            Duration ttl) {
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(builder -> builder
+                .signatureDuration(ttl)
+                .putObjectRequest(put -> put
+                        .bucket(CommonConstants.MAIN_BUCKET)
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .contentLength(size)
+                        .contentMD5(contentMd5)));
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            // Host is set by the HTTP client from the URL
+            if (!"host".equalsIgnoreCase(name) && !values.isEmpty()) {
+                headers.put(name, values.get(0));
+            }
+        });
+        return new PresignedPut(objectKey, presigned.url().toString(), headers, presigned.expiration());
+    }
+
+    private Optional<String> putObject(StagedFile file, String s3Key) throws IOException {
+        try {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(CommonConstants.MAIN_BUCKET)
+                    .key(s3Key)
+                    .contentLength(file.getSize())
+                    .build();
+
+            // Streamed from the staged copy, so a retry re-reads the disk, not the request
+            PutObjectResponse putObjectResponse = storageResilience.execute("putObject",
+                    () -> s3Client.putObject(putObjectRequest, RequestBody.fromFile(file.getPath())));
+            return cidFrom(putObjectResponse);
+        } catch (SdkClientException | S3Exception e) {
+            throw new IOException("File upload failed after retries", e);
+        }
+    }
+
+    /**
+     * Upload a large staged file as S3 multipart upload
+     * Parts are read from the staged file with positional reads and uploaded in
+     * parallel on the bounded part executor; only a failing part is retried
+     * The upload is aborted if any part exhausts its attempts or storage becomes unavailable
+     */
+    private Optional<String> multipartUpload(StagedFile file, String s3Key) throws IOException {
+        long partSize = Math.max(webConstants.getMultipartPartSizeBytes(),
+                CommonConstants.MIN_MULTIPART_PART_SIZE_BYTES);
+        int partCount = (int) ((file.getSize() + partSize - 1) / partSize);
+
+        String uploadId;
+        try {
+            uploadId = storageResilience.execute("createMultipartUpload", () -> s3Client.createMultipartUpload(
+                    builder -> builder.bucket(CommonConstants.MAIN_BUCKET).key(s3Key)))
+                    .uploadId();
+        } catch (SdkClientException | S3Exception e) {
+            throw new IOException("Multipart upload failed for " + s3Key, e);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            List<CompletableFuture<CompletedPart>> futures = new ArrayList<>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                int partNumber = i + 1;
+                long offset = i * partSize;
+                int length = (int) Math.min(partSize, file.getSize() - offset);
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> uploadPart(channel, s3Key, uploadId, partNumber, offset, length),
+                        multipartUploadExecutor));
+            }
+
+            List<CompletedPart> completedParts = new ArrayList<>(partCount);
+            for (CompletableFuture<CompletedPart> future : futures) {
+                completedParts.add(future.join());
+            }
+
+            CompleteMultipartUploadResponse completeResponse = storageResilience.execute("completeMultipartUpload",
+                    () -> s3Client.completeMultipartUpload(builder -> builder
+                            .bucket(CommonConstants.MAIN_BUCKET)
+                            .key(s3Key)
+                            .uploadId(uploadId)
+                            .multipartUpload(upload -> upload.parts(completedParts))));
+            return cidFrom(completeResponse);
+        } catch (CompletionException | SdkClientException | S3Exception | ServiceUnavailableException
+                | IOException e) {
+            abortMultipartUpload(s3Key, uploadId);
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof ServiceUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw new IOException("Multipart upload failed for " + s3Key, cause);
+        }
+    }
+
+    /**
+     * The part is streamed from the staged file, no part sized buffer is held in memory
+     * Each attempt opens a new stream over the same slice of the file
+     */
+    private CompletedPart uploadPart(FileChannel channel, String s3Key, String uploadId, int partNumber,
+            long offset, int length) {
+        UploadPartResponse response = storageResilience.execute("uploadPart",
+                () -> s3Client.uploadPart(builder -> builder
+                        .bucket(CommonConstants.MAIN_BUCKET)
+                        .key(s3Key)
+                        .uploadId(uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) length),
+                        RequestBody.fromContentProvider(() -> new FileSliceInputStream(channel, offset, length),
+                                length, OCTET_STREAM)));
+        return CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(response.eTag())
+                .build();
+    }
+
+    /**
+     * Reads a slice of a file with positional reads, so the parts of an upload share one channel
+     */
+    private static final class FileSliceInputStream extends InputStream {
+
+        private final FileChannel channel;
+
+        private final long end;
+
+        private long position;
+
+        private FileSliceInputStream(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int read = channel.read(ByteBuffer.wrap(target, off, (int) Math.min(len, end - position)), position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of staged file at offset " + position);
+            }
+            position += read;
+            return read;
+        }
+    }
+
+    private void abortMultipartUpload(String s3Key, String uploadId) {
+        try {
+            storageResilience.execute("abortMultipartUpload", () -> s3Client.abortMultipartUpload(builder -> builder
+                    .bucket(CommonConstants.MAIN_BUCKET)
+                    .key(s3Key)
+                    .uploadId(uploadId)));
+        } catch (SdkClientException | S3Exception | ServiceUnavailableException _) {
+            // Incomplete uploads are also cleaned up by the bucket lifecycle
+        }
+    }
+
+    @Override
+    public StoredContent get(String objectKey, ByteRange range) throws IOException {
+        try {
+            ResponseInputStream<GetObjectResponse> object = storageResilience.execute("getObject",
+                    () -> s3Client.getObject(builder -> {
+                        builder.bucket(CommonConstants.MAIN_BUCKET).key(objectKey);
+                        if (range != null) {
+                            builder.range(range.toRangeHeader());
+                        }
+                    }));
+            return new StoredContent(object, object.response().contentLength());
+        } catch (NoSuchKeyException e) {
+            throw new FileNotFoundException("No stored object for key " + objectKey);
+        } catch (SdkClientException | S3Exception e) {
+            throw new IOException("File download failed", e);
+        }
+    }
+
+    /**
+     * Store a small in-memory object such as a generated preview
+     * Single attempt, callers treat derived objects as best effort
+     */
+    @Override
+    public void putBytes(String objectKey, byte[] content, String contentType) throws IOException {
+        try {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(CommonConstants.MAIN_BUCKET)
+                    .key(objectKey)
+                    .contentType(contentType)
+                    .contentLength((long) content.length)
+                    .build();
+            storageResilience.execute("putObject",
+                    () -> s3Client.putObject(putObjectRequest, RequestBody.fromBytes(content)));
+        } catch (SdkClientException | S3Exception e) {
+            throw new IOException("Object upload failed", e);
+        }
+    }
+
+    @Override
+    public String getFileUrl(String cid) {
+        return String.format("%s/%s", webConstants.getS3Endpoint(), cid);
+    }
+
+    @Override
+    public boolean delete(String objectKey) {
+        try {
+            // Check if the object exists in the S3 bucket
+            HeadObjectResponse headObject = storageResilience.execute("headObject", () -> s3Client
+                    .headObject(builder -> builder.bucket(CommonConstants.MAIN_BUCKET).key(objectKey)));
+
+            // Delete the object from the S3 bucket
+            if (!ObjectUtils.isEmpty(headObject)) {
+                DeleteObjectResponse deleteObject = storageResilience.execute("deleteObject", () -> s3Client
+                        .deleteObject(builder -> builder.bucket(CommonConstants.MAIN_BUCKET).key(objectKey)));
+
+                return !ObjectUtils.isEmpty(deleteObject);
+
+            }
+            return false;
+        } catch (SdkClientException | S3Exception | ServiceUnavailableException _) {
+            return false;
+        }
+    }
+
+    /**
+     * Multi-object delete, one request per 1000 keys instead of a HEAD and DELETE per key
+     * A failed request reports all of its keys
+     */
+    @Override
+    public List<String> deleteAll(List<String> objectKeys) {
+        List<String> failedKeys = new ArrayList<>();
+        for (int from = 0; from < objectKeys.size(); from += CommonConstants.MAX_DELETE_OBJECTS_KEYS) {
+            List<String> chunk = objectKeys.subList(from,
+                    Math.min(from + CommonConstants.MAX_DELETE_OBJECTS_KEYS, objectKeys.size()));
+            List<ObjectIdentifier> identifiers = chunk.stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            try {
+                DeleteObjectsResponse response = storageResilience.execute("deleteObjects",
+                        () -> s3Client.deleteObjects(builder -> builder
+                                .bucket(CommonConstants.MAIN_BUCKET)
+                                .delete(delete -> delete.objects(identifiers).quiet(true))));
+                response.errors().stream()
+                        .filter(error -> !"NoSuchKey".equals(error.code()))
+                        .map(S3Error::key)
+                        .forEach(failedKeys::add);
+            } catch (SdkClientException | S3Exception | ServiceUnavailableException _) {
+                failedKeys.addAll(chunk);
+            }
+        }
+        return failedKeys;
+    }
+
+    @Override
+    public StorageListingDto list(String continuationToken, int maxKeys) {
+        ListObjectsV2Response response = storageResilience.execute("listObjectsV2",
+                () -> s3Client.listObjectsV2(builder -> builder
+                        .bucket(CommonConstants.MAIN_BUCKET)
+                        .continuationToken(continuationToken)
+                        .maxKeys(maxKeys)));
+        List<StorageListingDto.Entry> entries = response.contents().stream()
+                .map(object -> new StorageListingDto.Entry(object.key(), object.lastModified()))
+                .toList();
+        return new StorageListingDto(entries,
+                Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null);
+    }
+}
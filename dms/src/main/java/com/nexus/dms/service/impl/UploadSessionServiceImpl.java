@@ -0,0 +1,375 @@
+package com.nexus.dms.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ObjectUtils;
+
+import com.nexus.dms.dto.UploadSessionDto;
+import com.nexus.dms.dto.UploadSessionRequestDto;
+import com.nexus.dms.entities.DocumentRecord;
+import com.nexus.dms.entities.UploadSession;
+import com.nexus.dms.exception.FileValidationException;
+import com.nexus.dms.exception.ResourceNotFoundException;
+import com.nexus.dms.exception.ServiceLevelException;
+import com.nexus.dms.repository.UploadSessionRepo;
+import com.nexus.dms.service.ImplementerService;
+import com.nexus.dms.service.UploadSessionService;
+import com.nexus.dms.utils.CommonConstants;
+import com.nexus.dms.utils.CommonUtils;
+import com.nexus.dms.utils.StagedFile;
+import com.nexus.dms.utils.WebConstants;
+
+/**
+ * Resumable uploads: the client sends the file in chunks at increasing offsets and completes
+ * the session once all bytes are in
+ * Chunks are appended to a spool file on local disk and synced before the offset is advanced,
+ * so a resumed upload continues from bytes that are known to be on disk
+ * The checksum is computed while chunks arrive; if this instance restarted mid-upload it is
+ * recomputed from the spool file on completion
+ * Spool files are local to the instance, so chunks of one session must reach the same instance
+ */
+@Service
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private static final String SPOOL_DIR = "upload-sessions";
+
+    private static final String SPOOL_SUFFIX = ".part";
+
+    private static final int CLEANUP_BATCH_SIZE = 100;
+
+    private final UploadSessionRepo uploadSessionRepo;
+
+    private final ImplementerService implementerService;
+
+    private final CommonUtils commonUtils;
+
+    private final Path spoolDir;
+
+    private final Duration ttl;
+
+    private final long maxChunkBytes;
+
+    private final Map<String, SessionState> sessionStates = new ConcurrentHashMap<>();
+
+    public UploadSessionServiceImpl(UploadSessionRepo uploadSessionRepo, ImplementerService implementerService,
+            CommonUtils commonUtils, WebConstants webConstants,
+            @Value("${dms.upload-session.ttl:PT24H}") Duration ttl,
+            @Value("${dms.upload-session.max-chunk-bytes:8388608}") long maxChunkBytes) throws IOException {
+        this.uploadSessionRepo = uploadSessionRepo;
+        this.implementerService = implementerService;
+        this.commonUtils = commonUtils;
+        Path base = ObjectUtils.isEmpty(webConstants.getStagingDir())
+                ? Path.of(System.getProperty("java.io.tmpdir"))
+                : Path.of(webConstants.getStagingDir());
+        this.spoolDir = Files.createDirectories(base.resolve(SPOOL_DIR));
+        this.ttl = ttl;
+        this.maxChunkBytes = maxChunkBytes;
+    }
+
+    @Override
+    public UploadSessionDto createSession(UploadSessionRequestDto request) {
+        if (request.getUploaderType() == null) {
+            throw new IllegalArgumentException("Uploader type is required");
+        }
+        if (request.getTotalSize() <= 0) {
+            throw new IllegalArgumentException("Total size must be greater than zero");
+        }
+        commonUtils.validateFileMetadata(request.getFileName(), request.getTotalSize(), request.getContentType());
+
+        long now = System.currentTimeMillis();
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setUploaderType(request.getUploaderType());
+        session.setUserId(request.getUserId());
+        session.setOrgId(request.getOrgId());
+        session.setOrgType(request.getOrgType());
+        session.setFileName(request.getFileName());
+        session.setContentType(request.getContentType());
+        session.setDocumentType(request.getDocumentType());
+        session.setRemarks(request.getRemarks());
+        session.setTotalSize(request.getTotalSize());
+        session.setReceivedBytes(0);
+        session.setStatus(CommonConstants.STATUS_PENDING);
+        session.setCreatedAt(new Timestamp(now));
+        session.setUpdatedAt(new Timestamp(now));
+        session.setExpiresAt(new Timestamp(now + ttl.toMillis()));
+        return toDto(uploadSessionRepo.save(session));
+    }
+
+    @Override
+    public UploadSessionDto getSession(String sessionId) {
+        return toDto(findSession(sessionId));
+    }
+
+    /**
+     * A chunk that arrives while another one for the same session is being written is answered
+     * with 409, the client then reads the session and resumes from its offset
+     */
+    @Override
+    public ResponseEntity<UploadSessionDto> appendChunk(String sessionId, long offset, long contentLength,
+            InputStream body) throws IOException {
+        // Looked up first so unknown ids never get a state entry
+        UploadSession current = findSession(sessionId);
+        SessionState state = sessionStates.computeIfAbsent(sessionId, _ -> new SessionState());
+        if (!state.lock.tryLock()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(toDto(current));
+        }
+        try {
+            UploadSession session = findOpenSession(sessionId);
+            if (offset != session.getReceivedBytes()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(toDto(session));
+            }
+
+            long maxLength = Math.min(maxChunkBytes, session.getTotalSize() - offset);
+            if (contentLength > maxLength) {
+                throw new IllegalArgumentException(String.format(
+                        "Chunk of %d bytes exceeds the %d bytes accepted at offset %d", contentLength, maxLength,
+                        offset));
+            }
+
+            long written = writeChunk(state, spoolFile(sessionId), offset, maxLength, body);
+
+            session.setReceivedBytes(offset + written);
+            session.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            return ResponseEntity.ok(toDto(uploadSessionRepo.save(session)));
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    @Override
+    public ResponseEntity<?> completeSession(String sessionId) {
+        findSession(sessionId);
+        SessionState state = sessionStates.computeIfAbsent(sessionId, _ -> new SessionState());
+        state.lock.lock();
+        try {
+            UploadSession session = findSession(sessionId);
+            if (CommonConstants.STATUS_UPLOADED.equals(session.getStatus())) {
+                return ResponseEntity.ok(toDto(session));
+            }
+            session = findOpenSession(sessionId);
+            if (session.getReceivedBytes() != session.getTotalSize()) {
+                throw new IllegalArgumentException(String.format("Upload incomplete, received %d of %d bytes",
+                        session.getReceivedBytes(), session.getTotalSize()));
+            }
+
+            Path spoolFile = spoolFile(sessionId);
+            StagedFile spooled;
+            try {
+                String checksum = state.digest != null && state.digestedBytes == session.getTotalSize()
+                        ? commonUtils.toHexDigest(state.digest)
+                        : commonUtils.checksumOf(spoolFile);
+                state.digest = null;
+                spooled = commonUtils.adoptSpooledFile(spoolFile, session.getFileName(), session.getContentType(),
+                        session.getTotalSize(), checksum);
+            } catch (FileValidationException e) {
+                fail(session);
+                throw e;
+            }
+
+            // Stored from a second name, the spool file survives a failed store so completion can be retried
+            ResponseEntity<?> stored;
+            try (StagedFile stagedFile = spooled.share(".complete")) {
+                stored = implementerService.uploadStagedFile(session, stagedFile);
+            } catch (FileValidationException e) {
+                fail(session);
+                throw e;
+            }
+            if (stored.getStatusCode().is2xxSuccessful() && stored.getBody() instanceof DocumentRecord savedRecord) {
+                spooled.close();
+                sessionStates.remove(sessionId);
+                session.setStatus(CommonConstants.STATUS_UPLOADED);
+                session.setDocumentRecordId(savedRecord.getId());
+                session.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+                return ResponseEntity.ok(toDto(uploadSessionRepo.save(session)));
+            }
+            return stored;
+        } catch (IOException e) {
+            throw new ServiceLevelException("UploadSessionService", e.getMessage(), "completeSession",
+                    e.getClass().getSimpleName(), "Error occurred while assembling upload session");
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${dms.upload-session.cleanup-interval-ms:600000}")
+    public void expireSessionsScheduled() {
+        expireSessions();
+    }
+
+    /**
+     * @return Number of pending sessions past their expiry that were discarded
+     */
+    int expireSessions() {
+        int expired = 0;
+        List<UploadSession> sessions;
+        int skipped;
+        do {
+            sessions = uploadSessionRepo.findByStatusAndExpiresAtBefore(CommonConstants.STATUS_PENDING,
+                    new Timestamp(System.currentTimeMillis()), PageRequest.of(0, CLEANUP_BATCH_SIZE));
+            skipped = 0;
+            for (UploadSession session : sessions) {
+                SessionState state = sessionStates.get(session.getId());
+                // A session busy with a chunk or completion is picked up by a later run
+                if (state != null && !state.lock.tryLock()) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    fail(session);
+                    expired++;
+                } finally {
+                    if (state != null) {
+                        state.lock.unlock();
+                    }
+                }
+            }
+            // Skipped sessions stay pending and would be returned again
+        } while (sessions.size() == CLEANUP_BATCH_SIZE && skipped == 0);
+        return expired;
+    }
+
+    /**
+     * Copies the chunk behind the synced bytes, replacing anything an interrupted write left there
+     * A client that disconnects mid-chunk keeps the bytes that did arrive
+     *
+     * @return Number of bytes appended
+     */
+    private long writeChunk(SessionState state, Path spoolFile, long offset, long maxLength, InputStream body)
+            throws IOException {
+        if (offset == 0 || state.digestedBytes != offset) {
+            state.digest = offset == 0 ? newDigest() : null;
+            state.digestedBytes = 0;
+        }
+
+        byte[] buffer = new byte[CommonConstants.STAGING_BUFFER_SIZE];
+        long written = 0;
+        IOException clientError = null;
+        try (FileChannel channel = FileChannel.open(spoolFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(offset);
+            channel.position(offset);
+            while (written < maxLength) {
+                int read;
+                try {
+                    read = body.read(buffer, 0, (int) Math.min(buffer.length, maxLength - written));
+                } catch (IOException e) {
+                    clientError = e;
+                    break;
+                }
+                if (read == -1) {
+                    break;
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                try {
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                } catch (IOException e) {
+                    state.digest = null;
+                    throw e;
+                }
+                if (state.digest != null) {
+                    state.digest.update(buffer, 0, read);
+                }
+                written += read;
+            }
+            if (clientError == null && written == maxLength && body.read() != -1) {
+                channel.truncate(offset);
+                state.digest = null;
+                throw new IllegalArgumentException(
+                        String.format("Chunk exceeds the %d bytes accepted at offset %d", maxLength, offset));
+            }
+            channel.force(false);
+        }
+        if (state.digest != null) {
+            state.digestedBytes = offset + written;
+        }
+        if (clientError != null && written == 0) {
+            throw clientError;
+        }
+        return written;
+    }
+
+    private void fail(UploadSession session) {
+        try {
+            Files.deleteIfExists(spoolFile(session.getId()));
+        } catch (IOException _) {
+            // The session is closed either way, the spool directory is temporary storage
+        }
+        sessionStates.remove(session.getId());
+        session.setStatus(CommonConstants.STATUS_FAILED);
+        session.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        uploadSessionRepo.save(session);
+    }
+
+    private UploadSession findSession(String sessionId) {
+        return uploadSessionRepo.findById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("UploadSession", "id", sessionId));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the session was completed, failed or has expired
+     */
+    private UploadSession findOpenSession(String sessionId) {
+        UploadSession session = findSession(sessionId);
+        if (!CommonConstants.STATUS_PENDING.equals(session.getStatus())) {
+            throw new IllegalArgumentException("Upload session is " + session.getStatus());
+        }
+        if (session.getExpiresAt().getTime() < System.currentTimeMillis()) {
+            throw new IllegalArgumentException("Upload session has expired");
+        }
+        return session;
+    }
+
+    private Path spoolFile(String sessionId) {
+        // Session ids are generated UUIDs, anything else never names a spool file
+        return spoolDir.resolve(UUID.fromString(sessionId) + SPOOL_SUFFIX);
+    }
+
+    private MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Error generating checksum", e);
+        }
+    }
+
+    private UploadSessionDto toDto(UploadSession session) {
+        return new UploadSessionDto(session.getId(), session.getStatus(), session.getFileName(),
+                session.getTotalSize(), session.getReceivedBytes(), session.getDocumentRecordId(),
+                session.getExpiresAt());
+    }
+
+    /**
+     * Per session lock and running digest, only valid while this instance received every chunk
+     */
+    private static final class SessionState {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private MessageDigest digest;
+
+        private long digestedBytes;
+    }
+}
@@ -1,88 +1,280 @@
 package com.nexus.dms.service.impl;
 
 import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
-import org.springframework.web.multipart.MultipartFile;
 
+import com.nexus.dms.dto.ObjectStat;
+import com.nexus.dms.dto.PresignedPut;
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.dto.StoredContent;
 import com.nexus.dms.dto.UploaderResponse;
+import com.nexus.dms.entities.StoredObject;
+import com.nexus.dms.exception.FileExceptionType;
+import com.nexus.dms.exception.FileValidationException;
+import com.nexus.dms.exception.ServiceUnavailableException;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
+import com.nexus.dms.service.StorageBackend;
 import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.ByteRange;
 import com.nexus.dms.utils.CommonConstants;
-import com.nexus.dms.utils.WebConstants;
-
-import software.amazon.awssdk.core.exception.SdkClientException;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
-import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
-import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
-import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Exception;
+import com.nexus.dms.utils.ObjectKeys;
+import com.nexus.dms.utils.StagedFile;
 
 @Service
 public class UploaderServiceImpl implements UploaderService {
 
-    private final S3Client s3Client;
+    private final StorageBackend storageBackend;
 
-    private final WebConstants webConstants;
+    private final StoredObjectRepo storedObjectRepo;
 
-    public UploaderServiceImpl(S3Client s3Client, WebConstants webConstants) {
-        this.s3Client = s3Client;
-        this.webConstants = webConstants;
+    private final DocumentRecordRepo documentRecordRepo;
+
+    private final ExecutorService uploadJobExecutor;
+
+    public UploaderServiceImpl(StorageBackend storageBackend, StoredObjectRepo storedObjectRepo,
+            DocumentRecordRepo documentRecordRepo,
+            @Qualifier("uploadJobExecutor") ExecutorService uploadJobExecutor) {
+        this.storageBackend = storageBackend;
+        this.storedObjectRepo = storedObjectRepo;
+        this.documentRecordRepo = documentRecordRepo;
+        this.uploadJobExecutor = uploadJobExecutor;
     }
 
     @Override
-    public ResponseEntity<UploaderResponse> uploadFile(MultipartFile file, String fileName, String folderPrefix)
+    public ResponseEntity<UploaderResponse> uploadFile(StagedFile file, String fileName, String folderPrefix)
             throws IOException {
-        byte[] fileBytes = file.getBytes();
-        int maxRetries = 3;
-        int retryCount = 0;
-        boolean uploadSuccessful = false;
-        // Construct the S3 key with folder prefix
-        String s3Key = folderPrefix != null ? folderPrefix + "/" + fileName : fileName;
-
-        while (!uploadSuccessful) {
-            try {
-                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                        .bucket(CommonConstants.MAIN_BUCKET)
-                        .key(s3Key)
-                        .build();
-
-                s3Client.putObject(putObjectRequest, RequestBody.fromBytes(fileBytes));
-                uploadSuccessful = true;
-            } catch (SdkClientException | S3Exception e) {
-                retryCount++;
-                if (retryCount >= maxRetries) {
-                    throw new IOException("File upload failed after retries", e);
-                }
+        // Content already in storage: add a reference instead of uploading it again
+        Optional<ResponseEntity<UploaderResponse>> deduplicated = referenceExisting(file.getChecksum(),
+                file.getSize(), fileName, folderPrefix);
+        if (deduplicated.isPresent()) {
+            return deduplicated.get();
+        }
+
+        String s3Key = objectKey(file.getChecksum(), fileName, folderPrefix);
+        Optional<String> cid = storageBackend.put(s3Key, file);
+        return completeUpload(file.getChecksum(), file.getSize(), fileName, folderPrefix, s3Key, cid);
+    }
+
+    /**
+     * Upload without holding a thread for the transfer when the backend supports it
+     * The dedup lookup and the StoredObject bookkeeping run on the upload job pool;
+     * a blocking backend stores the file on that pool thread as well
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the upload job pool is saturated
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<UploaderResponse>> uploadFileAsync(StagedFile file, String fileName,
+            String folderPrefix) {
+        return CompletableFuture.supplyAsync(() -> {
+            Optional<ResponseEntity<UploaderResponse>> deduplicated = referenceExisting(file.getChecksum(),
+                    file.getSize(), fileName, folderPrefix);
+            if (deduplicated.isPresent()) {
+                return CompletableFuture.completedFuture(deduplicated.get());
+            }
+            String s3Key = objectKey(file.getChecksum(), fileName, folderPrefix);
+            CompletableFuture<Optional<String>> stored = storageBackend.putAsync(s3Key, file);
+            // Already done when the backend blocked, no need for another hop through the pool
+            return stored.isDone()
+                    ? stored.thenApply(cid -> completeUpload(file.getChecksum(), file.getSize(), fileName,
+                            folderPrefix, s3Key, cid))
+                    : stored.thenApplyAsync(cid -> completeUpload(file.getChecksum(), file.getSize(), fileName,
+                            folderPrefix, s3Key, cid), uploadJobExecutor);
+        }, uploadJobExecutor).thenCompose(upload -> upload);
+    }
+
+    /**
+     * Content already in storage: add a reference instead of uploading it again
+     * The checksum must come from bytes DMS has seen or storage has verified, never from a client claim
+     */
+    private Optional<ResponseEntity<UploaderResponse>> referenceExisting(String checksum, long size, String fileName,
+            String folderPrefix) {
+        Optional<StoredObject> existing = findStoredObject(checksum, size);
+        if (existing.isPresent() && storedObjectRepo.incrementReferences(existing.get().getId()) > 0) {
+            StoredObject storedObject = existing.get();
+            return Optional.of(ResponseEntity.ok(new UploaderResponse(fileName, storedObject.getDmsId(),
+                    storedObject.getDocumentUrl(), CommonConstants.MAIN_BUCKET + "/" + folderPrefix,
+                    storedObject.getObjectKey())));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Construct the S3 key with folder prefix, prefixed by the checksum so
+     * different content under the same file name never shares a key
+     */
+    private String objectKey(String checksum, String fileName, String folderPrefix) {
+        String objectName = checksum + "-" + fileName;
+        return folderPrefix != null ? folderPrefix + "/" + objectName : objectName;
+    }
+
+    private ResponseEntity<UploaderResponse> completeUpload(String checksum, long size, String fileName,
+            String folderPrefix, String s3Key, Optional<String> cid) {
+        // Without a CID in the write response the record is saved unresolved and
+        // the CID resolver fills in dmsId and documentUrl in the background
+        String dmsId = cid.orElse(null);
+        String documentUrl = cid.map(this::getFileUrl).orElse(null);
+        registerStoredObject(checksum, size, s3Key, dmsId, documentUrl);
+
+        UploaderResponse response = new UploaderResponse(fileName, dmsId, documentUrl,
+                CommonConstants.MAIN_BUCKET + "/" + folderPrefix, s3Key);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Signed for the key an upload through DMS would get, so later uploads of the same content
+     * deduplicate against it
+     */
+    @Override
+    public PresignedPut presignUpload(String checksum, long size, String contentType, String fileName,
+            String folderPrefix, Duration ttl) {
+        String contentMd5 = Base64.getEncoder().encodeToString(HexFormat.of().parseHex(checksum));
+        return storageBackend.presignPut(objectKey(checksum, fileName, folderPrefix), contentType, size, contentMd5,
+                ttl);
+    }
+
+    /**
+     * Only object metadata is read, the content never passes through DMS
+     * A multipart ETag is not an MD5, such an object is checked on its size alone
+     * Once verified, content already stored under another key is referenced and the uploaded copy deleted;
+     * the PUT was signed with Content-MD5, so storage has proven its bytes match the checksum
+     */
+    @Override
+    public ResponseEntity<UploaderResponse> registerUpload(String objectKey, String checksum, long size,
+            String fileName, String folderPrefix) throws IOException {
+        ObjectStat stat = storageBackend.stat(objectKey)
+                .orElseThrow(() -> new IllegalArgumentException("No object has been uploaded for " + objectKey));
+
+        boolean eTagMatches = stat.getETag() == null || stat.getETag().contains("-")
+                || stat.getETag().equalsIgnoreCase(checksum);
+        if (stat.getSize() != size || !eTagMatches) {
+            storageBackend.delete(objectKey);
+            throw new FileValidationException(
+                    "Uploaded content does not match",
+                    HttpStatus.BAD_REQUEST,
+                    FileExceptionType.CORRUPTED_FILE,
+                    fileName,
+                    String.format("Expected %d bytes with MD5 %s but storage holds %d bytes with ETag %s.", size,
+                            checksum, stat.getSize(), stat.getETag()),
+                    new Timestamp(System.currentTimeMillis())
+            );
+        }
+
+        Optional<StoredObject> existing = findStoredObject(checksum, size);
+        if (existing.isPresent() && !objectKey.equals(existing.get().getObjectKey())) {
+            Optional<ResponseEntity<UploaderResponse>> deduplicated = referenceExisting(checksum, size, fileName,
+                    folderPrefix);
+            if (deduplicated.isPresent()) {
                 try {
-                    Thread.sleep(1000); // Wait for 1 second before retrying
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new IOException("File upload interrupted", ie);
+                    storageBackend.delete(objectKey);
+                } catch (RuntimeException _) {
+                    // The copy is unreferenced, reconciliation removes it
                 }
+                return deduplicated.get();
             }
         }
+        return completeUpload(checksum, size, fileName, folderPrefix, objectKey, Optional.ofNullable(stat.getCid()));
+    }
+
+    @Override
+    public Optional<String> resolveCid(String objectKey) throws IOException {
+        return storageBackend.resolveCid(objectKey);
+    }
 
-        HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
-                .bucket(CommonConstants.MAIN_BUCKET)
-                .key(s3Key)
-                .build();
+    /**
+     * Look up stored content by checksum (and size, to guard against MD5 collisions)
+     * Documents uploaded before reference counting are adopted from their
+     * DocumentRecord rows on first sight
+     */
+    private Optional<StoredObject> findStoredObject(String checksum, long size) {
+        Optional<StoredObject> storedObject = storedObjectRepo.findByChecksum(checksum)
+                .filter(object -> object.getDocumentSize() == null || object.getDocumentSize() == size);
+        if (storedObject.isPresent()) {
+            return storedObject;
+        }
 
-        HeadObjectResponse headObjectResponse = s3Client.headObject(headObjectRequest);
-        String cid = headObjectResponse.metadata().get("cid");
+        return documentRecordRepo.findFirstByChecksumAndDocumentSizeAndStatusOrderByIdAsc(checksum, size,
+                CommonConstants.STATUS_UPLOADED)
+                .filter(documentRecord -> !ObjectUtils.isEmpty(documentRecord.getDmsId()))
+                .map(documentRecord -> {
+                    StoredObject adopted = new StoredObject();
+                    adopted.setChecksum(documentRecord.getChecksum());
+                    adopted.setDocumentSize(documentRecord.getDocumentSize());
+                    adopted.setObjectKey(ObjectKeys.resolve(documentRecord.getObjectKey(),
+                            documentRecord.getFolderList() != null
+                                    ? documentRecord.getFolderList().getFolderName() : null,
+                            documentRecord.getDocumentName()));
+                    adopted.setDmsId(documentRecord.getDmsId());
+                    adopted.setDocumentUrl(documentRecord.getDocumentUrl());
+                    adopted.setReferenceCount(documentRecordRepo.countByChecksumAndStatus(
+                            documentRecord.getChecksum(), CommonConstants.STATUS_UPLOADED));
+                    return saveStoredObject(adopted);
+                });
+    }
 
-        UploaderResponse response = new UploaderResponse(fileName, cid, getFileUrl(cid),
-                CommonConstants.MAIN_BUCKET + "/" + folderPrefix);
-        return ResponseEntity.ok(response);
+    private void registerStoredObject(String checksum, long size, String s3Key, String dmsId, String documentUrl) {
+        StoredObject storedObject = new StoredObject();
+        storedObject.setChecksum(checksum);
+        storedObject.setDocumentSize(size);
+        storedObject.setObjectKey(s3Key);
+        storedObject.setDmsId(dmsId);
+        storedObject.setDocumentUrl(documentUrl);
+        storedObject.setReferenceCount(1);
+        if (saveStoredObject(storedObject) == null) {
+            // A concurrent upload of the same content registered first, count this one against it
+            boolean referenced = storedObjectRepo.findByChecksum(checksum)
+                    .map(existing -> storedObjectRepo.incrementReferences(existing.getId()) > 0)
+                    .orElse(false);
+            if (!referenced) {
+                // The row is at zero references, its delete may remove the key just written
+                throw new ServiceUnavailableException("Content is being deleted",
+                        "The same content is being deleted, please retry the upload", 5);
+            }
+        }
     }
 
-    private String getFileUrl(String cid) {
-        return String.format("%s/%s", webConstants.getS3Endpoint(), cid);
+    private StoredObject saveStoredObject(StoredObject storedObject) {
+        try {
+            return storedObjectRepo.save(storedObject);
+        } catch (DataIntegrityViolationException _) {
+            return null;
+        }
+    }
+
+    @Override
+    public StoredContent downloadFile(String objectKey, ByteRange range) throws IOException {
+        return storageBackend.get(objectKey, range);
+    }
+
+    /**
+     * Store a small in-memory object such as a generated preview
+     * Callers treat derived objects as best effort
+     */
+    @Override
+    public void uploadBytes(String objectKey, byte[] content, String contentType) throws IOException {
+        storageBackend.putBytes(objectKey, content, contentType);
+    }
+
+    @Override
+    public String getFileUrl(String cid) {
+        return storageBackend.getFileUrl(cid);
     }
 
     // https://ipfs.filebase.io/ipfs/QmVrQV3SjhMH3kScV2Sm2xxfXxpFnKT7sNr85nbkawN365
@@ -91,23 +283,85 @@ public class UploaderServiceImpl implements UploaderService {
         // Extract the CID from the URL
         String cid = dmsId.substring(dmsId.lastIndexOf("/") + 1);
 
-        try {
-            // Check if the object exists in the S3 bucket
-            HeadObjectResponse headObject = s3Client
-                    .headObject(builder -> builder.bucket(CommonConstants.MAIN_BUCKET).key(cid));
+        // Shared content: drop one reference, the object stays while others remain
+        Optional<StoredObject> storedObject = storedObjectRepo.findByDmsId(cid);
+        if (storedObject.isPresent()) {
+            return release(storedObject.get(), cid);
+        }
+
+        return storageBackend.delete(cid);
+    }
 
-            // Use the CID as the key to delete the object from the S3 bucket
-            if (!ObjectUtils.isEmpty(headObject)) {
-                DeleteObjectResponse deleteObject = s3Client
-                        .deleteObject(builder -> builder.bucket(CommonConstants.MAIN_BUCKET).key(cid));
+    @Override
+    public boolean releaseContent(String checksum) {
+        return storedObjectRepo.findByChecksum(checksum)
+                .map(storedObject -> release(storedObject, storedObject.getDmsId()))
+                .orElse(true);
+    }
 
-                return !ObjectUtils.isEmpty(deleteObject);
+    private boolean release(StoredObject storedObject, String cid) {
+        storedObjectRepo.decrementReferences(storedObject.getId());
+        // Read back after the decrement: an object at zero can no longer gain references
+        Optional<StoredObject> current = storedObjectRepo.findById(storedObject.getId());
+        if (current.isEmpty() || current.get().getReferenceCount() > 0) {
+            return true;
+        }
+        return removeUnreferenced(current.get(), cid);
+    }
 
+    /**
+     * Finish deletes whose storage step failed, their rows wait at zero references
+     */
+    @Scheduled(fixedDelayString = "${dms.stored-object.delete-retry-interval-ms:600000}")
+    public void retryPendingDeletesScheduled() {
+        retryPendingDeletes();
+    }
+
+    /**
+     * @return Number of unreferenced objects removed from storage and database
+     */
+    int retryPendingDeletes() {
+        int removed = 0;
+        for (StoredObject storedObject : storedObjectRepo.findByReferenceCountOrderByIdAsc(0,
+                PageRequest.of(0, CommonConstants.MAX_DELETE_OBJECTS_KEYS))) {
+            if (removeUnreferenced(storedObject, storedObject.getDmsId())) {
+                removed++;
             }
-            return false;
-        } catch (S3Exception _) {
+        }
+        return removed;
+    }
+
+    /**
+     * Storage goes first and the row only once that succeeded, so a failure leaves the row at zero
+     * references as the mark of a pending delete instead of an object nobody tracks
+     * Keys already gone count as deleted
+     */
+    private boolean removeUnreferenced(StoredObject storedObject, String cid) {
+        List<String> keys = new ArrayList<>();
+        String key = !ObjectUtils.isEmpty(storedObject.getObjectKey()) ? storedObject.getObjectKey() : cid;
+        if (key != null) {
+            keys.add(key);
+        }
+        if (!ObjectUtils.isEmpty(storedObject.getPreviewKey())) {
+            keys.add(storedObject.getPreviewKey());
+        }
+        if (!storageBackend.deleteAll(keys).isEmpty()) {
             return false;
         }
+        storedObjectRepo.deleteIfUnreferenced(storedObject.getId());
+        return true;
+    }
+
+    /**
+     * Keys already gone count as deleted
+     */
+    @Override
+    public List<String> deleteObjects(List<String> objectKeys) {
+        return storageBackend.deleteAll(objectKeys);
     }
 
+    @Override
+    public StorageListingDto listObjects(String continuationToken, int maxKeys) {
+        return storageBackend.list(continuationToken, maxKeys);
+    }
 }
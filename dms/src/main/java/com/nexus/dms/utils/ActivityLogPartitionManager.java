@@ -0,0 +1,242 @@
+package com.nexus.dms.utils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps an activity log table range partitioned by day on created_on
+ * Hibernate creates the table as a plain one; the first run turns it into a partitioned table and
+ * attaches the existing rows as a single partition ending after the newest of them
+ * Every run creates the partitions for the next days and drops whole partitions that are past
+ * the retention, so old logs never need a row by row delete
+ * A default partition takes the rows of days without their own partition when maintenance has
+ * not run; they move to the day partition once it is created
+ * The audit indexes are declared here rather than on the entity, Hibernate does not manage the
+ * partitioned table
+ * Nothing here is module specific, the table and settings come from ActivityLogConfig
+ */
+@Slf4j
+public class ActivityLogPartitionManager implements SchedulingConfigurer {
+
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final String schema;
+
+    private final String table;
+
+    private final String qualifiedTable;
+
+    private final String defaultPartition;
+
+    private final Pattern dayPartition;
+
+    private final Pattern legacyPartition;
+
+    private final List<String> indexes;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int retentionDays;
+
+    private final int partitionsAhead;
+
+    private final String cron;
+
+    private final Counter maintenanceFailures;
+
+    public ActivityLogPartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, ActivityLogTable logTable, int retentionDays, int partitionsAhead,
+            String cron) {
+        this.schema = logTable.schema();
+        this.table = logTable.name();
+        this.qualifiedTable = logTable.qualifiedName();
+        this.defaultPartition = qualifiedTable + "_default";
+        this.dayPartition = Pattern.compile(table + "_p(\\d{8})");
+        this.legacyPartition = Pattern.compile(table + "_before_(\\d{8})");
+        // Each one ends with the (created_on, id) seek order of the audit query
+        String indexPrefix = "create index if not exists idx_" + schema + "_logs_";
+        this.indexes = List.of(
+                indexPrefix + logTable.ownerColumn() + "_created on " + qualifiedTable
+                        + " (" + logTable.ownerColumn() + ", created_on, id)",
+                indexPrefix + "url_created on " + qualifiedTable + " (request_url, created_on, id)",
+                indexPrefix + "status_created on " + qualifiedTable + " (response_status, created_on, id)");
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = Math.max(1, retentionDays);
+        this.partitionsAhead = Math.max(1, partitionsAhead);
+        this.cron = cron;
+        this.maintenanceFailures = Counter.builder(schema + ".activity_log.partition_failures")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addCronTask(this::maintainScheduled, cron);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainScheduled() {
+        try {
+            maintain(LocalDate.now());
+        } catch (RuntimeException e) {
+            // Retried on the next run, the partitions made ahead and the default one keep inserts working
+            maintenanceFailures.increment();
+            log.error("Partition maintenance of {} failed", qualifiedTable, e);
+        }
+    }
+
+    /**
+     * Convert the table if needed, create the partitions from today on and drop the expired ones
+     * Runs under an advisory lock so several instances do not race on the DDL
+     */
+    public void maintain(LocalDate today) {
+        transactionTemplate.executeWithoutResult(_ -> {
+            jdbcTemplate.execute("select pg_advisory_xact_lock(hashtext('" + qualifiedTable + "'))");
+            String kind = tableKind();
+            if (kind == null) {
+                // Not created by Hibernate yet
+                return;
+            }
+            if (!"p".equals(kind)) {
+                partitionExistingTable(today);
+            }
+            createPartitions(today);
+            indexes.forEach(jdbcTemplate::execute);
+            dropExpiredPartitions(today.minusDays(retentionDays));
+        });
+    }
+
+    private String tableKind() {
+        List<String> kinds = jdbcTemplate.queryForList("select c.relkind::text from pg_class c "
+                + "join pg_namespace n on n.oid = c.relnamespace where n.nspname = ? and c.relname = ?",
+                String.class, schema, table);
+        return kinds.isEmpty() ? null : kinds.getFirst();
+    }
+
+    /**
+     * Swap the plain table for a partitioned one with the same columns
+     * Existing rows stay where they are as the partition covering everything before their last day
+     */
+    private void partitionExistingTable(LocalDate today) {
+        jdbcTemplate.execute("lock table " + qualifiedTable + " in access exclusive mode");
+        jdbcTemplate.update("update " + qualifiedTable + " set created_on = 'epoch' where created_on is null");
+        LocalDate newestDay = jdbcTemplate.queryForObject("select max(created_on)::date from " + qualifiedTable,
+                LocalDate.class);
+        LocalDate legacyEnd = newestDay != null && newestDay.isAfter(today) ? newestDay.plusDays(1)
+                : today.plusDays(1);
+        Long nextId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from " + qualifiedTable,
+                Long.class);
+        String legacy = table + "_before_" + legacyEnd.format(SUFFIX_FORMAT);
+
+        jdbcTemplate.execute("alter table " + qualifiedTable + " rename to " + legacy);
+        jdbcTemplate.execute("alter table " + schema + "." + legacy + " drop constraint if exists " + table + "_pkey");
+        // Partitioned tables take identity columns only from PostgreSQL 17, a sequence default works everywhere
+        jdbcTemplate.execute("alter table " + schema + "." + legacy + " alter column id drop identity if exists, "
+                + "alter column created_on set not null");
+        jdbcTemplate.execute("create sequence if not exists " + qualifiedTable + "_id_seq start with " + nextId);
+        jdbcTemplate.execute("create table " + qualifiedTable + " (like " + schema + "." + legacy
+                + ", primary key (created_on, id)) partition by range (created_on)");
+        jdbcTemplate.execute("alter table " + qualifiedTable + " alter column id set default nextval('"
+                + qualifiedTable + "_id_seq')");
+        jdbcTemplate.execute("alter sequence " + qualifiedTable + "_id_seq owned by " + qualifiedTable + ".id");
+
+        if (nextId == 1) {
+            jdbcTemplate.execute("drop table " + schema + "." + legacy);
+        } else {
+            jdbcTemplate.execute("alter table " + qualifiedTable + " attach partition " + schema + "." + legacy
+                    + " for values from (minvalue) to ('" + legacyEnd + "')");
+        }
+    }
+
+    private void createPartitions(LocalDate today) {
+        jdbcTemplate.execute("create table if not exists " + defaultPartition + " partition of " + qualifiedTable
+                + " default");
+        LocalDate legacyEnd = LocalDate.MIN;
+        Set<LocalDate> existingDays = new HashSet<>();
+        for (String partition : partitions()) {
+            Matcher day = dayPartition.matcher(partition);
+            Matcher legacy = legacyPartition.matcher(partition);
+            if (day.matches()) {
+                existingDays.add(LocalDate.parse(day.group(1), SUFFIX_FORMAT));
+            } else if (legacy.matches()) {
+                legacyEnd = LocalDate.parse(legacy.group(1), SUFFIX_FORMAT);
+            }
+        }
+        for (int i = 0; i <= partitionsAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            if (day.isBefore(legacyEnd) || existingDays.contains(day)) {
+                continue;
+            }
+            createPartition(day);
+        }
+    }
+
+    /**
+     * A new range may not overlap rows in the default partition, those are moved into the day's
+     * table before it is attached
+     */
+    private void createPartition(LocalDate day) {
+        String partition = schema + "." + table + "_p" + day.format(SUFFIX_FORMAT);
+        String range = "created_on >= '" + day + "' and created_on < '" + day.plusDays(1) + "'";
+        String bounds = " for values from ('" + day + "') to ('" + day.plusDays(1) + "')";
+        Boolean stray = jdbcTemplate.queryForObject("select exists (select 1 from " + defaultPartition
+                + " where " + range + ")", Boolean.class);
+        if (!Boolean.TRUE.equals(stray)) {
+            jdbcTemplate.execute("create table if not exists " + partition + " partition of " + qualifiedTable
+                    + bounds);
+            return;
+        }
+        jdbcTemplate.execute("create table " + partition + " (like " + qualifiedTable + " including defaults)");
+        jdbcTemplate.execute("with moved as (delete from " + defaultPartition + " where " + range
+                + " returning *) insert into " + partition + " select * from moved");
+        jdbcTemplate.execute("alter table " + qualifiedTable + " attach partition " + partition + bounds);
+    }
+
+    /**
+     * Drop every partition that only holds rows from before the cutoff day
+     */
+    private void dropExpiredPartitions(LocalDate cutoff) {
+        for (String partition : partitions()) {
+            Matcher day = dayPartition.matcher(partition);
+            Matcher legacy = legacyPartition.matcher(partition);
+            LocalDate end = null;
+            if (day.matches()) {
+                end = LocalDate.parse(day.group(1), SUFFIX_FORMAT).plusDays(1);
+            } else if (legacy.matches()) {
+                end = LocalDate.parse(legacy.group(1), SUFFIX_FORMAT);
+            }
+            if (end != null && !end.isAfter(cutoff)) {
+                jdbcTemplate.execute("drop table if exists " + schema + "." + partition);
+            }
+        }
+        // Days that never got a partition are the only rows deleted one by one
+        jdbcTemplate.update("delete from " + defaultPartition + " where created_on < '" + cutoff + "'");
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("select c.relname::text from pg_inherits i "
+                + "join pg_class c on c.oid = i.inhrelid "
+                + "join pg_class p on p.oid = i.inhparent "
+                + "join pg_namespace n on n.oid = p.relnamespace "
+                + "where n.nspname = ? and p.relname = ?", String.class, schema, table);
+    }
+}
@@ -0,0 +1,75 @@
+package com.nexus.dms.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A single resolved HTTP byte range, both ends inclusive
+ */
+@Getter
+@AllArgsConstructor
+public class ByteRange {
+
+    private final long start;
+
+    private final long end;
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    public String toContentRange(long totalSize) {
+        return String.format("bytes %d-%d/%d", start, end, totalSize);
+    }
+
+    public String toRangeHeader() {
+        return String.format("bytes=%d-%d", start, end);
+    }
+
+    /**
+     * Parse a Range header against the full size of the document
+     * Only single ranges are honoured; multi-range requests get the whole body
+     *
+     * @param rangeHeader The raw Range header, may be null
+     * @param totalSize   Size of the document in bytes
+     * @return The resolved range, or null when the whole document should be sent
+     * @throws IllegalStateException If the range cannot be satisfied
+     */
+    public static ByteRange parse(String rangeHeader, long totalSize) {
+        if (rangeHeader == null || !rangeHeader.startsWith("bytes=") || rangeHeader.contains(",")) {
+            return null;
+        }
+
+        String spec = rangeHeader.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        long start;
+        long end;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    throw new IllegalStateException("Unsatisfiable range " + rangeHeader);
+                }
+                start = Math.max(0, totalSize - suffix);
+                end = totalSize - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? totalSize - 1 : Math.min(Long.parseLong(last), totalSize - 1);
+            }
+        } catch (NumberFormatException _) {
+            return null;
+        }
+
+        if (start >= totalSize || start > end) {
+            throw new IllegalStateException("Unsatisfiable range " + rangeHeader);
+        }
+        return new ByteRange(start, end);
+    }
+}
@@ -10,8 +10,25 @@ public class CommonConstants {
             "image/jpg",
             "image/png");
 
-    public static final long MAX_FILE_SIZE_BYTES = 20 * 1024 * 1024; // 20 MB
-    public static final int MAX_FILE_SIZE_MB = 20; // 20 MB
+    public static final long MAX_FILE_SIZE_BYTES = 100 * 1024 * 1024; // 100 MB
+    public static final int MAX_FILE_SIZE_MB = 100; // 100 MB
+
+    public static final int MAX_BATCH_FILES = 50;
+
+    // Fits the default varchar column of error messages
+    public static final int MAX_ERROR_MESSAGE_LENGTH = 255;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static final long MIN_MULTIPART_PART_SIZE_BYTES = 5 * 1024 * 1024; // S3 minimum part size
+
+    public static final int STAGING_BUFFER_SIZE = 8 * 1024; // 8 KB copy buffer
+    public static final int HEADER_SNIFF_BYTES = 16;
+
+    public static final int PREVIEW_MAX_DIMENSION = 320; // px, longest edge of a preview
+    public static final String PREVIEW_SUFFIX = ".preview.jpg";
+    public static final String PREVIEW_FORMAT = "jpg";
 
     public static final String PDF_VALUE = "application/pdf";
     public static final String JPEG_VALUE = "image/jpeg";
@@ -35,6 +52,20 @@ public class CommonConstants {
     public static final String SUPPLIER = "SUPPLIER";
     public static final String LOGISTICS = "LOGISTICS";
 
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_UPLOADED = "UPLOADED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_DELETED = "DELETED";
+    // Signed for a direct upload, the client has not finalized it yet
+    public static final String STATUS_AWAITING_UPLOAD = "AWAITING_UPLOAD";
+
+    public static final String JOB_QUEUED = "QUEUED";
+    public static final String JOB_RUNNING = "RUNNING";
+    public static final String JOB_COMPLETED = "COMPLETED";
+    public static final String JOB_FAILED = "FAILED";
+
+    public static final int MAX_DELETE_OBJECTS_KEYS = 1000; // S3 DeleteObjects limit per request
+
     public static final String US_EAST_1 = "us-east-1";
     public static final String DEFAULT_USER = "Default User";
 }
@@ -5,7 +5,7 @@ import com.nexus.dms.dto.TokenPayloadDto;
 import com.nexus.dms.exception.FileExceptionType;
 import com.nexus.dms.exception.FileValidationException;
 import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
 import org.springframework.core.ParameterizedTypeReference;
@@ -20,10 +20,14 @@ import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.sql.Timestamp;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 
 @Service
@@ -31,16 +35,19 @@ public class CommonUtils {
 
     private final WebConstants webConstants;
 
-    private String token;
+    private final ServiceTokenManager serviceTokenManager;
 
-    public CommonUtils(WebConstants webConstants) {
+    public CommonUtils(WebConstants webConstants, ServiceTokenManager serviceTokenManager) {
         this.webConstants = webConstants;
+        this.serviceTokenManager = serviceTokenManager;
     }
 
     public String generateChecksum(byte[] fileData) throws NoSuchAlgorithmException {
         MessageDigest md = MessageDigest.getInstance("MD5");
-        byte[] messageDigest = md.digest(fileData);
+        return toHex(md.digest(fileData));
+    }
 
+    private String toHex(byte[] messageDigest) {
         StringBuilder hexString = new StringBuilder();
         for (byte b : messageDigest) {
             String hex = Integer.toHexString(0xff & b);
@@ -65,8 +72,14 @@ public class CommonUtils {
             );
         }
 
+        validateFileMetadata(file.getOriginalFilename(), file.getSize(), file.getContentType());
+    }
+
+    /**
+     * Name, size and declared type checks, usable before any content has arrived
+     */
+    public void validateFileMetadata(String originalFilename, long size, String contentType) {
         // fileNameValidation using regex
-        String originalFilename = file.getOriginalFilename();
         if (originalFilename != null && !originalFilename.matches("^[a-zA-Z0-9._-]+$")) {
             throw new FileValidationException(
                     "Invalid file name",
@@ -80,7 +93,7 @@ public class CommonUtils {
 
         // file size check
 
-        if (file.getSize() > CommonConstants.MAX_FILE_SIZE_BYTES) {
+        if (size > CommonConstants.MAX_FILE_SIZE_BYTES) {
             throw new FileValidationException(
                     "File size exceeded",
                     HttpStatus.BAD_REQUEST,
@@ -92,9 +105,8 @@ public class CommonUtils {
             );
         }
 
-        // file type check
-        String contentType = file.getContentType();
-        if (!CommonConstants.ALLOWED_FILE_TYPES.contains(contentType)) {
+        // file type check, a generic declared type is left to content sniffing while staging
+        if (!ContentSniffer.isGeneric(contentType) && !CommonConstants.ALLOWED_FILE_TYPES.contains(contentType)) {
             throw new FileValidationException(
                     "Unsupported file type",
                     HttpStatus.BAD_REQUEST,
@@ -106,30 +118,183 @@ public class CommonUtils {
 
         }
 
-        // password protected check for PDF files
-        if (CommonConstants.PDF_VALUE.equals(contentType)) {
-            try (PDDocument pdDocument = Loader.loadPDF(new RandomAccessReadBuffer(file.getBytes()))) {
-
-                if (pdDocument.isEncrypted()) {
-                    throw new FileValidationException(
-                            "Password protected PDF",
-                            HttpStatus.BAD_REQUEST,
-                            FileExceptionType.UNSUPPORTED_TYPE,
-                            originalFilename,
-                            "The uploaded PDF file is password protected. Please upload an unprotected PDF file.",
-                            new Timestamp(System.currentTimeMillis())
-                    );
+    }
+
+    /**
+     * Spool the multipart stream to a local file in a single pass
+     * The MD5 checksum and the leading header bytes are captured while copying
+     * through a fixed size buffer, so heap usage does not grow with file size
+     * The content type is sniffed from the first bytes and the copy is abandoned
+     * right away if it is unsupported or contradicts the declared type
+     *
+     * @param file The uploaded file
+     * @return The staged file, to be closed by the caller once storage is done
+     * @throws IOException If the stream cannot be read or the spool file cannot be written
+     */
+    public StagedFile stageFile(MultipartFile file) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Error generating checksum", e);
+        }
+
+        Path stagingPath = ObjectUtils.isEmpty(webConstants.getStagingDir())
+                ? Files.createTempFile("dms-", ".upload")
+                : Files.createTempFile(Files.createDirectories(Path.of(webConstants.getStagingDir())), "dms-", ".upload");
+
+        byte[] header = new byte[CommonConstants.HEADER_SNIFF_BYTES];
+        int headerLength = 0;
+        long size = 0;
+        String detectedType = null;
+        byte[] buffer = new byte[CommonConstants.STAGING_BUFFER_SIZE];
+        try (InputStream in = file.getInputStream();
+             OutputStream out = Files.newOutputStream(stagingPath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (headerLength < header.length) {
+                    int missing = Math.min(header.length - headerLength, read);
+                    System.arraycopy(buffer, 0, header, headerLength, missing);
+                    headerLength += missing;
+                }
+                // Sniffed as soon as the header is in, a mislabeled upload stops here
+                if (detectedType == null && headerLength == header.length) {
+                    detectedType = detectContentType(file.getOriginalFilename(), file.getContentType(), header,
+                            headerLength);
                 }
+                md.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+            }
+            if (detectedType == null) {
+                detectedType = detectContentType(file.getOriginalFilename(), file.getContentType(), header,
+                        headerLength);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stagingPath);
+            throw e;
+        }
 
-            } catch (InvalidPasswordException e) {
-                throw new FileValidationException(
-                        "Password protected PDF",
-                        HttpStatus.BAD_REQUEST,
-                        FileExceptionType.UNSUPPORTED_TYPE,
-                        originalFilename,
-                        e.getMessage(),
-                        new Timestamp(System.currentTimeMillis())
-                );
+        return new StagedFile(stagingPath, file.getOriginalFilename(), detectedType, size,
+                toHex(md.digest()), Arrays.copyOf(header, headerLength));
+    }
+
+    /**
+     * Wrap a file that was already spooled elsewhere, e.g. assembled from upload chunks
+     * Only the header is read to sniff the content type; the caller supplies size and checksum
+     *
+     * @param path The spooled file, owned by the returned staged file
+     * @return The staged file, to be closed by the caller once storage is done
+     */
+    public StagedFile adoptSpooledFile(Path path, String originalFilename, String declaredType, long size,
+            String checksum) throws IOException {
+        byte[] header;
+        try (InputStream in = Files.newInputStream(path)) {
+            header = readHeader(in);
+        }
+        String detectedType = detectContentType(originalFilename, declaredType, header, header.length);
+        return new StagedFile(path, originalFilename, detectedType, size, checksum, header);
+    }
+
+    /**
+     * Sniff content that is only reachable as a stream, e.g. an object uploaded straight to storage
+     *
+     * @param in Positioned at the start of the content, only the header is read
+     * @return The detected MIME type
+     */
+    public String sniffContentType(String originalFilename, String declaredType, InputStream in) throws IOException {
+        byte[] header = readHeader(in);
+        return detectContentType(originalFilename, declaredType, header, header.length);
+    }
+
+    private byte[] readHeader(InputStream in) throws IOException {
+        byte[] header = new byte[CommonConstants.HEADER_SNIFF_BYTES];
+        int headerLength = 0;
+        int read;
+        while (headerLength < header.length && (read = in.read(header, headerLength,
+                header.length - headerLength)) != -1) {
+            headerLength += read;
+        }
+        return Arrays.copyOf(header, headerLength);
+    }
+
+    /**
+     * MD5 of a spooled file, for content that was not hashed while it arrived
+     */
+    public String checksumOf(Path path) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Error generating checksum", e);
+        }
+        byte[] buffer = new byte[CommonConstants.STAGING_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                md.update(buffer, 0, read);
+            }
+        }
+        return toHex(md.digest());
+    }
+
+    public String toHexDigest(MessageDigest md) {
+        return toHex(md.digest());
+    }
+
+    /**
+     * Detect the type from the magic bytes and check it against the declared type
+     *
+     * @return The detected MIME type, which replaces the client supplied one
+     */
+    private String detectContentType(String originalFilename, String declaredType, byte[] header,
+            int headerLength) {
+        String detectedType = ContentSniffer.detect(header, headerLength);
+        if (detectedType == null) {
+            throw new FileValidationException(
+                    "Unsupported file type",
+                    HttpStatus.BAD_REQUEST,
+                    FileExceptionType.UNSUPPORTED_TYPE,
+                    originalFilename,
+                    "The uploaded file content is not a PDF, JPEG or PNG document.",
+                    new Timestamp(System.currentTimeMillis())
+            );
+        }
+        if (!ContentSniffer.matchesDeclared(declaredType, detectedType)) {
+            throw new FileValidationException(
+                    "File content does not match its type",
+                    HttpStatus.BAD_REQUEST,
+                    FileExceptionType.INVALID_FORMAT,
+                    originalFilename,
+                    String.format("The uploaded file was declared as %s but its content is %s.",
+                            declaredType, detectedType),
+                    new Timestamp(System.currentTimeMillis())
+            );
+        }
+        return detectedType;
+    }
+
+    /**
+     * Content checks that need the file body, run against the staged copy
+     * Encryption is read from the PDF trailer first; a full parse only runs for
+     * layouts the scanner cannot decide, and then with scratch-file buffers
+     *
+     * @param stagedFile The staged upload
+     */
+    public void validateContent(StagedFile stagedFile) {
+        String originalFilename = stagedFile.getOriginalFilename();
+
+        // password protected check for PDF files
+        if (CommonConstants.PDF_VALUE.equals(stagedFile.getContentType())) {
+            try {
+                PdfTrailerScanner.Encryption encryption = PdfTrailerScanner.scan(stagedFile.getPath());
+                if (encryption == PdfTrailerScanner.Encryption.ENCRYPTED) {
+                    throw passwordProtected(originalFilename,
+                            "The uploaded PDF file is password protected. Please upload an unprotected PDF file.");
+                }
+                if (encryption == PdfTrailerScanner.Encryption.UNKNOWN) {
+                    validateByFullParse(stagedFile);
+                }
             } catch (IOException e) {
                 throw new FileValidationException(
                         "Error reading PDF file",
@@ -141,7 +306,31 @@ public class CommonUtils {
                 );
             }
         }
+    }
 
+    private void validateByFullParse(StagedFile stagedFile) throws IOException {
+        try (PDDocument pdDocument = Loader.loadPDF(stagedFile.getPath().toFile(),
+                IOUtils.createTempFileOnlyStreamCache())) {
+
+            if (pdDocument.isEncrypted()) {
+                throw passwordProtected(stagedFile.getOriginalFilename(),
+                        "The uploaded PDF file is password protected. Please upload an unprotected PDF file.");
+            }
+
+        } catch (InvalidPasswordException e) {
+            throw passwordProtected(stagedFile.getOriginalFilename(), e.getMessage());
+        }
+    }
+
+    private FileValidationException passwordProtected(String originalFilename, String details) {
+        return new FileValidationException(
+                "Password protected PDF",
+                HttpStatus.BAD_REQUEST,
+                FileExceptionType.UNSUPPORTED_TYPE,
+                originalFilename,
+                details,
+                new Timestamp(System.currentTimeMillis())
+        );
     }
 
     public boolean validateToken(String token) {
@@ -166,36 +355,18 @@ public class CommonUtils {
         }
     }
 
+    /**
+     * Service token for calls to IAM, served from memory and refreshed ahead of expiry
+     */
     public String getToken() {
-        if (this.token == null || !validateToken(this.token)) {
-            this.token = generateToken();
-        }
-        return this.token;
+        return serviceTokenManager.getToken();
     }
 
-    public String generateToken() {
-        String authUrl = webConstants.getGenerateTokenUrl();
-        Map<String, String> body = new HashMap<>();
-        body.put("email", webConstants.getGenericUserId());
-        body.put("password", webConstants.getGenericPassword());
-        try {
-            RestClient restClient = RestClient.create();
-            ResponseEntity<Map<String, String>> response = restClient.post().uri(authUrl)
-                    .body(body)
-                    .retrieve()
-                    .toEntity(new ParameterizedTypeReference<Map<String, String>>() {
-                    });
-            // extract token from response
-            Map<String, String> responseBody = response.getBody();
-            if (response.getStatusCode().is2xxSuccessful() && responseBody != null && responseBody.containsKey("accessToken")) {
-                return "Bearer " + responseBody.get("accessToken");
-            } else {
-                return null;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+    /**
+     * Called when IAM answers 401 to a service token it issued
+     */
+    public void invalidateToken(String rejectedToken) {
+        serviceTokenManager.invalidate(rejectedToken);
     }
 
     public TokenPayloadDto decryptToken(String token) {
@@ -0,0 +1,67 @@
+package com.nexus.dms.utils;
+
+/**
+ * Detects the supported document types from their leading magic bytes
+ * The client supplied Content-Type is only a hint; the type stored and used
+ * for validation is the one detected here
+ */
+public final class ContentSniffer {
+
+    private static final byte[] PDF_SIGNATURE = {'%', 'P', 'D', 'F', '-'};
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * Declared types that carry no information, sniffing alone decides for these
+     */
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    private ContentSniffer() {
+    }
+
+    /**
+     * @param header The leading bytes of the file
+     * @param length Number of valid bytes in header
+     * @return The detected MIME type, or null if the content is not a supported type
+     */
+    public static String detect(byte[] header, int length) {
+        if (startsWith(header, length, PDF_SIGNATURE)) {
+            return CommonConstants.PDF_VALUE;
+        }
+        if (startsWith(header, length, PNG_SIGNATURE)) {
+            return CommonConstants.PNG_VALUE;
+        }
+        if (startsWith(header, length, JPEG_SIGNATURE)) {
+            return CommonConstants.JPEG_VALUE;
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the declared type is generic or names the same format as the detected one
+     */
+    public static boolean matchesDeclared(String declaredType, String detectedType) {
+        return isGeneric(declaredType) || normalize(declaredType).equals(detectedType);
+    }
+
+    public static boolean isGeneric(String declaredType) {
+        return declaredType == null || declaredType.isBlank() || OCTET_STREAM.equalsIgnoreCase(declaredType.trim());
+    }
+
+    private static String normalize(String mimeType) {
+        String lowerCase = mimeType.trim().toLowerCase();
+        return CommonConstants.JPG_VALUE.equals(lowerCase) ? CommonConstants.JPEG_VALUE : lowerCase;
+    }
+
+    private static boolean startsWith(byte[] header, int length, byte[] signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (header[i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
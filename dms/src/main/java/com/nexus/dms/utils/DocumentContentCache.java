@@ -0,0 +1,200 @@
+package com.nexus.dms.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local disk cache for hot document content, keyed by checksum
+ * Entries are plain files in the cache directory, bounded by total bytes and
+ * evicted least recently used first; hits are served straight from disk
+ */
+@Component
+public class DocumentContentCache {
+
+    private final Path cacheDir;
+
+    private final long maxBytes;
+
+    private final boolean enabled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final AtomicLong currentBytes = new AtomicLong();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    public DocumentContentCache(@Value("${dms.cache.dir:}") String cacheDir,
+                                @Value("${dms.cache.max-bytes:1073741824}") long maxBytes,
+                                @Value("${dms.cache.enabled:true}") boolean enabled,
+                                MeterRegistry meterRegistry) throws IOException {
+        this.cacheDir = Files.createDirectories(ObjectUtils.isEmpty(cacheDir)
+                ? Path.of(System.getProperty("java.io.tmpdir"), "dms-cache")
+                : Path.of(cacheDir));
+        this.maxBytes = maxBytes;
+        this.enabled = enabled && maxBytes > 0;
+
+        this.hits = Counter.builder("dms.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("dms.cache.misses").register(meterRegistry);
+        this.evictions = Counter.builder("dms.cache.evictions").register(meterRegistry);
+        Gauge.builder("dms.cache.bytes", currentBytes, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("dms.cache.entries", entries, Map::size).register(meterRegistry);
+        Gauge.builder("dms.cache.hit.ratio", this, DocumentContentCache::hitRatio).register(meterRegistry);
+
+        loadExistingEntries();
+    }
+
+    public boolean isCacheable(long size) {
+        // A single document may not take more than a quarter of the cache
+        return enabled && size > 0 && size <= maxBytes / 4;
+    }
+
+    /**
+     * @param key The content checksum
+     * @return The cached file, marked as most recently used, or empty on a miss
+     */
+    public Optional<Path> lookup(String key) {
+        if (!enabled || ObjectUtils.isEmpty(key)) {
+            return Optional.empty();
+        }
+        lock.lock();
+        try {
+            if (entries.get(key) != null) {
+                Path path = cacheDir.resolve(key);
+                if (Files.exists(path)) {
+                    hits.increment();
+                    return Optional.of(path);
+                }
+                currentBytes.addAndGet(-entries.remove(key));
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(cacheDir, "fill-", ".tmp");
+    }
+
+    /**
+     * Publish a fully written temp file under its key and evict down to the byte limit
+     * A temp file whose size does not match the expected size is discarded
+     */
+    public void commit(String key, Path tempFile, long expectedSize) throws IOException {
+        long size = Files.size(tempFile);
+        if (!enabled || size != expectedSize) {
+            discard(tempFile);
+            return;
+        }
+        Files.move(tempFile, cacheDir.resolve(key), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+
+        List<String> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Long previous = entries.put(key, size);
+            currentBytes.addAndGet(size - (previous != null ? previous : 0L));
+
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (currentBytes.get() > maxBytes && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                iterator.remove();
+                currentBytes.addAndGet(-eldest.getValue());
+                evicted.add(eldest.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Files are removed outside the lock; readers holding them open keep reading
+        for (String evictedKey : evicted) {
+            Files.deleteIfExists(cacheDir.resolve(evictedKey));
+            evictions.increment();
+        }
+    }
+
+    public void discard(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException _) {
+            tempFile.toFile().deleteOnExit();
+        }
+    }
+
+    public long getCurrentBytes() {
+        return currentBytes.get();
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    /**
+     * Rebuild the index from files left by a previous run, oldest access first
+     */
+    private void loadExistingEntries() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDir)) {
+            for (Path path : stream) {
+                if (path.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(path);
+                } else if (Files.isRegularFile(path)) {
+                    files.add(path);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(DocumentContentCache::lastModified));
+
+        lock.lock();
+        try {
+            for (Path path : files) {
+                long size = Files.size(path);
+                entries.put(path.getFileName().toString(), size);
+                currentBytes.addAndGet(size);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException _) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
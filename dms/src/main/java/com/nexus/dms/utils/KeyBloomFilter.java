@@ -0,0 +1,70 @@
+package com.nexus.dms.utils;
+
+/**
+ * Fixed size Bloom filter over object keys
+ * Memory is set by the expected number of keys and false positive rate, not by how
+ * many keys are actually added; a key that was added is always reported as present,
+ * a key that was not is reported absent except for the false positive rate
+ */
+public final class KeyBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    public KeyBloomFilter(long expectedKeys, double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        double rate = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-keys * Math.log(rate) / (LN2 * LN2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8L, Math.max(1, (bits + 63) >>> 6));
+        this.words = new long[wordCount];
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / keys * LN2));
+    }
+
+    public void put(String key) {
+        long hash1 = hash(key, 0xcbf29ce484222325L);
+        long hash2 = hash(key, 0x84222325cbf29ce4L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash1 = hash(key, 0xcbf29ce484222325L);
+        long hash2 = hash(key, 0x84222325cbf29ce4L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 64 bit mixer
+     */
+    private static long hash(String key, long seed) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
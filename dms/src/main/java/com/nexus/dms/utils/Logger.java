@@ -1,29 +1,28 @@
 package com.nexus.dms.utils;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import java.sql.Timestamp;
+
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nexus.dms.entities.DmsLogs;
 import com.nexus.dms.exception.ServiceLevelException;
-import com.nexus.dms.repository.DmsLogsRepo;
 
 @Service
 public class Logger {
 
-    private final DmsLogsRepo dmsLogsRepo;
+    private final ActivityLogSink activityLogSink;
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    public Logger(DmsLogsRepo dmsLogsRepo) {
-        this.dmsLogsRepo = dmsLogsRepo;
+    public Logger(ActivityLogSink activityLogSink) {
+        this.activityLogSink = activityLogSink;
     }
 
     /**
-     * Save logs to database
+     * Queue logs for the background writer, see {@link ActivityLogSink}
      * Handles both request and response objects
      * Serializes objects to JSON if they're not already serialized
      *
@@ -38,19 +37,10 @@ public class Logger {
     public void saveLogs(String requestUrl, HttpMethod httpMethod, HttpStatus httpStatus, Object request,
             Object response, Long documentRecordId) throws JsonProcessingException {
         try {
-            DmsLogs dmsLogs = new DmsLogs();
-            dmsLogs.setRequestUrl(requestUrl);
-            dmsLogs.setHttpMethod(httpMethod.name());
-            dmsLogs.setResponseStatus(httpStatus.value());
-
-            // Serialize request body (handle both objects and already-serialized strings)
-            dmsLogs.setRequest(serializeObject(request));
-
-            // Serialize response body (handle both objects and already-serialized strings)
-            dmsLogs.setResponse(serializeObject(response));
-
-            dmsLogs.setDocumentRecordId(documentRecordId);
-            dmsLogsRepo.save(dmsLogs);
+            // Serialized here, the request objects may change once the call returns
+            activityLogSink.submit(new ActivityLogSink.Entry(requestUrl, httpMethod.name(), httpStatus.value(),
+                    serializeObject(request), serializeObject(response), documentRecordId,
+                    new Timestamp(System.currentTimeMillis())));
         } catch (Exception e) {
             throw new ServiceLevelException("Logger", "Failed to save logs", "saveLogs", e.getClass().getSimpleName(),
                     e.getLocalizedMessage());
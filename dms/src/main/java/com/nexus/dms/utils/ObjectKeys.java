@@ -0,0 +1,26 @@
+package com.nexus.dms.utils;
+
+/**
+ * The storage key of a document record
+ * Records stored before object keys were persisted were uploaded under folder/fileName; their
+ * CID is not a storage key
+ */
+public final class ObjectKeys {
+
+    private ObjectKeys() {
+    }
+
+    /**
+     * @param objectKey The persisted key, null for records stored before it existed
+     * @param folderName Folder of the record, may be null
+     */
+    public static String resolve(String objectKey, String folderName, String documentName) {
+        if (objectKey != null && !objectKey.isEmpty()) {
+            return objectKey;
+        }
+        if (documentName == null) {
+            return null;
+        }
+        return folderName != null ? folderName + "/" + documentName : documentName;
+    }
+}
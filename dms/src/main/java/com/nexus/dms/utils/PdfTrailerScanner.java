@@ -0,0 +1,166 @@
+package com.nexus.dms.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Answers "is this PDF encrypted" from the trailer alone, without parsing the document
+ * An encrypted PDF must name its encryption dictionary in the trailer (or the
+ * cross-reference stream dictionary that replaces it), and those are never
+ * compressed or encrypted, so a few kilobytes read from the end of the file
+ * are enough in the common case
+ * Layouts the scanner cannot read with confidence report UNKNOWN and the
+ * caller falls back to a full parse
+ */
+public final class PdfTrailerScanner {
+
+    public enum Encryption {
+        ENCRYPTED,
+        NOT_ENCRYPTED,
+        UNKNOWN
+    }
+
+    private static final int HEAD_WINDOW = 1024;
+    private static final int TAIL_WINDOW = 1024;
+    private static final int MAX_TAIL_WINDOW = 64 * 1024;
+    private static final int XREF_WINDOW = 4 * 1024;
+    private static final int LINEARIZED_WINDOW = 64 * 1024;
+
+    private static final Pattern ENCRYPT_KEY = Pattern.compile("/Encrypt(?![A-Za-z0-9])");
+    private static final Pattern OBJECT_HEADER = Pattern.compile("^\\s*\\d+\\s+\\d+\\s+obj");
+
+    private PdfTrailerScanner() {
+    }
+
+    public static Encryption scan(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            String head = read(channel, 0, HEAD_WINDOW);
+            if (!head.contains("%PDF-")) {
+                return Encryption.UNKNOWN;
+            }
+
+            Encryption encryption = scanLastTrailer(channel, size);
+            if (encryption != Encryption.NOT_ENCRYPTED || !head.contains("/Linearized")) {
+                return encryption;
+            }
+            // Linearized files keep the complete trailer with the first page section
+            return scanFirstPageTrailer(channel);
+        }
+    }
+
+    /**
+     * Read backwards from the end until the last startxref is in view, growing the
+     * window only for files with trailing garbage
+     */
+    private static Encryption scanLastTrailer(FileChannel channel, long size) throws IOException {
+        int window = TAIL_WINDOW;
+        while (true) {
+            long start = Math.max(0, size - window);
+            String tail = read(channel, start, (int) (size - start));
+            int startxref = tail.lastIndexOf("startxref");
+            if (startxref >= 0) {
+                int trailer = tail.lastIndexOf("trailer", startxref);
+                int previousStartxref = startxref > 0 ? tail.lastIndexOf("startxref", startxref - 1) : -1;
+                if (trailer > previousStartxref) {
+                    return encryptionOf(tail.substring(trailer, startxref));
+                }
+                long offset = parseOffset(tail, startxref + "startxref".length());
+                if (offset < 0 || offset >= size) {
+                    return Encryption.UNKNOWN;
+                }
+                return scanXrefSection(channel, offset);
+            }
+            if (start == 0 || window >= MAX_TAIL_WINDOW) {
+                return Encryption.UNKNOWN;
+            }
+            window = Math.min(window * 8, MAX_TAIL_WINDOW);
+        }
+    }
+
+    /**
+     * Inspect the section startxref points at when the trailer was not in the tail window
+     * Either a classic table whose trailer follows it, or a cross-reference stream
+     */
+    private static Encryption scanXrefSection(FileChannel channel, long offset) throws IOException {
+        String section = read(channel, offset, XREF_WINDOW);
+        if (section.startsWith("xref")) {
+            int trailer = section.indexOf("trailer");
+            int startxref = trailer >= 0 ? section.indexOf("startxref", trailer) : -1;
+            return startxref >= 0 ? encryptionOf(section.substring(trailer, startxref)) : Encryption.UNKNOWN;
+        }
+        return encryptionOfXrefStream(section, 0);
+    }
+
+    private static Encryption scanFirstPageTrailer(FileChannel channel) throws IOException {
+        String head = read(channel, 0, LINEARIZED_WINDOW);
+        int startxref = head.indexOf("startxref");
+        if (startxref < 0) {
+            return Encryption.UNKNOWN;
+        }
+        int trailer = head.lastIndexOf("trailer", startxref);
+        if (trailer >= 0) {
+            return encryptionOf(head.substring(trailer, startxref));
+        }
+        int xrefStream = head.indexOf("/XRef");
+        if (xrefStream < 0 || xrefStream > startxref) {
+            return Encryption.UNKNOWN;
+        }
+        int objectStart = head.lastIndexOf("endobj", xrefStream);
+        return encryptionOfXrefStream(head, objectStart >= 0 ? objectStart + "endobj".length() : 0);
+    }
+
+    /**
+     * The dictionary of a cross-reference stream object ends where its stream begins
+     */
+    private static Encryption encryptionOfXrefStream(String text, int objectStart) {
+        String object = text.substring(objectStart);
+        int stream = object.indexOf("stream");
+        if (!OBJECT_HEADER.matcher(object).find() || stream < 0) {
+            return Encryption.UNKNOWN;
+        }
+        String dictionary = object.substring(0, stream);
+        if (!dictionary.contains("/XRef")) {
+            return Encryption.UNKNOWN;
+        }
+        return encryptionOf(dictionary);
+    }
+
+    private static Encryption encryptionOf(String dictionary) {
+        return ENCRYPT_KEY.matcher(dictionary).find() ? Encryption.ENCRYPTED : Encryption.NOT_ENCRYPTED;
+    }
+
+    private static long parseOffset(String text, int from) {
+        int index = from;
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        int digitsStart = index;
+        while (index < text.length() && Character.isDigit(text.charAt(index))) {
+            index++;
+        }
+        if (index == digitsStart || index - digitsStart > 18) {
+            return -1;
+        }
+        return Long.parseLong(text.substring(digitsStart, index));
+    }
+
+    /**
+     * Positional read of a small window, decoded 1:1 so string offsets match byte offsets
+     */
+    private static String read(FileChannel channel, long position, int length) throws IOException {
+        int capacity = (int) Math.max(0, Math.min(length, channel.size() - position));
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
 import com.nexus.dms.entities.DmsLogs;
 import com.nexus.dms.repository.DmsLogsRepo;
@@ -40,6 +41,9 @@ public class RestService {
             } else {
                 responseEntity = request.body(payload).retrieve().toEntity(Object.class);
             }
+        } catch (RestClientResponseException e) {
+            // Keep the remote status, callers react to a 401 differently than to a failure
+            responseEntity = new ResponseEntity<>(e.getResponseBodyAsString(), e.getStatusCode());
         } catch (Exception e) {
             responseEntity = new ResponseEntity<>("Exception occurred during REST call: " + e.getMessage(),
                     HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,185 @@
+package com.nexus.dms.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.client.RestClient;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Holds the service token DMS uses for calls to IAM
+ * Expiry is read from the token itself, so handing out a token costs no round trip;
+ * a scheduled check logs in again shortly before expiry and only one thread ever
+ * refreshes while the others keep using the current token
+ * A token IAM rejects before its expiry is dropped by the caller and fetched again
+ */
+@Slf4j
+@Component
+public class ServiceTokenManager {
+
+    private record ServiceToken(String value, long expiresAt) {
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final WebConstants webConstants;
+
+    private final RestClient restClient;
+
+    private final long refreshAheadMs;
+
+    private final long defaultTtlMs;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile ServiceToken current;
+
+    public ServiceTokenManager(WebConstants webConstants,
+                               @Value("${dms.service-token.refresh-ahead-ms:60000}") long refreshAheadMs,
+                               @Value("${dms.service-token.default-ttl-ms:300000}") long defaultTtlMs) {
+        this.webConstants = webConstants;
+        this.restClient = RestClient.create();
+        this.refreshAheadMs = refreshAheadMs;
+        this.defaultTtlMs = defaultTtlMs;
+    }
+
+    /**
+     * @return The current "Bearer ..." token, or null if IAM cannot issue one
+     */
+    public String getToken() {
+        ServiceToken token = current;
+        if (isUsable(token)) {
+            return token.value();
+        }
+
+        // Expired or never fetched: one caller logs in, the others wait for its result
+        refreshLock.lock();
+        try {
+            token = current;
+            if (!isUsable(token)) {
+                token = login();
+                if (token != null) {
+                    current = token;
+                }
+            }
+            return token != null ? token.value() : null;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Log in again ahead of expiry so callers never see an expired token
+     * Skipped while another thread is already refreshing
+     */
+    @Scheduled(fixedDelayString = "${dms.service-token.check-interval-ms:15000}")
+    public void refreshIfDue() {
+        ServiceToken token = current;
+        if (token == null || token.expiresAt() - System.currentTimeMillis() > refreshAheadMs) {
+            return;
+        }
+        if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            if (current == token) {
+                ServiceToken refreshed = login();
+                // On failure the current token stays in use until it expires
+                if (refreshed != null) {
+                    current = refreshed;
+                }
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Drop a token IAM rejected, the next getToken logs in again
+     * A token another caller has already replaced is kept
+     */
+    public void invalidate(String rejectedToken) {
+        ServiceToken token = current;
+        if (token != null && token.value().equals(rejectedToken)) {
+            refreshLock.lock();
+            try {
+                if (current == token) {
+                    current = null;
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    private boolean isUsable(ServiceToken token) {
+        return token != null && token.expiresAt() > System.currentTimeMillis();
+    }
+
+    private ServiceToken login() {
+        Map<String, String> body = new HashMap<>();
+        body.put("email", webConstants.getGenericUserId());
+        body.put("password", webConstants.getGenericPassword());
+        try {
+            ResponseEntity<Map<String, Object>> response = restClient.post().uri(webConstants.getGenerateTokenUrl())
+                    .body(body)
+                    .retrieve()
+                    .toEntity(new ParameterizedTypeReference<Map<String, Object>>() {
+                    });
+            Map<String, Object> responseBody = response.getBody();
+            if (!response.getStatusCode().is2xxSuccessful() || responseBody == null
+                    || ObjectUtils.isEmpty(responseBody.get("accessToken"))) {
+                return null;
+            }
+
+            String accessToken = responseBody.get("accessToken").toString();
+            long issuedAt = System.currentTimeMillis();
+            long expiresAt = expiryOf(accessToken);
+            if (expiresAt <= 0 && responseBody.get("expiresIn") != null) {
+                expiresAt = issuedAt + TimeUnit.SECONDS.toMillis(Long.parseLong(responseBody.get("expiresIn").toString()));
+            }
+            if (expiresAt <= issuedAt) {
+                // Unknown lifetime: kept for the default TTL, a rejection drops it earlier
+                expiresAt = issuedAt + defaultTtlMs;
+            }
+            return new ServiceToken("Bearer " + accessToken, expiresAt);
+        } catch (Exception e) {
+            log.warn("Service token login to IAM failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the exp claim of a JWT without verifying the signature
+     * The token comes straight from IAM's login response, DMS only needs to know when to replace it
+     *
+     * @return Expiry in epoch millis, or 0 if the token carries none
+     */
+    static long expiryOf(String jwt) {
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return 0;
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+            JsonNode exp = OBJECT_MAPPER.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+            return exp != null && exp.isNumber() ? TimeUnit.SECONDS.toMillis(exp.asLong()) : 0;
+        } catch (IllegalArgumentException | JacksonException _) {
+            return 0;
+        }
+    }
+}
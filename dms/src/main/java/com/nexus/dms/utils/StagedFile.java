@@ -0,0 +1,76 @@
+package com.nexus.dms.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An uploaded file spooled to local disk by {@link CommonUtils#stageFile}
+ * The multipart stream is read exactly once; checksum, size and the leading
+ * header bytes are captured while copying so later stages never touch the
+ * request body again
+ * Closing the staged file deletes the spool file (best effort)
+ */
+@Getter
+@AllArgsConstructor
+public class StagedFile implements AutoCloseable {
+
+    private final Path path;
+
+    private final String originalFilename;
+
+    private final String contentType;
+
+    private final long size;
+
+    private final String checksum;
+
+    private final byte[] header;
+
+    /**
+     * Transfer ownership of the spool file to a new staged file by renaming it
+     * Closing this instance afterwards is a no-op, so a request can hand the
+     * file to a background job without copying it
+     *
+     * @return A staged file owning the renamed spool file
+     * @throws IOException If the spool file cannot be renamed
+     */
+    public StagedFile handOff() throws IOException {
+        Path target = Files.move(path, path.resolveSibling(path.getFileName() + ".job"),
+                StandardCopyOption.ATOMIC_MOVE);
+        return new StagedFile(target, originalFilename, contentType, size, checksum, header);
+    }
+
+    /**
+     * Give a background job its own name for the spool file
+     * A hard link is used where the filesystem supports it so the content is
+     * not copied; either file can be closed independently of the other
+     *
+     * @param suffix Suffix appended to the spool file name
+     * @return A staged file owning the new name
+     * @throws IOException If neither a link nor a copy can be created
+     */
+    public StagedFile share(String suffix) throws IOException {
+        Path target = path.resolveSibling(path.getFileName() + suffix);
+        try {
+            Files.createLink(target, path);
+        } catch (UnsupportedOperationException | IOException _) {
+            Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new StagedFile(target, originalFilename, contentType, size, checksum, header);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException _) {
+            // Best effort, the upload itself already completed
+            path.toFile().deleteOnExit();
+        }
+    }
+}
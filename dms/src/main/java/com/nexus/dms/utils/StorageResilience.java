@@ -0,0 +1,336 @@
+package com.nexus.dms.utils;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.nexus.dms.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/**
+ * Guards every storage call with a bulkhead, a circuit breaker and classified retries
+ * Only transient failures (network errors, timeouts, throttling, 5xx) are retried,
+ * with exponential backoff and jitter; client errors such as a missing key fail
+ * immediately and count as a healthy backend
+ * While the circuit is open, or when all bulkhead permits are taken, calls fail
+ * fast with ServiceUnavailableException instead of parking request threads
+ */
+@Component
+public class StorageResilience {
+
+    private enum CircuitState {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final int maxAttempts;
+
+    private final long baseBackoffMs;
+
+    private final long maxBackoffMs;
+
+    private final int failureThreshold;
+
+    private final long openDurationMs;
+
+    private final long bulkheadMaxWaitMs;
+
+    private final Semaphore bulkhead;
+
+    // Async transfers hold no thread, so they get their own, larger bulkhead
+    private final Semaphore asyncBulkhead;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<CircuitState> circuitState = new AtomicReference<>(CircuitState.CLOSED);
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicLong openedAt = new AtomicLong();
+
+    // Only one trial call is let through while half open
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    public StorageResilience(@Value("${s3.resilience.max-attempts:3}") int maxAttempts,
+                             @Value("${s3.resilience.base-backoff-ms:100}") long baseBackoffMs,
+                             @Value("${s3.resilience.max-backoff-ms:2000}") long maxBackoffMs,
+                             @Value("${s3.resilience.circuit.failure-threshold:5}") int failureThreshold,
+                             @Value("${s3.resilience.circuit.open-duration-ms:30000}") long openDurationMs,
+                             @Value("${s3.resilience.bulkhead.max-concurrent:32}") int bulkheadMaxConcurrent,
+                             @Value("${s3.resilience.bulkhead.max-wait-ms:500}") long bulkheadMaxWaitMs,
+                             @Value("${s3.resilience.bulkhead.max-concurrent-async:256}") int asyncBulkheadMaxConcurrent,
+                             MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = Math.max(1, baseBackoffMs);
+        this.maxBackoffMs = Math.max(this.baseBackoffMs, maxBackoffMs);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = openDurationMs;
+        this.bulkheadMaxWaitMs = bulkheadMaxWaitMs;
+        this.bulkhead = new Semaphore(bulkheadMaxConcurrent);
+        this.asyncBulkhead = new Semaphore(asyncBulkheadMaxConcurrent);
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("dms.storage.circuit.state", circuitState, state -> state.get().ordinal())
+                .description("0 closed, 1 half open, 2 open")
+                .register(meterRegistry);
+        Gauge.builder("dms.storage.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+        Gauge.builder("dms.storage.bulkhead.async.available", asyncBulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param operation Name of the storage operation, used as metric tag
+     * @param call The storage call, invoked once per attempt
+     * @return The call result
+     */
+    public <T> T execute(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = executeWithRetries(operation, call);
+            outcome = "success";
+            return result;
+        } catch (ServiceUnavailableException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("dms.storage.calls", "operation", operation, "outcome", outcome));
+        }
+    }
+
+    /**
+     * Non-blocking variant for async client calls
+     * The bulkhead is never waited on and backoff delays are scheduled instead of slept,
+     * so no thread is held between attempts
+     *
+     * @param operation Name of the storage operation, used as metric tag
+     * @param call Starts one attempt of the storage call
+     * @return A future completed with the call result or the final failure
+     */
+    public <T> CompletableFuture<T> executeAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(operation, call, 1, result);
+        return result.whenComplete((value, error) -> sample.stop(meterRegistry.timer("dms.storage.calls",
+                "operation", operation, "outcome", error == null ? "success"
+                        : error instanceof ServiceUnavailableException ? "rejected" : "failure")));
+    }
+
+    public void run(String operation, Runnable call) {
+        execute(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public boolean isCircuitOpen() {
+        return circuitState.get() == CircuitState.OPEN;
+    }
+
+    private <T> T executeWithRetries(String operation, Supplier<T> call) {
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            try {
+                return attempt(operation, call);
+            } catch (SdkException e) {
+                if (!isTransient(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                meterRegistry.counter("dms.storage.retries", "operation", operation).increment();
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private <T> T attempt(String operation, Supplier<T> call) {
+        acquireBulkhead(operation);
+        try {
+            boolean probe = acquireCircuit(operation);
+            try {
+                T result = call.get();
+                recordSuccess(probe);
+                return result;
+            } catch (SdkException e) {
+                if (isTransient(e)) {
+                    recordFailure(probe);
+                } else {
+                    recordSuccess(probe);
+                }
+                throw e;
+            } catch (RuntimeException e) {
+                if (probe) {
+                    probeInFlight.set(false);
+                }
+                throw e;
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private <T> void attemptAsync(String operation, Supplier<CompletableFuture<T>> call, int attempt,
+            CompletableFuture<T> result) {
+        if (!asyncBulkhead.tryAcquire()) {
+            meterRegistry.counter("dms.storage.bulkhead.rejected", "operation", operation).increment();
+            result.completeExceptionally(new ServiceUnavailableException("Storage is busy",
+                    "Too many concurrent storage requests, please retry shortly", 1));
+            return;
+        }
+        boolean probe;
+        CompletableFuture<T> future;
+        try {
+            probe = acquireCircuit(operation);
+        } catch (ServiceUnavailableException e) {
+            asyncBulkhead.release();
+            result.completeExceptionally(e);
+            return;
+        }
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        future.whenComplete((value, error) -> {
+            asyncBulkhead.release();
+            if (error == null) {
+                recordSuccess(probe);
+                result.complete(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            boolean transientFailure = cause instanceof SdkException sdkException && isTransient(sdkException);
+            if (transientFailure) {
+                recordFailure(probe);
+            } else if (cause instanceof SdkException) {
+                recordSuccess(probe);
+            } else if (probe) {
+                probeInFlight.set(false);
+            }
+            if (!transientFailure || attempt >= maxAttempts) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            meterRegistry.counter("dms.storage.retries", "operation", operation).increment();
+            CompletableFuture.delayedExecutor(backoffDelay(attempt), TimeUnit.MILLISECONDS)
+                    .execute(() -> attemptAsync(operation, call, attempt + 1, result));
+        });
+    }
+
+    private void acquireBulkhead(String operation) {
+        try {
+            if (bulkhead.tryAcquire(bulkheadMaxWaitMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+        meterRegistry.counter("dms.storage.bulkhead.rejected", "operation", operation).increment();
+        throw new ServiceUnavailableException("Storage is busy",
+                "Too many concurrent storage requests, please retry shortly", 1);
+    }
+
+    /**
+     * @return true if this call is the half open probe
+     */
+    private boolean acquireCircuit(String operation) {
+        if (circuitState.get() == CircuitState.OPEN) {
+            long remainingMs = openedAt.get() + openDurationMs - System.currentTimeMillis();
+            if (remainingMs > 0) {
+                throw shortCircuited(operation, remainingMs);
+            }
+            circuitState.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN);
+        }
+        if (circuitState.get() == CircuitState.HALF_OPEN) {
+            if (!probeInFlight.compareAndSet(false, true)) {
+                throw shortCircuited(operation, 1000);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private ServiceUnavailableException shortCircuited(String operation, long remainingMs) {
+        meterRegistry.counter("dms.storage.circuit.short_circuited", "operation", operation).increment();
+        return new ServiceUnavailableException("Storage is unavailable",
+                "Storage backend is failing, requests are paused while it recovers",
+                TimeUnit.MILLISECONDS.toSeconds(remainingMs + 999));
+    }
+
+    private void recordSuccess(boolean probe) {
+        consecutiveFailures.set(0);
+        if (probe) {
+            circuitState.set(CircuitState.CLOSED);
+            probeInFlight.set(false);
+        }
+    }
+
+    private void recordFailure(boolean probe) {
+        if (probe) {
+            open();
+            probeInFlight.set(false);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold
+                && circuitState.get() == CircuitState.CLOSED) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt.set(System.currentTimeMillis());
+        circuitState.set(CircuitState.OPEN);
+        consecutiveFailures.set(0);
+        meterRegistry.counter("dms.storage.circuit.opened").increment();
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half the delay is fixed, half random
+     */
+    private long backoffDelay(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(backoffDelay(attempt));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw SdkClientException.create("Interrupted while backing off", ie);
+        }
+    }
+
+    /**
+     * Network errors, timeouts, throttling and server errors are worth retrying;
+     * anything else is a problem with the request itself
+     */
+    private boolean isTransient(SdkException e) {
+        if (e instanceof SdkServiceException serviceException) {
+            return serviceException.isThrottlingException() || serviceException.statusCode() >= 500;
+        }
+        return e instanceof ApiCallAttemptTimeoutException || e.getCause() instanceof IOException;
+    }
+}
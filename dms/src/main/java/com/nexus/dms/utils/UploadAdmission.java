@@ -0,0 +1,118 @@
+package com.nexus.dms.utils;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.nexus.dms.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Caps the number of upload bytes processed at once
+ * Each upload takes permits worth its size from a fair semaphore counted in KiB, so many small
+ * uploads or a few large ones fit the same budget and a large upload is not starved by small ones
+ * An upload waits up to the configured time for room, then fails with ServiceUnavailableException;
+ * one larger than the whole budget is admitted alone
+ */
+@Component
+public class UploadAdmission {
+
+    private static final int BYTES_PER_PERMIT = 1024;
+
+    private final int capacityPermits;
+
+    private final long maxWaitMs;
+
+    private final long retryAfterSeconds;
+
+    private final Semaphore semaphore;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final Timer waitTimer;
+
+    private final Counter rejected;
+
+    public UploadAdmission(@Value("${dms.upload.admission.max-in-flight-bytes:268435456}") long maxInFlightBytes,
+                           @Value("${dms.upload.admission.max-wait-ms:2000}") long maxWaitMs,
+                           @Value("${dms.upload.admission.retry-after-seconds:2}") long retryAfterSeconds,
+                           MeterRegistry meterRegistry) {
+        this.capacityPermits = (int) Math.clamp(maxInFlightBytes / BYTES_PER_PERMIT, 1, Integer.MAX_VALUE);
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.semaphore = new Semaphore(capacityPermits, true);
+
+        Gauge.builder("dms.upload.admission.in_flight_bytes", semaphore,
+                        s -> (double) (capacityPermits - s.availablePermits()) * BYTES_PER_PERMIT)
+                .register(meterRegistry);
+        Gauge.builder("dms.upload.admission.queued", queued, AtomicInteger::get)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("dms.upload.admission.wait").register(meterRegistry);
+        this.rejected = Counter.builder("dms.upload.admission.rejected").register(meterRegistry);
+    }
+
+    /**
+     * @param bytes Size of the upload, for a batch the sum of its files
+     * @return The permit, to be closed once the upload is no longer processed
+     * @throws ServiceUnavailableException if no room frees up within the wait time
+     */
+    public Permit acquire(long bytes) {
+        int permits = permitsFor(bytes);
+        boolean acquired = false;
+        queued.incrementAndGet();
+        long startedAt = System.nanoTime();
+        try {
+            acquired = semaphore.tryAcquire(permits, maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException _) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Upload capacity exhausted",
+                    "Too many uploads are being processed, please retry shortly", retryAfterSeconds);
+        }
+        return new Permit(permits);
+    }
+
+    public long availableBytes() {
+        return (long) semaphore.availablePermits() * BYTES_PER_PERMIT;
+    }
+
+    private int permitsFor(long bytes) {
+        long permits = (Math.max(bytes, 1) + BYTES_PER_PERMIT - 1) / BYTES_PER_PERMIT;
+        return (int) Math.min(permits, capacityPermits);
+    }
+
+    /**
+     * Released once, closing it again has no effect
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final int permits;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release(permits);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.nexus.dms.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.nexus.dms.dto.UserOrgDetails;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory cache of user to organization lookups, bounded by entry count and TTL
+ * Concurrent misses for the same user share a single lookup, so a burst of uploads
+ * by one user costs one IAM call; failed lookups are never cached
+ */
+@Component
+public class UserOrgCache {
+
+    private record Entry(UserOrgDetails details, long expiresAt) {
+    }
+
+    private final long ttlNanos;
+
+    private final int maxEntries;
+
+    private final boolean enabled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    // Lookups currently running, joined by concurrent misses for the same user
+    private final ConcurrentHashMap<Long, CompletableFuture<UserOrgDetails>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter coalesced;
+
+    public UserOrgCache(@Value("${dms.user-org-cache.ttl-seconds:300}") long ttlSeconds,
+                        @Value("${dms.user-org-cache.max-entries:10000}") int maxEntries,
+                        @Value("${dms.user-org-cache.enabled:true}") boolean enabled,
+                        MeterRegistry meterRegistry) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.enabled = enabled && ttlSeconds > 0 && maxEntries > 0;
+
+        this.hits = Counter.builder("dms.user_org_cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("dms.user_org_cache.misses").register(meterRegistry);
+        this.coalesced = Counter.builder("dms.user_org_cache.coalesced").register(meterRegistry);
+        Gauge.builder("dms.user_org_cache.entries", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * @param userId The user to look up
+     * @param loader Called on a miss; a null result is returned to all waiters but not cached
+     * @return The cached or freshly loaded details, or null if the loader found none
+     */
+    public UserOrgDetails get(Long userId, Function<Long, UserOrgDetails> loader) {
+        if (!enabled || userId == null) {
+            return loader.apply(userId);
+        }
+        UserOrgDetails cached = lookup(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<UserOrgDetails> lookup = new CompletableFuture<>();
+        CompletableFuture<UserOrgDetails> running = inFlight.putIfAbsent(userId, lookup);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        misses.increment();
+        try {
+            UserOrgDetails details = loader.apply(userId);
+            // An invalidation while the lookup ran drops the mapping, the result may be stale
+            if (details != null && inFlight.get(userId) == lookup) {
+                store(userId, details);
+            }
+            lookup.complete(details);
+            return details;
+        } catch (RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, lookup);
+        }
+    }
+
+    public void invalidate(Long userId) {
+        inFlight.remove(userId);
+        lock.lock();
+        try {
+            entries.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UserOrgDetails lookup(Long userId) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.details();
+                }
+                entries.remove(userId);
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(Long userId, UserOrgDetails details) {
+        lock.lock();
+        try {
+            entries.put(userId, new Entry(details, System.nanoTime() + ttlNanos));
+            Iterator<Long> iterator = entries.keySet().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static UserOrgDetails await(CompletableFuture<UserOrgDetails> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -27,6 +27,15 @@ public class WebConstants {
     @Value("${filebase.bucket.url}")
     public String bucketUrl;
 
+    @Value("${dms.staging.dir:}")
+    public String stagingDir;
+
+    @Value("${s3.multipart.threshold-bytes:16777216}")
+    public long multipartThresholdBytes;
+
+    @Value("${s3.multipart.part-size-bytes:8388608}")
+    public long multipartPartSizeBytes;
+
     @Value("${generic.user.id}")
     public String genericUserId;
 
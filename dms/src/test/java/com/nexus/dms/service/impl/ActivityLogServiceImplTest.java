@@ -0,0 +1,94 @@
+package com.nexus.dms.service.impl;
+
+import com.nexus.dms.dto.ActivityLogEntryDto;
+import com.nexus.dms.dto.ActivityLogPageDto;
+import com.nexus.dms.dto.ActivityLogSearchDto;
+import com.nexus.dms.repository.DmsLogsRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityLogServiceImplTest {
+
+    private static final Instant FROM = Instant.parse("2026-10-01T00:00:00Z");
+
+    @Mock
+    private DmsLogsRepo dmsLogsRepo;
+
+    private ActivityLogServiceImpl activityLogService;
+
+    @BeforeEach
+    void setUp() {
+        activityLogService = new ActivityLogServiceImpl(dmsLogsRepo, Duration.ofDays(31));
+    }
+
+    private ActivityLogSearchDto filter(Instant from, Instant to) {
+        ActivityLogSearchDto filter = new ActivityLogSearchDto();
+        filter.setFrom(from);
+        filter.setTo(to);
+        return filter;
+    }
+
+    private ActivityLogEntryDto entry(long id, Instant createdOn) {
+        return new ActivityLogEntryDto(id, "/dms/upload/org", "POST", 200, "{}", "{}", 1L, Timestamp.from(createdOn));
+    }
+
+    @Test
+    void testTimeRangeIsRequiredAndBounded() {
+        assertThrows(IllegalArgumentException.class,
+                () -> activityLogService.searchLogs(filter(FROM, null), null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> activityLogService.searchLogs(filter(FROM, FROM), null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> activityLogService.searchLogs(filter(FROM, FROM.plus(Duration.ofDays(32))), null, null));
+        verifyNoInteractions(dmsLogsRepo);
+    }
+
+    @Test
+    void testFullPageReturnsCursorOfLastRow() {
+        ActivityLogSearchDto filter = filter(FROM, FROM.plus(Duration.ofDays(1)));
+        Instant newest = FROM.plusSeconds(30);
+        when(dmsLogsRepo.search(eq(filter), isNull(), isNull(), eq(3))).thenReturn(List.of(
+                entry(9, newest), entry(8, newest), entry(7, FROM.plusSeconds(10))));
+
+        ActivityLogPageDto page = activityLogService.searchLogs(filter, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+
+        // The cursor seeks past (createdOn, id) of the last row returned
+        when(dmsLogsRepo.search(eq(filter), any(Timestamp.class), any(Long.class), anyInt()))
+                .thenReturn(List.of(entry(7, FROM.plusSeconds(10))));
+        ActivityLogPageDto next = activityLogService.searchLogs(filter, page.getNextCursor(), 2);
+
+        verify(dmsLogsRepo).search(filter, Timestamp.from(newest), 8L, 3);
+        assertEquals(1, next.getItems().size());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> activityLogService.searchLogs(
+                filter(FROM, FROM.plus(Duration.ofDays(1))), "not-a-cursor", null));
+    }
+}
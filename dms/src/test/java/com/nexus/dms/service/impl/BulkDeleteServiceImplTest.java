@@ -0,0 +1,177 @@
+package com.nexus.dms.service.impl;
+
+import com.nexus.dms.dto.BulkDeleteJobDto;
+import com.nexus.dms.dto.BulkDeleteRequestDto;
+import com.nexus.dms.dto.DocumentRefDto;
+import com.nexus.dms.entities.BulkDeleteJob;
+import com.nexus.dms.entities.StoredObject;
+import com.nexus.dms.repository.BulkDeleteJobRepo;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
+import com.nexus.dms.service.FolderListService;
+import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.CommonConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkDeleteServiceImplTest {
+
+    @Mock
+    private BulkDeleteJobRepo bulkDeleteJobRepo;
+
+    @Mock
+    private DocumentRecordRepo documentRecordRepo;
+
+    @Mock
+    private StoredObjectRepo storedObjectRepo;
+
+    @Mock
+    private UploaderService uploaderService;
+
+    @Mock
+    private FolderListService folderListService;
+
+    @Mock
+    private ExecutorService bulkDeleteExecutor;
+
+    private BulkDeleteServiceImpl bulkDeleteService;
+
+    @BeforeEach
+    void setUp() {
+        bulkDeleteService = new BulkDeleteServiceImpl(bulkDeleteJobRepo, documentRecordRepo, storedObjectRepo,
+                uploaderService, folderListService, bulkDeleteExecutor, 2, 0);
+    }
+
+    @Test
+    void testSubmitRequiresOrgOrFolder() {
+        assertThrows(IllegalArgumentException.class, () -> bulkDeleteService.submit(new BulkDeleteRequestDto()));
+        verify(bulkDeleteJobRepo, never()).save(any());
+    }
+
+    @Test
+    void testJobDeletesUnreferencedObjectsInBatches() {
+        BulkDeleteRequestDto request = new BulkDeleteRequestDto();
+        request.setOrgId(7L);
+        when(bulkDeleteJobRepo.save(any(BulkDeleteJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(bulkDeleteExecutor).execute(any(Runnable.class));
+
+        when(documentRecordRepo.countForDeletion(request)).thenReturn(3L);
+        when(documentRecordRepo.findForDeletion(request, 0L, 2)).thenReturn(List.of(
+                new DocumentRefDto(1L, "shared", "org/shared-a.pdf"),
+                new DocumentRefDto(2L, "shared", "org/shared-a.pdf")));
+        when(documentRecordRepo.findForDeletion(request, 2L, 2)).thenReturn(List.of(
+                new DocumentRefDto(3L, "still-used", "org/still-used.pdf")));
+        when(documentRecordRepo.findForDeletion(request, 3L, 2)).thenReturn(List.of());
+        when(documentRecordRepo.updateStatusReturningIds(any(), eq(CommonConstants.STATUS_UPLOADED),
+                eq(CommonConstants.STATUS_DELETED))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StoredObject shared = storedObject(10L, "shared", "org/shared-a.pdf", 0);
+        StoredObject stillUsed = storedObject(11L, "still-used", "org/still-used.pdf", 1);
+        when(storedObjectRepo.findByChecksumIn(any())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).contains("shared") ? List.of(shared) : List.of(stillUsed));
+        when(uploaderService.deleteObjects(any())).thenReturn(List.of());
+
+        BulkDeleteJobDto submitted = bulkDeleteService.submit(request);
+
+        assertEquals(CommonConstants.JOB_COMPLETED, submitted.getStatus());
+        assertEquals(3, submitted.getMatchedCount());
+        assertEquals(3, submitted.getRecordsDeleted());
+        assertEquals(1, submitted.getObjectsDeleted());
+        verify(storedObjectRepo).decrementReferencesBy("shared", 2);
+        verify(storedObjectRepo).decrementReferencesBy("still-used", 1);
+        verify(storedObjectRepo).deleteUnreferenced(List.of(10L));
+        verify(uploaderService).deleteObjects(List.of("org/shared-a.pdf"));
+        verify(uploaderService).deleteObjects(List.of());
+        verify(folderListService).refreshFolderStats(true);
+        verify(documentRecordRepo, never()).countByChecksumAndStatus(any(), any());
+    }
+
+    @Test
+    void testRecordsDeletedConcurrentlyKeepTheirReferences() {
+        BulkDeleteRequestDto request = new BulkDeleteRequestDto();
+        request.setOrgId(7L);
+        when(bulkDeleteJobRepo.save(any(BulkDeleteJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(bulkDeleteExecutor).execute(any(Runnable.class));
+
+        when(documentRecordRepo.countForDeletion(request)).thenReturn(2L);
+        when(documentRecordRepo.findForDeletion(request, 0L, 2)).thenReturn(List.of(
+                new DocumentRefDto(1L, "shared", "org/shared-a.pdf"),
+                new DocumentRefDto(2L, "shared", "org/shared-a.pdf")));
+        when(documentRecordRepo.findForDeletion(request, 2L, 2)).thenReturn(List.of());
+        // Record 2 was deleted on its own between the read and the update
+        when(documentRecordRepo.updateStatusReturningIds(any(), eq(CommonConstants.STATUS_UPLOADED),
+                eq(CommonConstants.STATUS_DELETED))).thenReturn(List.of(1L));
+
+        StoredObject shared = storedObject(10L, "shared", "org/shared-a.pdf", 1);
+        when(storedObjectRepo.findByChecksumIn(any())).thenReturn(List.of(shared));
+        when(uploaderService.deleteObjects(any())).thenReturn(List.of());
+
+        BulkDeleteJobDto submitted = bulkDeleteService.submit(request);
+
+        assertEquals(1, submitted.getRecordsDeleted());
+        verify(storedObjectRepo).decrementReferencesBy("shared", 1);
+        verify(storedObjectRepo, never()).deleteUnreferenced(any());
+    }
+
+    @Test
+    void testRecordsWithoutChecksumDeleteTheirFolderNameKey() {
+        BulkDeleteRequestDto request = new BulkDeleteRequestDto();
+        request.setOrgId(7L);
+        when(bulkDeleteJobRepo.save(any(BulkDeleteJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(bulkDeleteExecutor).execute(any(Runnable.class));
+
+        when(documentRecordRepo.countForDeletion(request)).thenReturn(2L);
+        // Stored before checksums and object keys: addressed by folder/name, one has no name at all
+        when(documentRecordRepo.findForDeletion(request, 0L, 2)).thenReturn(List.of(
+                new DocumentRefDto(1L, null, null, "org", "contract.pdf"),
+                new DocumentRefDto(2L, null, null, "org", null)));
+        when(documentRecordRepo.findForDeletion(request, 2L, 2)).thenReturn(List.of());
+        when(documentRecordRepo.updateStatusReturningIds(any(), eq(CommonConstants.STATUS_UPLOADED),
+                eq(CommonConstants.STATUS_DELETED))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(documentRecordRepo.countByLegacyKeyAndStatus("org/contract.pdf", CommonConstants.STATUS_UPLOADED))
+                .thenReturn(0L);
+        when(uploaderService.deleteObjects(any())).thenReturn(List.of());
+
+        BulkDeleteJobDto submitted = bulkDeleteService.submit(request);
+
+        assertEquals(2, submitted.getRecordsDeleted());
+        assertEquals(1, submitted.getObjectsDeleted());
+        assertEquals(1, submitted.getObjectsFailed());
+        verify(uploaderService).deleteObjects(List.of("org/contract.pdf"));
+    }
+
+    private StoredObject storedObject(Long id, String checksum, String objectKey, long referenceCount) {
+        StoredObject storedObject = new StoredObject();
+        storedObject.setId(id);
+        storedObject.setChecksum(checksum);
+        storedObject.setObjectKey(objectKey);
+        storedObject.setReferenceCount(referenceCount);
+        return storedObject;
+    }
+}
@@ -1,9 +1,14 @@
 package com.nexus.dms.service.impl;
 
 import com.nexus.dms.dto.FolderListDto;
+import com.nexus.dms.dto.FolderStatsDelta;
+import com.nexus.dms.dto.FolderStatsDto;
 import com.nexus.dms.entities.FolderList;
+import com.nexus.dms.entities.FolderStats;
 import com.nexus.dms.entities.OrgType;
+import com.nexus.dms.repository.DocumentRecordRepo;
 import com.nexus.dms.repository.FolderListRepo;
+import com.nexus.dms.repository.FolderStatsRepo;
 import com.nexus.dms.utils.CommonConstants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,7 +19,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +33,12 @@ class FolderListServiceImplTest {
     @Mock
     private FolderListRepo folderListRepo;
 
+    @Mock
+    private FolderStatsRepo folderStatsRepo;
+
+    @Mock
+    private DocumentRecordRepo documentRecordRepo;
+
     @InjectMocks
     private FolderListServiceImpl folderListService;
 
@@ -105,6 +118,58 @@ class FolderListServiceImplTest {
         assertTrue(response.getBody().toString().contains("Error retrieving folder lists"));
     }
 
+    @Test
+    void testRefreshFolderStatsAddsRecordsSinceLastRefresh() {
+        FolderStats stats = new FolderStats();
+        stats.setFolderId(1L);
+        stats.setDocumentCount(10);
+        stats.setTotalBytes(1000);
+        stats.setRefreshedThroughId(50);
+        Timestamp uploadedAt = new Timestamp(System.currentTimeMillis());
+        when(folderStatsRepo.findAllForUpdate()).thenReturn(List.of(stats));
+        when(documentRecordRepo.findMaxId()).thenReturn(60L);
+        when(documentRecordRepo.aggregateByFolder(CommonConstants.STATUS_UPLOADED, 50L, 60L))
+                .thenReturn(List.of(new FolderStatsDelta(1L, 2L, 300L, uploadedAt),
+                        new FolderStatsDelta(2L, 1L, 50L, uploadedAt)));
+
+        folderListService.refreshFolderStats(false);
+
+        assertEquals(12, stats.getDocumentCount());
+        assertEquals(1300, stats.getTotalBytes());
+        assertEquals(60, stats.getRefreshedThroughId());
+        assertEquals(uploadedAt, stats.getLastUploadedAt());
+        verify(folderStatsRepo).saveAll(argThat(saved -> ((Collection<?>) saved).size() == 2));
+    }
+
+    @Test
+    void testRefreshFolderStatsStopsBelowPendingRecord() {
+        when(folderStatsRepo.findAllForUpdate()).thenReturn(List.of());
+        when(documentRecordRepo.findMaxId()).thenReturn(60L);
+        when(documentRecordRepo.findMinIdByStatusInSince(
+                eq(List.of(CommonConstants.STATUS_PENDING, CommonConstants.STATUS_AWAITING_UPLOAD)),
+                any(Timestamp.class)))
+                .thenReturn(55L);
+
+        folderListService.refreshFolderStats(false);
+
+        verify(documentRecordRepo).aggregateByFolder(CommonConstants.STATUS_UPLOADED, 0L, 54L);
+    }
+
+    @Test
+    void testGetFolderStatsDefaultsToZeroWithoutStats() {
+        FolderList folder = mockFolders.get(0);
+        folder.setId(1L);
+        when(folderStatsRepo.findAll()).thenReturn(List.of());
+        when(folderListRepo.findAll()).thenReturn(List.of(folder));
+
+        ResponseEntity<?> response = folderListService.getFolderStats();
+
+        List<?> body = (List<?>) response.getBody();
+        FolderStatsDto folderStats = (FolderStatsDto) body.get(0);
+        assertEquals(CommonConstants.RETAILER_FOLDER, folderStats.getFolderName());
+        assertEquals(0, folderStats.getDocumentCount());
+    }
+
     @Test
     void testSetNewFolderListNotImplemented() {
         FolderListDto dto = new FolderListDto();
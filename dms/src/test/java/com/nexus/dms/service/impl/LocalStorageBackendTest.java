@@ -0,0 +1,107 @@
+package com.nexus.dms.service.impl;
+
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.dto.StoredContent;
+import com.nexus.dms.utils.ByteRange;
+import com.nexus.dms.utils.StagedFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalStorageBackendTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalStorageBackend storageBackend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storageBackend = new LocalStorageBackend(tempDir.resolve("storage").toString(), true, 1,
+                "local://nexus-scm");
+    }
+
+    @Test
+    void testPutAndReadBack() throws IOException {
+        byte[] content = "local file content".getBytes(StandardCharsets.UTF_8);
+
+        Optional<String> cid = storageBackend.put("uploads/abc-test.txt", staged(content));
+
+        assertTrue(cid.isPresent());
+        assertEquals(cid, storageBackend.resolveCid("uploads/abc-test.txt"));
+        assertEquals("local://nexus-scm/" + cid.get(), storageBackend.getFileUrl(cid.get()));
+        assertEquals("local file content", read(storageBackend.get("uploads/abc-test.txt", null)));
+        assertEquals("file", read(storageBackend.get("uploads/abc-test.txt", new ByteRange(6, 9))));
+    }
+
+    @Test
+    void testMissingObjectIsNotFound() {
+        assertThrows(FileNotFoundException.class, () -> storageBackend.get("uploads/missing.txt", null));
+        assertFalse(storageBackend.delete("uploads/missing.txt"));
+    }
+
+    @Test
+    void testKeysOutsideTheRootAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> storageBackend.putBytes("uploads/../../escape.txt", new byte[1], "text/plain"));
+        assertThrows(IllegalArgumentException.class,
+                () -> storageBackend.putBytes(".incoming/put-1.tmp", new byte[1], "text/plain"));
+    }
+
+    @Test
+    void testListingResumesFromToken() throws IOException {
+        List<String> keys = List.of("a/1.pdf", "a/2.pdf", "a-b/3.pdf", "b.pdf", "c/d/4.pdf");
+        for (String key : keys) {
+            storageBackend.putBytes(key, key.getBytes(StandardCharsets.UTF_8), "application/pdf");
+        }
+
+        List<String> listed = new ArrayList<>();
+        String token = null;
+        do {
+            StorageListingDto page = storageBackend.list(token, 2);
+            page.getEntries().forEach(entry -> listed.add(entry.getKey()));
+            token = page.getNextContinuationToken();
+        } while (token != null);
+
+        assertEquals(keys, listed);
+    }
+
+    @Test
+    void testDeleteAllTreatsMissingKeysAsDeleted() throws IOException {
+        storageBackend.putBytes("uploads/a.pdf", new byte[] {1}, "application/pdf");
+
+        List<String> failed = storageBackend.deleteAll(List.of("uploads/a.pdf", "uploads/gone.pdf"));
+
+        assertTrue(failed.isEmpty());
+        assertNull(storageBackend.list(null, 10).getNextContinuationToken());
+        assertTrue(storageBackend.list(null, 10).getEntries().isEmpty());
+    }
+
+    private StagedFile staged(byte[] content) throws IOException {
+        Path path = Files.createTempFile(tempDir, "staged-", ".upload");
+        Files.write(path, content);
+        return new StagedFile(path, "test.txt", "text/plain", content.length, "abc", new byte[0]);
+    }
+
+    private String read(StoredContent content) throws IOException {
+        try (InputStream inputStream = content.getStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.nexus.dms.service.impl;
+
+import com.nexus.dms.dto.StorageKeyDto;
+import com.nexus.dms.dto.StorageListingDto;
+import com.nexus.dms.entities.ReconciliationRun;
+import com.nexus.dms.exception.ServiceUnavailableException;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.ReconciliationRunRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
+import com.nexus.dms.service.UploaderService;
+import com.nexus.dms.utils.CommonConstants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceImplTest {
+
+    @Mock
+    private ReconciliationRunRepo reconciliationRunRepo;
+
+    @Mock
+    private DocumentRecordRepo documentRecordRepo;
+
+    @Mock
+    private StoredObjectRepo storedObjectRepo;
+
+    @Mock
+    private UploaderService uploaderService;
+
+    @Mock
+    private ExecutorService reconciliationExecutor;
+
+    private ReconciliationServiceImpl service(boolean deleteOrphans) {
+        return new ReconciliationServiceImpl(reconciliationRunRepo, documentRecordRepo, storedObjectRepo,
+                uploaderService, reconciliationExecutor, 1000, 0.001, Duration.ofHours(1), 100, 5, deleteOrphans);
+    }
+
+    @Test
+    void testScanReportsOrphansAndDanglingRecords() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        when(reconciliationRunRepo.save(any(ReconciliationRun.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(storedObjectRepo.findKeysAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        when(documentRecordRepo.findKeysAfter(eq(0L), eq(CommonConstants.STATUS_DELETED), any(Pageable.class)))
+                .thenReturn(List.of(
+                        new StorageKeyDto(1L, "org/a.pdf", null, CommonConstants.STATUS_UPLOADED,
+                                Timestamp.from(old)),
+                        new StorageKeyDto(2L, "org/missing.pdf", null, CommonConstants.STATUS_UPLOADED,
+                                Timestamp.from(old))));
+        when(documentRecordRepo.findKeysAfter(eq(2L), eq(CommonConstants.STATUS_DELETED), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(uploaderService.listObjects(null, 100)).thenReturn(new StorageListingDto(List.of(
+                new StorageListingDto.Entry("org/a.pdf", old),
+                new StorageListingDto.Entry("org/orphan.pdf", old),
+                // Too young, its record may not be saved yet
+                new StorageListingDto.Entry("org/fresh.pdf", Instant.now())), null));
+        when(uploaderService.deleteObjects(List.of("org/orphan.pdf"))).thenReturn(List.of());
+
+        ReconciliationRun run = new ReconciliationRun();
+        service(true).scan(run);
+
+        assertEquals(CommonConstants.JOB_COMPLETED, run.getStatus());
+        assertEquals(3, run.getObjectsScanned());
+        assertEquals(2, run.getRecordsScanned());
+        assertEquals(1, run.getOrphansFound());
+        assertEquals(1, run.getOrphansDeleted());
+        assertEquals(1, run.getDanglingFound());
+        assertEquals("org/orphan.pdf", run.getOrphanSample());
+        assertEquals("2 org/missing.pdf", run.getDanglingSample());
+    }
+
+    @Test
+    void testObjectOfRecordWithoutPersistedKeySurvivesOrphanDeletion() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        when(reconciliationRunRepo.save(any(ReconciliationRun.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(storedObjectRepo.findKeysAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        // Stored before object keys were persisted: uploaded as folder/name, dmsId is the CID
+        when(documentRecordRepo.findKeysAfter(eq(0L), eq(CommonConstants.STATUS_DELETED), any(Pageable.class)))
+                .thenReturn(List.of(new StorageKeyDto(1L, null, "org", "contract.pdf", null,
+                        CommonConstants.STATUS_UPLOADED, Timestamp.from(old))));
+        when(documentRecordRepo.findKeysAfter(eq(1L), eq(CommonConstants.STATUS_DELETED), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(uploaderService.listObjects(null, 100)).thenReturn(new StorageListingDto(List.of(
+                new StorageListingDto.Entry("org/contract.pdf", old)), null));
+
+        ReconciliationRun run = new ReconciliationRun();
+        service(true).scan(run);
+
+        assertEquals(CommonConstants.JOB_COMPLETED, run.getStatus());
+        assertEquals(0, run.getOrphansFound());
+        assertEquals(0, run.getDanglingFound());
+        verify(uploaderService, never()).deleteObjects(any());
+    }
+
+    @Test
+    void testCandidateReferencedSinceLoadIsNotDeleted() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        when(reconciliationRunRepo.save(any(ReconciliationRun.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(uploaderService.listObjects(null, 100)).thenReturn(new StorageListingDto(List.of(
+                new StorageListingDto.Entry("org/late.pdf", old)), null));
+        when(storedObjectRepo.findReferencingKeys(anyCollection())).thenReturn(List.of(
+                new StorageKeyDto(9L, "org/late.pdf", null, null, null)));
+
+        ReconciliationRun run = new ReconciliationRun();
+        service(true).scan(run);
+
+        assertEquals(CommonConstants.JOB_COMPLETED, run.getStatus());
+        assertEquals(0, run.getOrphansFound());
+        verify(uploaderService, never()).deleteObjects(any());
+    }
+
+    @Test
+    void testSubmitRejectedWhileExecutorBusy() {
+        when(reconciliationRunRepo.save(any(ReconciliationRun.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new RejectedExecutionException())
+                .when(reconciliationExecutor).execute(any(Runnable.class));
+
+        assertThrows(ServiceUnavailableException.class, () -> service(false).submit());
+    }
+
+    @Test
+    void testScheduledScanRunsOnReconciliationPool() {
+        when(reconciliationRunRepo.save(any(ReconciliationRun.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        service(false).reconcileScheduled();
+
+        verify(reconciliationExecutor).execute(any(Runnable.class));
+        verify(uploaderService, never()).listObjects(any(), anyInt());
+    }
+}
@@ -0,0 +1,213 @@
+package com.nexus.dms.service.impl;
+
+import com.nexus.dms.dto.UploadSessionDto;
+import com.nexus.dms.dto.UploadSessionRequestDto;
+import com.nexus.dms.entities.DocumentRecord;
+import com.nexus.dms.entities.UploadSession;
+import com.nexus.dms.entities.UploaderType;
+import com.nexus.dms.exception.ServiceUnavailableException;
+import com.nexus.dms.repository.UploadSessionRepo;
+import com.nexus.dms.service.ImplementerService;
+import com.nexus.dms.utils.CommonConstants;
+import com.nexus.dms.utils.CommonUtils;
+import com.nexus.dms.utils.StagedFile;
+import com.nexus.dms.utils.WebConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UploadSessionServiceImplTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Mock
+    private UploadSessionRepo uploadSessionRepo;
+
+    @Mock
+    private ImplementerService implementerService;
+
+    @Mock
+    private CommonUtils commonUtils;
+
+    private final Map<String, UploadSession> sessions = new HashMap<>();
+
+    private UploadSessionServiceImpl uploadSessionService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        WebConstants webConstants = new WebConstants();
+        webConstants.setStagingDir(tempDir.toString());
+        when(uploadSessionRepo.save(any(UploadSession.class))).thenAnswer(invocation -> {
+            UploadSession session = invocation.getArgument(0);
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        when(uploadSessionRepo.findById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(sessions.get(invocation.<String>getArgument(0))));
+        when(commonUtils.toHexDigest(any(MessageDigest.class)))
+                .thenAnswer(invocation -> HexFormat.of().formatHex(invocation.<MessageDigest>getArgument(0).digest()));
+        when(commonUtils.adoptSpooledFile(any(Path.class), anyString(), any(), anyLong(), anyString()))
+                .thenAnswer(invocation -> new StagedFile(invocation.getArgument(0), invocation.getArgument(1),
+                        "application/pdf", invocation.getArgument(3), invocation.getArgument(4), new byte[0]));
+        uploadSessionService = new UploadSessionServiceImpl(uploadSessionRepo, implementerService, commonUtils,
+                webConstants, Duration.ofHours(1), 4);
+    }
+
+    private UploadSessionDto createSession(long totalSize) {
+        UploadSessionRequestDto request = new UploadSessionRequestDto();
+        request.setUploaderType(UploaderType.INDIVIDUAL);
+        request.setUserId(1L);
+        request.setFileName("report.pdf");
+        request.setContentType("application/pdf");
+        request.setTotalSize(totalSize);
+        return uploadSessionService.createSession(request);
+    }
+
+    private ResponseEntity<UploadSessionDto> append(String sessionId, long offset, String chunk) throws IOException {
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        return uploadSessionService.appendChunk(sessionId, offset, bytes.length, new ByteArrayInputStream(bytes));
+    }
+
+    private Path spoolFile(String sessionId) {
+        return tempDir.resolve("upload-sessions").resolve(sessionId + ".part");
+    }
+
+    @Test
+    void testAppendAdvancesOffsetAndSpoolsChunks() throws IOException {
+        UploadSessionDto session = createSession(6);
+
+        ResponseEntity<UploadSessionDto> first = append(session.getSessionId(), 0, "abcd");
+        ResponseEntity<UploadSessionDto> second = append(session.getSessionId(), 4, "ef");
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(4, first.getBody().getReceivedBytes());
+        assertEquals(6, second.getBody().getReceivedBytes());
+        assertArrayEquals("abcdef".getBytes(StandardCharsets.UTF_8),
+                Files.readAllBytes(spoolFile(session.getSessionId())));
+    }
+
+    @Test
+    void testAppendAtWrongOffsetConflicts() throws IOException {
+        UploadSessionDto session = createSession(6);
+        append(session.getSessionId(), 0, "abcd");
+
+        // A retried chunk the server already has
+        ResponseEntity<UploadSessionDto> response = append(session.getSessionId(), 0, "abcd");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(4, response.getBody().getReceivedBytes());
+        assertEquals(4, Files.size(spoolFile(session.getSessionId())));
+    }
+
+    @Test
+    void testAppendBeyondAcceptedLengthIsRejected() throws IOException {
+        UploadSessionDto session = createSession(6);
+        append(session.getSessionId(), 0, "abcd");
+
+        assertThrows(IllegalArgumentException.class, () -> append(session.getSessionId(), 4, "efg"));
+        assertEquals(4, sessions.get(session.getSessionId()).getReceivedBytes());
+    }
+
+    @Test
+    void testCompleteStoresAssembledFileWithIncrementalChecksum() throws Exception {
+        UploadSessionDto session = createSession(6);
+        append(session.getSessionId(), 0, "abcd");
+        append(session.getSessionId(), 4, "ef");
+        DocumentRecord savedRecord = new DocumentRecord();
+        savedRecord.setId(7L);
+        when(implementerService.uploadStagedFile(any(UploadSession.class), any(StagedFile.class)))
+                .thenAnswer(invocation -> ResponseEntity.ok(savedRecord));
+
+        ResponseEntity<?> response = uploadSessionService.completeSession(session.getSessionId());
+
+        String expectedChecksum = HexFormat.of().formatHex(
+                MessageDigest.getInstance("MD5").digest("abcdef".getBytes(StandardCharsets.UTF_8)));
+        verify(commonUtils).adoptSpooledFile(any(Path.class), eq("report.pdf"), eq("application/pdf"), eq(6L),
+                eq(expectedChecksum));
+        verify(commonUtils, never()).checksumOf(any(Path.class));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        UploadSessionDto completed = (UploadSessionDto) response.getBody();
+        assertEquals(CommonConstants.STATUS_UPLOADED, completed.getStatus());
+        assertEquals(7L, completed.getDocumentRecordId());
+        assertFalse(Files.exists(spoolFile(session.getSessionId())));
+
+        // Completing again returns the same record without storing twice
+        ResponseEntity<?> again = uploadSessionService.completeSession(session.getSessionId());
+        assertEquals(7L, ((UploadSessionDto) again.getBody()).getDocumentRecordId());
+        verify(implementerService).uploadStagedFile(any(UploadSession.class), any(StagedFile.class));
+    }
+
+    @Test
+    void testCompleteBeforeAllBytesArrivedIsRejected() throws IOException {
+        UploadSessionDto session = createSession(6);
+        append(session.getSessionId(), 0, "abcd");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> uploadSessionService.completeSession(session.getSessionId()));
+        verify(implementerService, never()).uploadStagedFile(any(), any());
+    }
+
+    @Test
+    void testFailedStoreKeepsSessionOpenForRetry() throws IOException {
+        UploadSessionDto session = createSession(4);
+        append(session.getSessionId(), 0, "abcd");
+        when(implementerService.uploadStagedFile(any(UploadSession.class), any(StagedFile.class)))
+                .thenThrow(new ServiceUnavailableException("Upload capacity exhausted", "retry", 2));
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> uploadSessionService.completeSession(session.getSessionId()));
+
+        assertEquals(CommonConstants.STATUS_PENDING, sessions.get(session.getSessionId()).getStatus());
+        assertTrue(Files.exists(spoolFile(session.getSessionId())));
+    }
+
+    @Test
+    void testExpiredSessionsAreDiscarded() throws IOException {
+        UploadSessionDto session = createSession(6);
+        append(session.getSessionId(), 0, "abcd");
+        UploadSession stored = sessions.get(session.getSessionId());
+        when(uploadSessionRepo.findByStatusAndExpiresAtBefore(eq(CommonConstants.STATUS_PENDING), any(), any()))
+                .thenReturn(List.of(stored));
+
+        assertEquals(1, uploadSessionService.expireSessions());
+
+        assertEquals(CommonConstants.STATUS_FAILED, stored.getStatus());
+        assertFalse(Files.exists(spoolFile(session.getSessionId())));
+    }
+}
@@ -1,31 +1,74 @@
 package com.nexus.dms.service.impl;
 
+import com.nexus.dms.dto.StorageListingDto;
 import com.nexus.dms.dto.UploaderResponse;
+import com.nexus.dms.entities.StoredObject;
+import com.nexus.dms.exception.FileValidationException;
+import com.nexus.dms.repository.DocumentRecordRepo;
+import com.nexus.dms.repository.StoredObjectRepo;
 import com.nexus.dms.utils.CommonConstants;
+import com.nexus.dms.utils.StagedFile;
+import com.nexus.dms.utils.StorageResilience;
 import com.nexus.dms.utils.WebConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,18 +77,27 @@ class UploaderServiceImplTest {
     @Mock
     private S3Client s3Client;
 
+    @Mock
+    private S3Presigner s3Presigner;
+
     @Mock
     private WebConstants webConstants;
 
-    @InjectMocks
-    private UploaderServiceImpl uploaderService;
+    @Mock
+    private StoredObjectRepo storedObjectRepo;
 
     @Mock
-    private MultipartFile multipartFile;
+    private DocumentRecordRepo documentRecordRepo;
+
+    private StorageResilience storageResilience;
+
+    private UploaderServiceImpl uploaderService;
 
     @BeforeEach
     void setUp() {
-        // Additional setup if needed
+        storageResilience = new StorageResilience(3, 1, 2, 5, 30_000, 8, 100, 8, new SimpleMeterRegistry());
+        uploaderService = new UploaderServiceImpl(new S3StorageBackend(s3Client, webConstants, null,
+                storageResilience, Optional.empty(), s3Presigner), storedObjectRepo, documentRecordRepo, null);
     }
 
     @Test
@@ -57,19 +109,23 @@ class UploaderServiceImplTest {
         String cid = "test-cid-123";
         String s3Endpoint = "https://s3.example.com";
 
-        when(multipartFile.getBytes()).thenReturn(fileContent);
+        Path path = Files.createTempFile("dms-test-", ".upload");
+        Files.write(path, fileContent);
+        StagedFile stagedFile = new StagedFile(path, fileName, "text/plain", fileContent.length, "checksum",
+                new byte[0]);
 
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("cid", cid);
-        HeadObjectResponse headObjectResponse = HeadObjectResponse.builder()
-                .metadata(metadata)
-                .build();
-        when(s3Client.headObject(any(HeadObjectRequest.class)))
-                .thenReturn(headObjectResponse);
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn((PutObjectResponse) PutObjectResponse.builder()
+                        .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200)
+                                .putHeader("x-amz-meta-cid", cid).build())
+                        .build());
         when(webConstants.getS3Endpoint()).thenReturn(s3Endpoint);
 
         // Act
-        ResponseEntity<UploaderResponse> response = uploaderService.uploadFile(multipartFile, fileName, folderPrefix);
+        ResponseEntity<UploaderResponse> response;
+        try (stagedFile) {
+            response = uploaderService.uploadFile(stagedFile, fileName, folderPrefix);
+        }
 
         // Assert
         assertNotNull(response);
@@ -78,6 +134,122 @@ class UploaderServiceImplTest {
         assertEquals(fileName, response.getBody().getFileName());
         assertEquals(cid, response.getBody().getDmsId());
         assertEquals(s3Endpoint + "/" + cid, response.getBody().getUrl());
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+    }
+
+    @Test
+    void testUploadFileLeavesCidUnresolvedWhenNotReturned() throws IOException {
+        // Arrange
+        byte[] fileContent = "no cid header".getBytes();
+        Path path = Files.createTempFile("dms-test-", ".upload");
+        Files.write(path, fileContent);
+        StagedFile stagedFile = new StagedFile(path, "notes.pdf", "application/pdf", fileContent.length,
+                "checksum", new byte[0]);
+
+        when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+                .thenReturn(PutObjectResponse.builder().build());
+
+        // Act
+        ResponseEntity<UploaderResponse> response;
+        try (stagedFile) {
+            response = uploaderService.uploadFile(stagedFile, "notes.pdf", "uploads");
+        }
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody().getDmsId());
+        assertEquals("uploads/checksum-notes.pdf", response.getBody().getObjectKey());
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+    }
+
+    @Test
+    void testUploadFileAsyncStreamsThroughAsyncClient() throws Exception {
+        // Arrange
+        byte[] fileContent = "async content".getBytes();
+        String cid = "async-cid";
+        Path path = Files.createTempFile("dms-test-", ".upload");
+        Files.write(path, fileContent);
+        StagedFile stagedFile = new StagedFile(path, "async.pdf", "application/pdf", fileContent.length,
+                "checksum", new byte[0]);
+
+        S3AsyncClient s3AsyncClient = mock(S3AsyncClient.class);
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture((PutObjectResponse) PutObjectResponse.builder()
+                        .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200)
+                                .putHeader("x-amz-meta-cid", cid).build())
+                        .build()));
+        when(webConstants.getS3Endpoint()).thenReturn("https://s3.example.com");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        UploaderServiceImpl asyncUploader = new UploaderServiceImpl(new S3StorageBackend(s3Client, webConstants,
+                null, storageResilience, Optional.of(s3AsyncClient), s3Presigner), storedObjectRepo, documentRecordRepo,
+                executor);
+
+        // Act
+        ResponseEntity<UploaderResponse> response;
+        try (stagedFile) {
+            response = asyncUploader.uploadFileAsync(stagedFile, "async.pdf", "uploads").get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(cid, response.getBody().getDmsId());
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(storedObjectRepo).save(any(StoredObject.class));
+    }
+
+    @Test
+    void testUploadFileUsesMultipartAboveThreshold() throws IOException {
+        // Arrange
+        byte[] fileContent = new byte[6 * 1024 * 1024];
+        String fileName = "contract.pdf";
+        String cid = "test-cid-456";
+
+        Path path = Files.createTempFile("dms-test-", ".upload");
+        Files.write(path, fileContent);
+        StagedFile stagedFile = new StagedFile(path, fileName, "application/pdf", fileContent.length, "checksum",
+                new byte[0]);
+
+        when(webConstants.getMultipartThresholdBytes()).thenReturn(1024L);
+        when(webConstants.getMultipartPartSizeBytes()).thenReturn(1024L);
+        when(s3Client.createMultipartUpload(any(Consumer.class)))
+                .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        List<Integer> partLengths = new CopyOnWriteArrayList<>();
+        when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class))).thenAnswer(invocation -> {
+            // Parts are streamed from the staged file while the call is running
+            try (InputStream part = invocation.<RequestBody>getArgument(1).contentStreamProvider().newStream()) {
+                partLengths.add(part.readAllBytes().length);
+            }
+            return UploadPartResponse.builder().eTag("etag").build();
+        });
+        when(s3Client.completeMultipartUpload(any(Consumer.class)))
+                .thenReturn((CompleteMultipartUploadResponse) CompleteMultipartUploadResponse.builder()
+                        .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200)
+                                .putHeader("x-amz-meta-cid", cid).build())
+                        .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        UploaderServiceImpl multipartUploader = new UploaderServiceImpl(new S3StorageBackend(s3Client, webConstants,
+                executor, storageResilience, Optional.empty(), s3Presigner), storedObjectRepo, documentRecordRepo,
+                null);
+
+        // Act
+        ResponseEntity<UploaderResponse> response;
+        try (stagedFile) {
+            response = multipartUploader.uploadFile(stagedFile, fileName, "uploads");
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cid, response.getBody().getDmsId());
+        // 6 MB with the 5 MB minimum part size gives two parts
+        verify(s3Client, times(2)).uploadPart(any(Consumer.class), any(RequestBody.class));
+        assertEquals(fileContent.length, partLengths.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(partLengths.contains(5 * 1024 * 1024));
+        verify(s3Client).completeMultipartUpload(any(Consumer.class));
     }
 
     @Test
@@ -101,4 +273,231 @@ class UploaderServiceImplTest {
         assertTrue(result);
     }
 
+    @Test
+    void testUploadFileReusesExistingContent() throws IOException {
+        // Arrange
+        byte[] fileContent = "duplicate invoice".getBytes();
+        Path path = Files.createTempFile("dms-test-", ".upload");
+        Files.write(path, fileContent);
+        StagedFile stagedFile = new StagedFile(path, "invoice.pdf", "application/pdf", fileContent.length,
+                "same-checksum", new byte[0]);
+
+        StoredObject storedObject = new StoredObject();
+        storedObject.setId(7L);
+        storedObject.setChecksum("same-checksum");
+        storedObject.setDocumentSize((long) fileContent.length);
+        storedObject.setObjectKey("uploads/same-checksum-invoice.pdf");
+        storedObject.setDmsId("existing-cid");
+        storedObject.setDocumentUrl("https://s3.example.com/existing-cid");
+        storedObject.setReferenceCount(1);
+        when(storedObjectRepo.findByChecksum("same-checksum")).thenReturn(Optional.of(storedObject));
+        when(storedObjectRepo.incrementReferences(7L)).thenReturn(1);
+
+        // Act
+        ResponseEntity<UploaderResponse> response;
+        try (stagedFile) {
+            response = uploaderService.uploadFile(stagedFile, "invoice.pdf", "uploads");
+        }
+
+        // Assert
+        assertEquals("existing-cid", response.getBody().getDmsId());
+        assertEquals("uploads/same-checksum-invoice.pdf", response.getBody().getObjectKey());
+        verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+        verify(s3Client, never()).headObject(any(HeadObjectRequest.class));
+    }
+
+    @Test
+    void testDeleteFileKeepsObjectWhileReferenced() {
+        // Arrange
+        StoredObject storedObject = new StoredObject();
+        storedObject.setId(7L);
+        storedObject.setDmsId("shared-cid");
+        storedObject.setReferenceCount(1);
+        when(storedObjectRepo.findByDmsId("shared-cid")).thenReturn(Optional.of(storedObject));
+        when(storedObjectRepo.findById(7L)).thenReturn(Optional.of(storedObject));
+
+        // Act
+        Boolean result = uploaderService.deleteFile("https://ipfs.filebase.io/ipfs/shared-cid",
+                CommonConstants.MAIN_BUCKET);
+
+        // Assert
+        assertTrue(result);
+        verify(storedObjectRepo).decrementReferences(7L);
+        verify(s3Client, never()).deleteObjects(any(Consumer.class));
+        verify(storedObjectRepo, never()).deleteIfUnreferenced(7L);
+    }
+
+    @Test
+    void testDeleteFileRemovesPreviewWithLastReference() {
+        // Arrange
+        StoredObject storedObject = new StoredObject();
+        storedObject.setId(9L);
+        storedObject.setDmsId("last-cid");
+        storedObject.setObjectKey("uploads/abc-report.pdf");
+        storedObject.setPreviewKey("uploads/abc-report.pdf" + CommonConstants.PREVIEW_SUFFIX);
+        when(storedObjectRepo.findByDmsId("last-cid")).thenReturn(Optional.of(storedObject));
+        when(storedObjectRepo.findById(9L)).thenReturn(Optional.of(storedObject));
+        when(s3Client.deleteObjects(any(Consumer.class))).thenReturn(DeleteObjectsResponse.builder().build());
+
+        // Act
+        Boolean result = uploaderService.deleteFile("https://ipfs.filebase.io/ipfs/last-cid",
+                CommonConstants.MAIN_BUCKET);
+
+        // Assert
+        assertTrue(result);
+        verify(s3Client).deleteObjects(any(Consumer.class));
+        verify(storedObjectRepo).deleteIfUnreferenced(9L);
+    }
+
+    @Test
+    void testDeleteFileKeepsRowWhenStorageDeleteFails() {
+        // Arrange
+        StoredObject storedObject = new StoredObject();
+        storedObject.setId(11L);
+        storedObject.setDmsId("failing-cid");
+        storedObject.setObjectKey("uploads/def-report.pdf");
+        when(storedObjectRepo.findByDmsId("failing-cid")).thenReturn(Optional.of(storedObject));
+        when(storedObjectRepo.findById(11L)).thenReturn(Optional.of(storedObject));
+        when(s3Client.deleteObjects(any(Consumer.class)))
+                .thenThrow(SdkClientException.create("Unable to execute HTTP request"));
+
+        // Act
+        Boolean result = uploaderService.deleteFile("https://ipfs.filebase.io/ipfs/failing-cid",
+                CommonConstants.MAIN_BUCKET);
+
+        // Assert
+        assertFalse(result);
+        verify(storedObjectRepo, never()).deleteIfUnreferenced(11L);
+
+        // The retry finishes the delete once storage is reachable again
+        when(storedObjectRepo.findByReferenceCountOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(storedObject));
+        when(s3Client.deleteObjects(any(Consumer.class))).thenReturn(DeleteObjectsResponse.builder().build());
+
+        assertEquals(1, uploaderService.retryPendingDeletes());
+        verify(storedObjectRepo).deleteIfUnreferenced(11L);
+    }
+
+    @Test
+    void testDeleteObjectsBatchesKeysAndReportsFailures() {
+        // Arrange
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            keys.add("uploads/key-" + i);
+        }
+        when(s3Client.deleteObjects(any(Consumer.class)))
+                .thenReturn(DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("uploads/key-3").code("AccessDenied").build(),
+                                S3Error.builder().key("uploads/key-4").code("NoSuchKey").build())
+                        .build())
+                .thenReturn(DeleteObjectsResponse.builder().build());
+
+        // Act
+        List<String> failedKeys = uploaderService.deleteObjects(keys);
+
+        // Assert
+        assertEquals(List.of("uploads/key-3"), failedKeys);
+        verify(s3Client, times(2)).deleteObjects(any(Consumer.class));
+    }
+
+    @Test
+    void testListObjectsReturnsTokenOnlyWhenTruncated() {
+        // Arrange
+        Instant modified = Instant.parse("2024-01-01T00:00:00Z");
+        when(s3Client.listObjectsV2(any(Consumer.class)))
+                .thenReturn(ListObjectsV2Response.builder()
+                        .contents(S3Object.builder().key("uploads/a.pdf").lastModified(modified).build())
+                        .isTruncated(true)
+                        .nextContinuationToken("next")
+                        .build())
+                .thenReturn(ListObjectsV2Response.builder()
+                        .isTruncated(false)
+                        .nextContinuationToken("ignored")
+                        .build());
+
+        // Act
+        StorageListingDto first = uploaderService.listObjects(null, 1000);
+        StorageListingDto last = uploaderService.listObjects("next", 1000);
+
+        // Assert
+        assertEquals(1, first.getEntries().size());
+        assertEquals("uploads/a.pdf", first.getEntries().get(0).getKey());
+        assertEquals(modified, first.getEntries().get(0).getLastModified());
+        assertEquals("next", first.getNextContinuationToken());
+        assertTrue(last.getEntries().isEmpty());
+        assertNull(last.getNextContinuationToken());
+    }
+
+    @Test
+    void testRegisterUploadAcceptsMatchingObject() throws IOException {
+        // Arrange
+        String checksum = "0123456789abcdef0123456789abcdef";
+        String objectKey = "uploads/" + checksum + "-report.pdf";
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength(17L)
+                .eTag("\"" + checksum + "\"")
+                .metadata(Map.of("cid", "direct-cid"))
+                .build());
+        when(webConstants.getS3Endpoint()).thenReturn("https://s3.example.com");
+
+        // Act
+        ResponseEntity<UploaderResponse> response = uploaderService.registerUpload(objectKey, checksum, 17L,
+                "report.pdf", "uploads");
+
+        // Assert
+        assertEquals("direct-cid", response.getBody().getDmsId());
+        assertEquals(objectKey, response.getBody().getObjectKey());
+        verify(storedObjectRepo).save(any(StoredObject.class));
+    }
+
+    @Test
+    void testRegisterUploadDeletesMismatchingObject() throws IOException {
+        // Arrange
+        String checksum = "0123456789abcdef0123456789abcdef";
+        String objectKey = "uploads/" + checksum + "-report.pdf";
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength(17L)
+                .eTag("\"ffffffffffffffffffffffffffffffff\"")
+                .build());
+        when(s3Client.headObject(any(Consumer.class))).thenReturn(HeadObjectResponse.builder().build());
+        when(s3Client.deleteObject(any(Consumer.class))).thenReturn(DeleteObjectResponse.builder().build());
+
+        // Act & Assert
+        assertThrows(FileValidationException.class,
+                () -> uploaderService.registerUpload(objectKey, checksum, 17L, "report.pdf", "uploads"));
+        verify(s3Client).deleteObject(any(Consumer.class));
+        verify(storedObjectRepo, never()).save(any(StoredObject.class));
+    }
+
+    @Test
+    void testRegisterUploadReferencesContentStoredElsewhere() throws IOException {
+        // Arrange
+        String checksum = "0123456789abcdef0123456789abcdef";
+        String objectKey = "uploads/" + checksum + "-report.pdf";
+        when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder()
+                .contentLength(17L)
+                .eTag("\"" + checksum + "\"")
+                .build());
+        when(s3Client.headObject(any(Consumer.class))).thenReturn(HeadObjectResponse.builder().build());
+        when(s3Client.deleteObject(any(Consumer.class))).thenReturn(DeleteObjectResponse.builder().build());
+        StoredObject storedObject = new StoredObject();
+        storedObject.setId(7L);
+        storedObject.setChecksum(checksum);
+        storedObject.setDocumentSize(17L);
+        storedObject.setObjectKey("archive/" + checksum + "-original.pdf");
+        storedObject.setDmsId("existing-cid");
+        when(storedObjectRepo.findByChecksum(checksum)).thenReturn(Optional.of(storedObject));
+        when(storedObjectRepo.incrementReferences(7L)).thenReturn(1);
+
+        // Act
+        ResponseEntity<UploaderResponse> response = uploaderService.registerUpload(objectKey, checksum, 17L,
+                "report.pdf", "uploads");
+
+        // Assert
+        assertEquals("existing-cid", response.getBody().getDmsId());
+        assertEquals(storedObject.getObjectKey(), response.getBody().getObjectKey());
+        verify(s3Client).deleteObject(any(Consumer.class));
+        verify(storedObjectRepo, never()).save(any(StoredObject.class));
+    }
+
 }
@@ -0,0 +1,121 @@
+package com.nexus.dms.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityLogSinkTest {
+
+    private static final ActivityLogTable TABLE = new ActivityLogTable("dms", "t_dms_logs", "document_record_id");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ActivityLogSink sink(int capacity, int batchSize) {
+        return new ActivityLogSink(jdbcTemplate, meterRegistry, TABLE, capacity, batchSize, 50, 2, 5_000);
+    }
+
+    private ActivityLogSink.Entry entry(int status) {
+        return new ActivityLogSink.Entry("/dms/upload/org", "POST", status, "{}", "{}", 1L,
+                new Timestamp(System.currentTimeMillis()));
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testQueuedEntriesAreWrittenInBatchesOnFlush() throws InterruptedException {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(contains("insert into dms.t_dms_logs ("), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+                    batchSizes.add(invocation.<Collection<?>>getArgument(1).size());
+                    return new int[0][];
+                });
+        ActivityLogSink sink = sink(100, 2);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sink.submit(entry(200)));
+        }
+
+        sink.start();
+        sink.flush();
+
+        assertEquals(List.of(2, 2, 1), batchSizes);
+        assertEquals(5, counter("dms.activity_log.written"));
+    }
+
+    @Test
+    void testFullQueueSamplesSuccessesAndDropsOverflow() throws InterruptedException {
+        ActivityLogSink sink = sink(4, 100);
+
+        // Below the high water mark of 3 everything is kept
+        assertTrue(sink.submit(entry(200)));
+        assertTrue(sink.submit(entry(200)));
+        assertTrue(sink.submit(entry(200)));
+        // Above it only every second success is kept, failures always are
+        assertFalse(sink.submit(entry(200)));
+        assertTrue(sink.submit(entry(500)));
+        assertFalse(sink.submit(entry(500)));
+
+        assertEquals(1, counter("dms.activity_log.sampled_out"));
+        assertEquals(1, counter("dms.activity_log.dropped"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedBatchIsRetriedEntryByEntry() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("invalid input syntax for type json"));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("invalid input syntax for type json"));
+        ActivityLogSink sink = sink(100, 10);
+        sink.submit(entry(200));
+        sink.submit(entry(200));
+
+        sink.start();
+        sink.flush();
+
+        verify(jdbcTemplate, times(2)).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(1, counter("dms.activity_log.written"));
+        assertEquals(1, counter("dms.activity_log.failed"));
+    }
+
+    @Test
+    void testEntriesAfterShutdownAreDropped() throws InterruptedException {
+        ActivityLogSink sink = sink(100, 10);
+        sink.start();
+        sink.flush();
+
+        assertFalse(sink.submit(entry(200)));
+        assertEquals(1, counter("dms.activity_log.dropped"));
+    }
+}
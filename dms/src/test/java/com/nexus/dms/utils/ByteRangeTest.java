@@ -0,0 +1,60 @@
+package com.nexus.dms.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    void testParseNoHeader() {
+        assertNull(ByteRange.parse(null, 1000));
+    }
+
+    @Test
+    void testParseClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=0-99", 1000);
+        assertNotNull(range);
+        assertEquals(0, range.getStart());
+        assertEquals(99, range.getEnd());
+        assertEquals(100, range.length());
+        assertEquals("bytes 0-99/1000", range.toContentRange(1000));
+        assertEquals("bytes=0-99", range.toRangeHeader());
+    }
+
+    @Test
+    void testParseOpenEndedRange() {
+        ByteRange range = ByteRange.parse("bytes=900-", 1000);
+        assertEquals(900, range.getStart());
+        assertEquals(999, range.getEnd());
+    }
+
+    @Test
+    void testParseSuffixRange() {
+        ByteRange range = ByteRange.parse("bytes=-100", 1000);
+        assertEquals(900, range.getStart());
+        assertEquals(999, range.getEnd());
+    }
+
+    @Test
+    void testParseEndBeyondSizeIsClamped() {
+        ByteRange range = ByteRange.parse("bytes=500-5000", 1000);
+        assertEquals(999, range.getEnd());
+    }
+
+    @Test
+    void testParseMultiRangeServesWholeDocument() {
+        assertNull(ByteRange.parse("bytes=0-10,20-30", 1000));
+    }
+
+    @Test
+    void testParseUnsatisfiableRange() {
+        assertThrows(IllegalStateException.class, () -> ByteRange.parse("bytes=1000-1100", 1000));
+    }
+
+    @Test
+    void testParseMalformedRangeIgnored() {
+        assertNull(ByteRange.parse("bytes=abc-def", 1000));
+    }
+
+}
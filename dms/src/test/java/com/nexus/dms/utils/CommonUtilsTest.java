@@ -9,6 +9,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.security.NoSuchAlgorithmException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,7 +27,7 @@ class CommonUtilsTest {
 
     @BeforeEach
     void setUp() {
-        commonUtils = new CommonUtils(new WebConstants());
+        commonUtils = new CommonUtils(new WebConstants(), null);
     }
 
     @Test
@@ -160,5 +163,70 @@ class CommonUtilsTest {
         });
     }
 
-}
+    @Test
+    void testStageFileCapturesChecksumAndHeader() throws IOException {
+        byte[] content = "%PDF-1.7 staged content".getBytes();
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(multipartFile.getOriginalFilename()).thenReturn("staged.pdf");
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+
+        StagedFile stagedFile = commonUtils.stageFile(multipartFile);
+        try (stagedFile) {
+            assertEquals(content.length, stagedFile.getSize());
+            assertEquals("staged.pdf", stagedFile.getOriginalFilename());
+            assertArrayEquals(Files.readAllBytes(stagedFile.getPath()), content);
+            assertArrayEquals("%PDF-1.7 staged ".getBytes(), stagedFile.getHeader());
+            assertEquals(32, stagedFile.getChecksum().length());
+        }
+        assertFalse(Files.exists(stagedFile.getPath()));
+    }
+
+    @Test
+    void testStageFileChecksumMatchesInMemoryChecksum() throws IOException, NoSuchAlgorithmException {
+        byte[] content = new byte[100_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        System.arraycopy("%PDF-".getBytes(), 0, content, 0, 5);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+
+        try (StagedFile stagedFile = commonUtils.stageFile(multipartFile)) {
+            assertEquals(commonUtils.generateChecksum(content), stagedFile.getChecksum());
+            assertEquals(CommonConstants.HEADER_SNIFF_BYTES, stagedFile.getHeader().length);
+        }
+    }
+
+    @Test
+    void testStageFileStoresDetectedTypeForGenericDeclaration() throws IOException {
+        byte[] content = new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(multipartFile.getContentType()).thenReturn("application/octet-stream");
+
+        try (StagedFile stagedFile = commonUtils.stageFile(multipartFile)) {
+            assertEquals(CommonConstants.PNG_VALUE, stagedFile.getContentType());
+        }
+    }
+
+    @Test
+    void testStageFileRejectsMislabeledContent() throws IOException {
+        byte[] content = "%PDF-1.7 declared as an image".getBytes();
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(multipartFile.getContentType()).thenReturn("image/png");
+
+        FileValidationException exception = assertThrows(FileValidationException.class,
+                () -> commonUtils.stageFile(multipartFile));
+        assertEquals(FileExceptionType.INVALID_FORMAT, exception.getFileExceptionType());
+    }
 
+    @Test
+    void testStageFileRejectsUnknownContent() throws IOException {
+        byte[] content = "MZ this is an executable".getBytes();
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(multipartFile.getContentType()).thenReturn("application/pdf");
+
+        FileValidationException exception = assertThrows(FileValidationException.class,
+                () -> commonUtils.stageFile(multipartFile));
+        assertEquals(FileExceptionType.UNSUPPORTED_TYPE, exception.getFileExceptionType());
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.nexus.dms.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentContentCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private DocumentContentCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cache = new DocumentContentCache(cacheDir.toString(), 300, true, new SimpleMeterRegistry());
+    }
+
+    private void put(String key, int size) throws IOException {
+        Path temp = cache.newTempFile();
+        Files.write(temp, new byte[size]);
+        cache.commit(key, temp, size);
+    }
+
+    @Test
+    void testLookupMiss() {
+        assertTrue(cache.lookup("missing").isEmpty());
+        assertEquals(0.0, cache.hitRatio());
+    }
+
+    @Test
+    void testCommitThenHit() throws IOException {
+        put("a", 50);
+
+        assertTrue(cache.lookup("a").isPresent());
+        assertEquals(50, cache.getCurrentBytes());
+        assertEquals(1.0, cache.hitRatio());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        put("a", 70);
+        put("b", 70);
+        put("c", 70);
+        // Touch "a" so "b" becomes the eldest entry
+        assertTrue(cache.lookup("a").isPresent());
+        put("d", 70);
+        put("e", 70);
+
+        assertTrue(cache.lookup("b").isEmpty());
+        assertFalse(Files.exists(cacheDir.resolve("b")));
+        assertTrue(cache.lookup("a").isPresent());
+        assertTrue(cache.getCurrentBytes() <= 300);
+    }
+
+    @Test
+    void testCommitDiscardsIncompleteFile() throws IOException {
+        Path temp = cache.newTempFile();
+        Files.write(temp, new byte[10]);
+
+        cache.commit("partial", temp, 20);
+
+        assertTrue(cache.lookup("partial").isEmpty());
+        assertFalse(Files.exists(temp));
+    }
+
+    @Test
+    void testIsCacheableLimitsSingleEntry() {
+        assertTrue(cache.isCacheable(75));
+        assertFalse(cache.isCacheable(76));
+        assertFalse(cache.isCacheable(0));
+    }
+
+    @Test
+    void testReloadsEntriesFromDisk() throws IOException {
+        put("a", 40);
+
+        DocumentContentCache reloaded = new DocumentContentCache(cacheDir.toString(), 300, true,
+                new SimpleMeterRegistry());
+
+        assertTrue(reloaded.lookup("a").isPresent());
+        assertEquals(40, reloaded.getCurrentBytes());
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.nexus.dms.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyBloomFilterTest {
+
+    @Test
+    void testAddedKeysAreAlwaysFound() {
+        KeyBloomFilter filter = new KeyBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("org/" + i + "-document.pdf");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("org/" + i + "-document.pdf"));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        KeyBloomFilter filter = new KeyBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("org/" + i + "-document.pdf");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other/" + i + "-document.pdf")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testEmptyFilterContainsNothing() {
+        assertFalse(new KeyBloomFilter(100, 0.01).mightContain("org/a.pdf"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.nexus.dms.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ObjectKeysTest {
+
+    @Test
+    void testPersistedKeyWins() {
+        assertEquals("org/abc-report.pdf", ObjectKeys.resolve("org/abc-report.pdf", "org", "report.pdf"));
+    }
+
+    @Test
+    void testRecordWithoutKeyUsesFolderAndName() {
+        assertEquals("org/report.pdf", ObjectKeys.resolve(null, "org", "report.pdf"));
+        assertEquals("org/report.pdf", ObjectKeys.resolve("", "org", "report.pdf"));
+        assertEquals("report.pdf", ObjectKeys.resolve(null, null, "report.pdf"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.nexus.dms.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PdfTrailerScannerTest {
+
+    private static final String BODY = "%PDF-1.4\n"
+            + "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n"
+            + "2 0 obj\n<< /Type /Pages /Kids [] /Count 0 >>\nendobj\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testClassicTrailerWithoutEncrypt() throws IOException {
+        String pdf = BODY + "xref\n0 3\n0000000000 65535 f \n"
+                + "trailer\n<< /Size 3 /Root 1 0 R /ID [<ab12><ab12>] >>\nstartxref\n" + BODY.length() + "\n%%EOF\n";
+
+        assertEquals(PdfTrailerScanner.Encryption.NOT_ENCRYPTED, PdfTrailerScanner.scan(write(pdf)));
+    }
+
+    @Test
+    void testClassicTrailerWithEncrypt() throws IOException {
+        String pdf = BODY + "xref\n0 3\n0000000000 65535 f \n"
+                + "trailer\n<< /Size 3 /Root 1 0 R /Encrypt 3 0 R >>\nstartxref\n" + BODY.length() + "\n%%EOF\n";
+
+        assertEquals(PdfTrailerScanner.Encryption.ENCRYPTED, PdfTrailerScanner.scan(write(pdf)));
+    }
+
+    @Test
+    void testCrossReferenceStreamWithEncrypt() throws IOException {
+        String xrefStream = "3 0 obj\n<< /Type /XRef /Size 4 /Root 1 0 R /Encrypt 4 0 R /Length 0 >>\nstream\n"
+                + "\nendstream\nendobj\n";
+        // Padding pushes the xref stream out of the initial tail window
+        String pdf = BODY + xrefStream + "%" + "x".repeat(2048) + "\nstartxref\n" + BODY.length() + "\n%%EOF\n";
+
+        assertEquals(PdfTrailerScanner.Encryption.ENCRYPTED, PdfTrailerScanner.scan(write(pdf)));
+    }
+
+    @Test
+    void testEncryptMetadataIsNotMistakenForEncrypt() throws IOException {
+        String pdf = BODY + "xref\n0 3\n0000000000 65535 f \n"
+                + "trailer\n<< /Size 3 /Root 1 0 R /EncryptMetadata false >>\nstartxref\n" + BODY.length()
+                + "\n%%EOF\n";
+
+        assertEquals(PdfTrailerScanner.Encryption.NOT_ENCRYPTED, PdfTrailerScanner.scan(write(pdf)));
+    }
+
+    @Test
+    void testMissingStartxrefIsUnknown() throws IOException {
+        assertEquals(PdfTrailerScanner.Encryption.UNKNOWN, PdfTrailerScanner.scan(write(BODY)));
+    }
+
+    @Test
+    void testNonPdfIsUnknown() throws IOException {
+        assertEquals(PdfTrailerScanner.Encryption.UNKNOWN, PdfTrailerScanner.scan(write("not a pdf at all")));
+    }
+
+    private Path write(String content) throws IOException {
+        Path path = Files.createTempFile(tempDir, "scan-", ".pdf");
+        Files.write(path, content.getBytes(StandardCharsets.ISO_8859_1));
+        return path;
+    }
+}
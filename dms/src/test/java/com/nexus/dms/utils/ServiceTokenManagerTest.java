@@ -0,0 +1,35 @@
+package com.nexus.dms.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ServiceTokenManagerTest {
+
+    @Test
+    void testExpiryIsReadFromExpClaim() {
+        String token = jwt("{\"sub\":\"dms@nexus\",\"exp\":1767225600}");
+
+        assertEquals(1767225600000L, ServiceTokenManager.expiryOf(token));
+    }
+
+    @Test
+    void testTokenWithoutExpClaimHasNoExpiry() {
+        assertEquals(0, ServiceTokenManager.expiryOf(jwt("{\"sub\":\"dms@nexus\"}")));
+    }
+
+    @Test
+    void testMalformedTokenHasNoExpiry() {
+        assertEquals(0, ServiceTokenManager.expiryOf("not-a-jwt"));
+        assertEquals(0, ServiceTokenManager.expiryOf("header.%%%.signature"));
+    }
+
+    private String jwt(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
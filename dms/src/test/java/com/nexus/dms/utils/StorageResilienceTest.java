@@ -0,0 +1,70 @@
+package com.nexus.dms.utils;
+
+import com.nexus.dms.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageResilienceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StorageResilience resilience(int maxAttempts, int failureThreshold) {
+        return new StorageResilience(maxAttempts, 1, 2, failureThreshold, 60_000, 4, 10, 4, meterRegistry);
+    }
+
+    @Test
+    void testTransientFailureIsRetried() {
+        StorageResilience resilience = resilience(3, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = resilience.execute("headObject", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw SdkClientException.create("connection reset", new IOException("reset"));
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, meterRegistry.counter("dms.storage.retries", "operation", "headObject").count());
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() {
+        StorageResilience resilience = resilience(3, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(NoSuchKeyException.class, () -> resilience.execute("getObject", () -> {
+            calls.incrementAndGet();
+            throw NoSuchKeyException.builder().statusCode(404).message("missing").build();
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testCircuitOpensAndFailsFast() {
+        StorageResilience resilience = resilience(1, 2);
+        AtomicInteger calls = new AtomicInteger();
+        Runnable failing = () -> {
+            calls.incrementAndGet();
+            throw S3Exception.builder().statusCode(503).message("slow down").build();
+        };
+
+        assertThrows(S3Exception.class, () -> resilience.run("putObject", failing));
+        assertThrows(S3Exception.class, () -> resilience.run("putObject", failing));
+        assertTrue(resilience.isCircuitOpen());
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> resilience.run("putObject", failing));
+        assertEquals(2, calls.get());
+        assertTrue(exception.getRetryAfterSeconds() > 0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.nexus.dms.utils;
+
+import com.nexus.dms.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UploadAdmissionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UploadAdmission admission = new UploadAdmission(10 * 1024, 10, 3, meterRegistry);
+
+    @Test
+    void testPermitsAreWeightedBySize() {
+        try (UploadAdmission.Permit _ = admission.acquire(4 * 1024)) {
+            assertEquals(6 * 1024, admission.availableBytes());
+            try (UploadAdmission.Permit _ = admission.acquire(6 * 1024)) {
+                assertEquals(0, admission.availableBytes());
+            }
+        }
+        assertEquals(10 * 1024, admission.availableBytes());
+    }
+
+    @Test
+    void testRejectsWithRetryAfterWhenSaturated() {
+        try (UploadAdmission.Permit _ = admission.acquire(8 * 1024)) {
+            ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                    () -> admission.acquire(4 * 1024));
+            assertEquals(3, exception.getRetryAfterSeconds());
+        }
+        assertEquals(1, meterRegistry.counter("dms.upload.admission.rejected").count());
+    }
+
+    @Test
+    void testUploadLargerThanBudgetIsAdmittedAlone() {
+        UploadAdmission.Permit permit = admission.acquire(1024 * 1024);
+        assertEquals(0, admission.availableBytes());
+
+        permit.close();
+        permit.close();
+        assertEquals(10 * 1024, admission.availableBytes());
+    }
+}
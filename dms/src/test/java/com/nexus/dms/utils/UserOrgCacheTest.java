@@ -0,0 +1,107 @@
+package com.nexus.dms.utils;
+
+import com.nexus.dms.dto.UserOrgDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class UserOrgCacheTest {
+
+    private final UserOrgCache cache = new UserOrgCache(300, 2, true, new SimpleMeterRegistry());
+
+    @Test
+    void testHitAvoidsSecondLookup() {
+        AtomicInteger calls = new AtomicInteger();
+        UserOrgDetails details = new UserOrgDetails(7L, "RETAILER");
+
+        cache.get(1L, userId -> {
+            calls.incrementAndGet();
+            return details;
+        });
+        UserOrgDetails second = cache.get(1L, userId -> {
+            calls.incrementAndGet();
+            return null;
+        });
+
+        assertSame(details, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testConcurrentMissesShareOneLookup() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<UserOrgDetails>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> cache.get(1L, userId -> {
+                    calls.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException _) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new UserOrgDetails(7L, "SUPPLIER");
+                }), executor));
+            }
+            // Give every caller time to join the running lookup
+            Thread.sleep(200);
+            release.countDown();
+
+            for (CompletableFuture<UserOrgDetails> future : futures) {
+                assertEquals("SUPPLIER", future.get(5, TimeUnit.SECONDS).getOrgType());
+            }
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedLookupIsNotCached() {
+        assertNull(cache.get(1L, userId -> null));
+
+        UserOrgDetails details = cache.get(1L, userId -> new UserOrgDetails(7L, "LOGISTICS"));
+
+        assertEquals("LOGISTICS", details.getOrgType());
+    }
+
+    @Test
+    void testInvalidateForcesReload() {
+        cache.get(1L, userId -> new UserOrgDetails(7L, "RETAILER"));
+
+        cache.invalidate(1L);
+        UserOrgDetails details = cache.get(1L, userId -> new UserOrgDetails(8L, "SUPPLIER"));
+
+        assertEquals(8L, details.getOrgId());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        AtomicInteger calls = new AtomicInteger();
+        cache.get(1L, userId -> new UserOrgDetails(1L, "RETAILER"));
+        cache.get(2L, userId -> new UserOrgDetails(2L, "RETAILER"));
+        cache.get(1L, userId -> null);
+        cache.get(3L, userId -> new UserOrgDetails(3L, "RETAILER"));
+
+        cache.get(2L, userId -> {
+            calls.incrementAndGet();
+            return new UserOrgDetails(2L, "RETAILER");
+        });
+
+        assertEquals(1, calls.get());
+    }
+}
@@ -81,6 +81,8 @@ public class SecurityConfig {
                             response.sendError(403, "Forbidden");
                         }))
                 .authorizeHttpRequests((authz) -> authz
+                        // Audit logs hold other users' requests, only admins may read them
+                        .requestMatchers("/iam/activity-logs/**").hasRole("ADMIN")
                         .requestMatchers("/**").permitAll()
                         // .requestMatchers("/iam/auth/*").permitAll()
                         .requestMatchers("/iam/auth/register").permitAll()
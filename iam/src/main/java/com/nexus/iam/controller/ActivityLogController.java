@@ -0,0 +1,34 @@
+package com.nexus.iam.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.nexus.iam.dto.ActivityLogPageDto;
+import com.nexus.iam.dto.ActivityLogSearchDto;
+import com.nexus.iam.service.ActivityLogService;
+
+@RestController
+@RequestMapping("/iam/activity-logs")
+public class ActivityLogController {
+
+    @Autowired
+    private ActivityLogService activityLogService;
+
+    /**
+     * Audit query over the activity logs in [from, to), newest first, optionally filtered by
+     * requestUrl, responseStatus and userId
+     * Pages are fetched by passing back the nextCursor of the previous response
+     * Admins only, see SecurityConfig; bodies of the auth endpoints are never returned
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivityLogPageDto> searchLogs(ActivityLogSearchDto filter,
+                                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(activityLogService.searchLogs(filter, cursor, limit));
+    }
+}
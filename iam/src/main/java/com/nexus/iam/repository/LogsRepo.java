@@ -6,6 +6,6 @@ import org.springframework.stereotype.Repository;
 import com.nexus.iam.entities.Logs;
 
 @Repository
-public interface LogsRepo extends JpaRepository<Logs, Long> {
+public interface LogsRepo extends JpaRepository<Logs, Long>, LogsSearchRepo {
 
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.nexus.iam.service;
+
+import com.nexus.iam.dto.ActivityLogPageDto;
+import com.nexus.iam.dto.ActivityLogSearchDto;
+
+public interface ActivityLogService {
+
+    ActivityLogPageDto searchLogs(ActivityLogSearchDto filter, String cursor, Integer limit);
+}
@@ -0,0 +1,186 @@
+package com.nexus.iam.utils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes activity logs in the background, a request only pays for an enqueue
+ * Entries go to a bounded lock-free queue that a single writer thread drains in JDBC batches
+ * Once the queue is three quarters full only failed calls and a sample of the rest are kept;
+ * when it is full entries are dropped, both are counted
+ * Entries still queued at shutdown are written before the context closes
+ * Nothing here is module specific, the table and settings come from ActivityLogConfig
+ */
+public class ActivityLogSink {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String insertSql;
+
+    private final int capacity;
+
+    private final int highWaterMark;
+
+    private final int sampleRate;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long shutdownTimeoutMs;
+
+    // ConcurrentLinkedQueue is unbounded, the size counter reserves a slot before each offer
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    private final Counter written;
+
+    private final Counter sampledOut;
+
+    private final Counter dropped;
+
+    private final Counter failed;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public ActivityLogSink(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, ActivityLogTable table,
+            int capacity, int batchSize, long flushIntervalMs, int sampleRate, long shutdownTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertSql = "insert into " + table.qualifiedName() + " (request_url, http_method, "
+                + "response_status, request, response, " + table.ownerColumn() + ", created_on) "
+                + "values (?, ?, ?, cast(? as jsonb), cast(? as jsonb), ?, ?)";
+        this.capacity = Math.max(1, capacity);
+        this.highWaterMark = Math.max(1, this.capacity * 3 / 4);
+        this.sampleRate = Math.max(1, sampleRate);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.writer = Thread.ofPlatform().name("activity-log-writer").daemon(true).unstarted(this::drainLoop);
+
+        String metricPrefix = table.schema() + ".activity_log.";
+        Gauge.builder(metricPrefix + "queued", size, AtomicInteger::get).register(meterRegistry);
+        this.written = Counter.builder(metricPrefix + "written").register(meterRegistry);
+        this.sampledOut = Counter.builder(metricPrefix + "sampled_out").register(meterRegistry);
+        this.dropped = Counter.builder(metricPrefix + "dropped").register(meterRegistry);
+        this.failed = Counter.builder(metricPrefix + "failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Never blocks and never throws for a full queue
+     *
+     * @return false if the entry was sampled out or dropped
+     */
+    public boolean submit(Entry entry) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        if (size.get() >= highWaterMark && entry.responseStatus() < 400
+                && sampleSequence.incrementAndGet() % sampleRate != 0) {
+            sampledOut.increment();
+            return false;
+        }
+        int queued = size.incrementAndGet();
+        if (queued > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(entry);
+        if (queued == batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Stop accepting entries and wait for the writer to store the ones already queued
+     */
+    @PreDestroy
+    public void flush() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(shutdownTimeoutMs);
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || size.get() > 0) {
+            Entry entry;
+            while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+                size.decrementAndGet();
+                batch.add(entry);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+            // Wait for a full batch or the flush interval, whichever comes first
+            if (running && size.get() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        try {
+            jdbcTemplate.batchUpdate(insertSql, batch, batch.size(), this::bind);
+            written.increment(batch.size());
+        } catch (RuntimeException _) {
+            // One unstorable entry fails the whole batch, the others are written one by one
+            for (Entry entry : batch) {
+                try {
+                    jdbcTemplate.update(insertSql, ps -> bind(ps, entry));
+                    written.increment();
+                } catch (RuntimeException _) {
+                    failed.increment();
+                }
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, Entry entry) throws SQLException {
+        ps.setString(1, entry.requestUrl());
+        ps.setString(2, entry.httpMethod());
+        ps.setInt(3, entry.responseStatus());
+        ps.setString(4, entry.request());
+        ps.setString(5, entry.response());
+        ps.setObject(6, entry.ownerId(), Types.BIGINT);
+        ps.setTimestamp(7, entry.createdOn());
+    }
+
+    /**
+     * Request and response are already serialized JSON, ownerId goes to the owner column of the table
+     */
+    public record Entry(String requestUrl, String httpMethod, int responseStatus, String request, String response,
+            Long ownerId, Timestamp createdOn) {
+    }
+}
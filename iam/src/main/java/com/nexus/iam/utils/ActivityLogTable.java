@@ -0,0 +1,14 @@
+package com.nexus.iam.utils;
+
+/**
+ * The log table a module writes its activity logs to, the one thing that differs between the modules
+ * The schema also prefixes the metric names and the index names of the table
+ *
+ * @param ownerColumn the bigint column identifying whose call was logged
+ */
+public record ActivityLogTable(String schema, String name, String ownerColumn) {
+
+    public String qualifiedName() {
+        return schema + "." + name;
+    }
+}
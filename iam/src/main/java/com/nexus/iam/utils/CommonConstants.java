@@ -9,4 +9,7 @@ public class CommonConstants {
     public static final String CONTENT_TYPE = "Content-Type";
     public static final String APPLICATION_JSON = "application/json";
     public static final String APPLICATION_MULTIPART_FORMDATA = "application/multipart-formdata";
+    public static final String CREDENTIAL_ENDPOINTS = "/iam/auth/";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 }
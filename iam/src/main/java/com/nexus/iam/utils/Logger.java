@@ -2,9 +2,7 @@ package com.nexus.iam.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nexus.iam.entities.Logs;
 import com.nexus.iam.exception.ServiceLevelException;
-import com.nexus.iam.repository.LogsRepo;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -14,16 +12,16 @@ import java.sql.Timestamp;
 @Service
 public class Logger {
 
-    private final LogsRepo logsRepo;
+    private final ActivityLogSink activityLogSink;
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    public Logger(LogsRepo logsRepo) {
-        this.logsRepo = logsRepo;
+    public Logger(ActivityLogSink activityLogSink) {
+        this.activityLogSink = activityLogSink;
     }
 
     /**
-     * Save logs to database
+     * Queue logs for the background writer, see {@link ActivityLogSink}
      * Handles both request and response objects
      * Serializes objects to JSON if they're not already serialized
      *
@@ -37,15 +35,15 @@ public class Logger {
     public void saveLogs(String requestUrl, HttpMethod httpMethod, HttpStatus httpStatus, Object request,
                          Object response, Long userId) {
         try {
-            Logs log = new Logs();
-            log.setRequestUrl(requestUrl);
-            log.setHttpMethod(httpMethod.name());
-            log.setRequest(serializeObject(request));
-            log.setResponse(serializeObject(response));
-            log.setResponseStatus(httpStatus.value());
-            log.setUserId(userId != null ? userId : 0L);
-            log.setCreatedOn(new Timestamp(System.currentTimeMillis()));
-            logsRepo.save(log);
+            // Credentials and issued tokens are never stored, only that the call happened
+            if (requestUrl != null && requestUrl.startsWith(CommonConstants.CREDENTIAL_ENDPOINTS)) {
+                request = null;
+                response = null;
+            }
+            // Serialized here, the request objects may change once the call returns
+            activityLogSink.submit(new ActivityLogSink.Entry(requestUrl, httpMethod.name(), httpStatus.value(),
+                    serializeObject(request), serializeObject(response), userId != null ? userId : 0L,
+                    new Timestamp(System.currentTimeMillis())));
         } catch (Exception e) {
             throw new ServiceLevelException("Logger", "Failed to save logs", "saveLogs", e.getClass().getSimpleName(),
                     e.getLocalizedMessage());